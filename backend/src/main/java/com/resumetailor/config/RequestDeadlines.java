@@ -0,0 +1,94 @@
+package com.resumetailor.config;
+
+import com.resumetailor.service.Deadline;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.context.request.async.DeferredResultProcessingInterceptor;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+
+/**
+ * Gives each AI-backed request a {@link Deadline}: the client's {@value #HEADER} header when present,
+ * otherwise the endpoint's default, never more than {@code request.deadline.max-ms}. The deadline is
+ * kept on the request, and ends early when the request completes or, for async handlers
+ * ({@code CompletableFuture} and {@code SseEmitter} both run as deferred results), when it times out
+ * or fails because the client disconnected; any upstream call still running for it is then aborted.
+ */
+@Configuration
+public class RequestDeadlines implements WebMvcConfigurer {
+    private static final Logger log = LoggerFactory.getLogger(RequestDeadlines.class);
+
+    public static final String HEADER = "X-Request-Timeout-Ms";
+    private static final String ATTRIBUTE = RequestDeadlines.class.getName() + ".deadline";
+
+    @Value("${request.deadline.max-ms:900000}")
+    private long maxMs;
+
+    public Deadline start(HttpServletRequest request, long defaultMs) {
+        long timeoutMs = defaultMs;
+        String header = request.getHeader(HEADER);
+        if (header != null && !header.isBlank()) {
+            try {
+                timeoutMs = Long.parseLong(header.trim());
+            } catch (NumberFormatException e) {
+                log.debug("[RequestDeadlines] Ignoring malformed {} header '{}'", HEADER, header);
+            }
+        }
+        Deadline deadline = Deadline.after(Duration.ofMillis(Math.max(0, Math.min(timeoutMs, maxMs))));
+        request.setAttribute(ATTRIBUTE, deadline);
+        return deadline;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new HandlerInterceptor() {
+            @Override
+            public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                        Exception ex) {
+                if (request.getAttribute(ATTRIBUTE) instanceof Deadline deadline) {
+                    deadline.cancel("request completed");
+                }
+            }
+        });
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.registerDeferredResultInterceptors(new DeferredResultProcessingInterceptor() {
+            @Override
+            public <T> boolean handleTimeout(NativeWebRequest request, DeferredResult<T> result) {
+                cancel(request, "async request timed out");
+                return true;
+            }
+
+            @Override
+            public <T> boolean handleError(NativeWebRequest request, DeferredResult<T> result, Throwable t) {
+                cancel(request, "client disconnected");
+                return true;
+            }
+
+            @Override
+            public <T> void afterCompletion(NativeWebRequest request, DeferredResult<T> result) {
+                cancel(request, "request completed");
+            }
+        });
+    }
+
+    private static void cancel(NativeWebRequest request, String reason) {
+        Object deadline = request.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (deadline instanceof Deadline d) {
+            d.cancel(reason);
+        }
+    }
+}
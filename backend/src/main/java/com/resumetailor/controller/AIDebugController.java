@@ -1,14 +1,35 @@
 package com.resumetailor.controller;
 
 import com.resumetailor.service.AIService;
+import com.resumetailor.service.CorpusStats;
+import com.resumetailor.service.JobIndex;
+import com.resumetailor.service.ResumeIndex;
+import com.resumetailor.service.SkillTaxonomy;
+import com.resumetailor.service.TailoringScheduler;
+import com.resumetailor.service.TailoringTaskService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 @RestController
 @RequestMapping("/api/ai")
 public class AIDebugController {
     private final AIService ai;
-    public AIDebugController(AIService ai){ this.ai = ai; }
+    private final TailoringTaskService tasks;
+    private final TailoringScheduler scheduler;
+    private final ResumeIndex resumeIndex;
+    private final JobIndex jobIndex;
+    private final CorpusStats corpusStats;
+    private final SkillTaxonomy skillTaxonomy;
+    public AIDebugController(AIService ai, TailoringTaskService tasks, TailoringScheduler scheduler,
+                             ResumeIndex resumeIndex, JobIndex jobIndex, CorpusStats corpusStats,
+                             SkillTaxonomy skillTaxonomy){
+        this.ai = ai; this.tasks = tasks; this.scheduler = scheduler;
+        this.resumeIndex = resumeIndex; this.jobIndex = jobIndex; this.corpusStats = corpusStats;
+        this.skillTaxonomy = skillTaxonomy;
+    }
 
     @GetMapping("/ping")
     public ResponseEntity<String> ping() {
@@ -18,4 +39,23 @@ public class AIDebugController {
         );
         return ResponseEntity.ok(out);
     }
-}
\ No newline at end of file
+
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>(ai.stats());
+        stats.put("tasks", tasks.stats());
+        stats.put("scheduler", scheduler.stats());
+        stats.put("resumeIndex", resumeIndex.stats());
+        stats.put("jobIndex", jobIndex.stats());
+        stats.put("corpus", corpusStats.stats());
+        stats.put("skills", skillTaxonomy.stats());
+        return ResponseEntity.ok(stats);
+    }
+
+    /** Recompiles the skills taxonomy now instead of at the next change check. */
+    @PostMapping("/skills/reload")
+    public ResponseEntity<String> reloadSkills() {
+        skillTaxonomy.reload();
+        return ResponseEntity.accepted().body("Skills taxonomy reload started");
+    }
+}
@@ -2,9 +2,15 @@ package com.resumetailor.controller;
 
 import com.resumetailor.model.Job;
 import com.resumetailor.repository.JobRepository;
+import com.resumetailor.service.ATSService;
+import com.resumetailor.service.JobDigestService;
+import com.resumetailor.service.JobIndex;
+import com.resumetailor.service.JobTermIndex;
+import com.resumetailor.service.ResumeIndex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -25,6 +31,21 @@ public class JobUploadController {
     @Autowired
     private JobRepository jobRepository;
 
+    @Autowired
+    private JobDigestService jobDigestService;
+
+    @Autowired
+    private ATSService atsService;
+
+    @Autowired
+    private ResumeIndex resumeIndex;
+
+    @Autowired
+    private JobIndex jobIndex;
+
+    @Value("${ats.matches.max-k:100}")
+    private int maxMatches;
+
     @PostMapping(value = "/upload", consumes = MediaType.TEXT_PLAIN_VALUE)
     public ResponseEntity<?> uploadJobDescription(
             @RequestBody String jobDescriptionText,
@@ -54,8 +75,13 @@ public class JobUploadController {
             job.setCreatedAt(LocalDateTime.now());
             job.setUpdatedAt(LocalDateTime.now());
             job.setApplicationDeadline(null);
+            // Descriptions never change after upload, so ATS scoring reuses this instead of re-tokenizing
+            JobTermIndex termIndex = atsService.indexJob(job.getDescription());
+            job.setTermIndex(termIndex.encode());
 
             Job savedJob = jobRepository.save(job);
+            jobIndex.index(savedJob, termIndex);
+            jobDigestService.digestInBackground(savedJob);
 
             Map<String, Object> response = new HashMap<>();
             response.put("status", "success");
@@ -89,10 +115,42 @@ public class JobUploadController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    /**
+     * Stored resumes ranked by ATS score against this job, best first, from the resume index
+     * rather than by scoring each resume.
+     */
+    @GetMapping("/{id}/matches")
+    public ResponseEntity<?> getMatches(@PathVariable Long id,
+                                        @RequestParam(value = "k", required = false, defaultValue = "10") int k) {
+        if (k < 1 || k > maxMatches) {
+            return ResponseEntity.badRequest().body("k must be between 1 and " + maxMatches);
+        }
+        if (!resumeIndex.isReady()) {
+            Map<String, String> error = new HashMap<>();
+            error.put("status", "error");
+            error.put("message", "Resume index is still loading, please retry shortly");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header("Retry-After", "5").body(error);
+        }
+        return jobRepository.findById(id)
+                .<ResponseEntity<?>>map(job -> {
+                    long started = System.nanoTime();
+                    List<ResumeIndex.Match> matches = resumeIndex.topMatches(job.getDescription(), k);
+
+                    Map<String, Object> response = new HashMap<>();
+                    response.put("jobId", id);
+                    response.put("resumesIndexed", resumeIndex.size());
+                    response.put("matches", matches);
+                    response.put("tookMs", (System.nanoTime() - started) / 1_000_000.0);
+                    return ResponseEntity.ok(response);
+                })
+                .orElse(ResponseEntity.notFound().build());
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleteJob(@PathVariable Long id) {
         if (jobRepository.existsById(id)) {
             jobRepository.deleteById(id);
+            jobIndex.remove(id);
             return ResponseEntity.ok().body("Job description deleted successfully");
         }
         return ResponseEntity.notFound().build();
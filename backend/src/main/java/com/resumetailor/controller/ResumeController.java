@@ -1,31 +1,55 @@
 package com.resumetailor.controller;
 
+import com.resumetailor.config.RequestDeadlines;
+import com.resumetailor.dto.BatchTailorRequest;
 import com.resumetailor.dto.TailorResumeRequest;
 import com.resumetailor.dto.TailoredResumeResponse;
+import com.resumetailor.dto.TailoringTaskResponse;
 import com.resumetailor.model.Job;
 import com.resumetailor.model.Resume;
 import com.resumetailor.model.TailoredResume;
+import com.resumetailor.model.TailoringTask;
 import com.resumetailor.repository.JobRepository;
 import com.resumetailor.repository.ResumeRepository;
 import com.resumetailor.repository.TailoredResumeRepository;
 import com.resumetailor.service.AIService;
 import com.resumetailor.service.ATSService;
+import com.resumetailor.service.BatchTailoringService;
+import com.resumetailor.service.CircuitOpenException;
+import com.resumetailor.service.Deadline;
+import com.resumetailor.service.DeadlineExceededException;
+import com.resumetailor.service.JobDigestService;
+import com.resumetailor.service.LlmException;
 import com.resumetailor.service.PDFService;
+import com.resumetailor.service.StreamingResumeCleaner;
+import com.resumetailor.service.TailoredResumeService;
+import com.resumetailor.service.TailoringResult;
+import com.resumetailor.service.TailoringScheduler;
+import com.resumetailor.service.TailoringTaskService;
+import com.resumetailor.service.UpstreamRejectedException;
+import jakarta.servlet.http.HttpServletRequest;
+import org.hibernate.Hibernate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.ByteArrayResource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.time.LocalDateTime;
+import java.io.IOException;
+import java.security.Principal;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @RestController
 @RequestMapping("/api/resume")
@@ -52,8 +76,43 @@ public class ResumeController {
     @Autowired
     private PDFService pdfService;
 
+    @Autowired
+    private JobDigestService jobDigestService;
+
+    @Autowired
+    private TailoredResumeService tailoredResumeService;
+
+    @Autowired
+    private TailoringTaskService tailoringTaskService;
+
+    @Autowired
+    private BatchTailoringService batchTailoringService;
+
+    @Autowired
+    private RequestDeadlines requestDeadlines;
+
+    @Autowired
+    private TailoringScheduler scheduler;
+
+    @Value("${request.deadline.tailor-ms:120000}")
+    private long tailorDeadlineMs;
+
+    @Value("${request.deadline.ats-ms:60000}")
+    private long atsDeadlineMs;
+
+    @Value("${request.deadline.pdf-ms:30000}")
+    private long pdfDeadlineMs;
+
+    @Value("${ai.stream.timeout-ms:180000}")
+    private long streamTimeoutMs;
+
+    @Value("${ai.batch.timeout-ms:900000}")
+    private long batchTimeoutMs;
+
     @PostMapping("/tailor")
-    public ResponseEntity<TailoredResumeResponse> tailorResume(@RequestBody TailorResumeRequest request) {
+    public CompletableFuture<ResponseEntity<TailoredResumeResponse>> tailorResume(@RequestBody TailorResumeRequest request,
+                                                                                 HttpServletRequest http) {
+        Deadline deadline = requestDeadlines.start(http, tailorDeadlineMs);
         log.info("[ResumeController] Enhanced tailoring resume {} for job {}", request.getResumeId(), request.getJobId());
 
         try {
@@ -61,25 +120,25 @@ public class ResumeController {
             Optional<Job> jobOpt = jobRepository.findById(request.getJobId());
 
             if (resumeOpt.isEmpty()) {
-                return ResponseEntity.badRequest().body(
+                return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(
                         TailoredResumeResponse.builder()
                                 .resumeId(request.getResumeId())
                                 .jobId(request.getJobId())
                                 .atsScore(0)
                                 .tailoredText("Resume not found")
                                 .build()
-                );
+                ));
             }
 
             if (jobOpt.isEmpty()) {
-                return ResponseEntity.badRequest().body(
+                return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(
                         TailoredResumeResponse.builder()
                                 .resumeId(request.getResumeId())
                                 .jobId(request.getJobId())
                                 .atsScore(0)
                                 .tailoredText("Job not found")
                                 .build()
-                );
+                ));
             }
 
             Resume resume = resumeOpt.get();
@@ -90,174 +149,425 @@ public class ResumeController {
 
 
 
-            // Generate tailored resume using enhanced AI
-            String rawTailoredText = aiService.generateTailoredResume(resume.getContent(), job.getDescription());
-
-            // Clean and format the tailored text
-            String tailoredText = cleanAndFormatResumeText(rawTailoredText);
-
-
-            String rawTailoredText = aiService.generateTailoredResume(resume.getContent(), job.getDescription());
-
-            String tailoredText = cleanAndFormatResumeText(rawTailoredText);
-
-
-            int atsScore = atsService.calculateATSScore(tailoredText, job.getDescription());
-
-            log.info("[ResumeController] Tailoring complete - Original: {} chars, Tailored: {} chars, ATS Score: {}",
-                    resume.getContent().length(), tailoredText.length(), atsScore);
-
-
-            TailoredResume tailoredResume = TailoredResume.builder()
-                    .resume(resume)
-                    .job(job)
-                    .tailoredContent(tailoredText)
-                    .atsScore(atsScore)
-                    .createdAt(LocalDateTime.now())
-                    .build();
-
-            tailoredResume = tailoredResumeRepository.save(tailoredResume);
-
-            return ResponseEntity.ok(
-                    TailoredResumeResponse.builder()
-                            .id(tailoredResume.getId())
-                            .resumeId(request.getResumeId())
-                            .jobId(request.getJobId())
-                            .atsScore(atsScore)
-                            .tailoredText(tailoredText)
-                            .candidateName(resume.getCandidateName())
-                            .jobTitle(job.getTitle())
-                            .createdAt(tailoredResume.getCreatedAt())
-                            .build()
-            );
+            // Generate tailored resume using enhanced AI; the servlet thread is released while it runs
+            return scheduler.submit(TailoringScheduler.Priority.INTERACTIVE, clientOf(http), deadline,
+                            () -> aiService.generateTailoredResumeAsync(resume.getContent(), jobDigestService.promptText(job), deadline))
+                    .thenApply(result -> ResponseEntity.ok(saveTailoredResume(resume, job, result, deadline)))
+                    .exceptionally(ex -> tailorError(request, ex));
 
         } catch (Exception e) {
-            log.error("[ResumeController] Error tailoring resume: {}", e.getMessage());
-            return ResponseEntity.internalServerError().body(
-                    TailoredResumeResponse.builder()
-                            .resumeId(request.getResumeId())
-                            .jobId(request.getJobId())
-                            .atsScore(0)
-                            .tailoredText("Error: " + e.getMessage())
-                            .build()
-            );
+            return CompletableFuture.completedFuture(tailorError(request, e));
         }
     }
 
+    /**
+     * Queued variant of {@code /tailor}: stores a task and answers 202 with its id right away.
+     * Poll {@code GET /tailor/tasks/{id}} for status, progress and the result.
+     */
+    @PostMapping("/tailor/tasks")
+    public ResponseEntity<?> submitTailoringTask(@RequestBody TailorResumeRequest request) {
+        log.info("[ResumeController] Queueing tailoring of resume {} for job {}", request.getResumeId(), request.getJobId());
 
-
-    private String cleanAndFormatResumeText(String rawText) {
-        if (rawText == null || rawText.trim().isEmpty()) {
-            return rawText;
+        if (request.getResumeId() == null || !resumeRepository.existsById(request.getResumeId())) {
+            return ResponseEntity.badRequest().body(Map.of("status", "error", "message", "Resume not found"));
+        }
+        if (request.getJobId() == null || !jobRepository.existsById(request.getJobId())) {
+            return ResponseEntity.badRequest().body(Map.of("status", "error", "message", "Job not found"));
         }
 
-        // Remove the "Note:" section and everything after it
-        String cleanedText = rawText;
+        try {
+            TailoringTask task = tailoringTaskService.submit(request.getResumeId(), request.getJobId());
+            return ResponseEntity.accepted()
+                    .header(HttpHeaders.LOCATION, "/api/resume/tailor/tasks/" + task.getId())
+                    .body(toTaskResponse(task));
+        } catch (Exception e) {
+            log.error("[ResumeController] Could not queue tailoring task: {}", e.getMessage());
+            return errorStatus(e).body(Map.of("status", "error", "message", e.getMessage()));
+        }
+    }
 
-        // Find and remove note sections (case insensitive)
-        String[] notePatterns = {
-                "(?i)\\n\\s*Note:.*$",
-                "(?i)\\n\\s*Note -.*$",
-                "(?i)\\n\\s*\\*\\*Note\\*\\*:.*$",
-                "(?i)\\n\\s*I have rewritten.*$"
-        };
+    @GetMapping("/tailor/tasks/{id}")
+    public ResponseEntity<TailoringTaskResponse> getTailoringTask(@PathVariable String id) {
+        return tailoringTaskService.find(id)
+                .map(task -> ResponseEntity.ok(toTaskResponse(task)))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
 
-        for (String pattern : notePatterns) {
-            cleanedText = cleanedText.replaceAll(pattern, "");
+    private TailoringTaskResponse toTaskResponse(TailoringTask task) {
+        TailoredResumeResponse result = null;
+        if (task.getTailoredResumeId() != null) {
+            result = tailoredResumeRepository.findById(task.getTailoredResumeId())
+                    .map(tailoredResumeService::toResponse)
+                    .orElse(null);
         }
+        return TailoringTaskResponse.builder()
+                .taskId(task.getId())
+                .status(task.getStatus().name())
+                .stage(tailoringTaskService.stage(task))
+                .progress(tailoringTaskService.progress(task))
+                .queuePosition(tailoringTaskService.queuePosition(task))
+                .resumeId(task.getResumeId())
+                .jobId(task.getJobId())
+                .attempts(task.getAttempts())
+                .error(task.getError())
+                .createdAt(task.getCreatedAt())
+                .startedAt(task.getStartedAt())
+                .finishedAt(task.getFinishedAt())
+                .result(result)
+                .build();
+    }
 
-        // Convert markdown formatting to plain text
-        cleanedText = convertMarkdownToPlainText(cleanedText);
+    /**
+     * Batch tailoring over Server-Sent Events: one resume against {@code jobIds}, or {@code resumeIds}
+     * against one job. Events: {@code start} with the pair count, {@code item} with each tailored
+     * result as it finishes (not yet saved, so without an id), {@code item-error} per failed pair,
+     * then {@code saved} with the stored rows after the batch insert, or {@code error}.
+     */
+    @PostMapping("/tailor/batch")
+    public ResponseEntity<?> tailorBatch(@RequestBody BatchTailorRequest request, HttpServletRequest http) {
+        boolean oneResume = request.getResumeId() != null && request.getJobIds() != null && !request.getJobIds().isEmpty();
+        boolean oneJob = request.getJobId() != null && request.getResumeIds() != null && !request.getResumeIds().isEmpty();
+        if (oneResume == oneJob) {
+            return ResponseEntity.badRequest().contentType(MediaType.APPLICATION_JSON).body(Map.of("status", "error",
+                    "message", "Send either resumeId with jobIds, or jobId with resumeIds"));
+        }
 
-        // Clean up extra whitespace
-        cleanedText = cleanedText.replaceAll("\\n{3,}", "\n\n"); // Replace 3+ newlines with 2
-        cleanedText = cleanedText.trim();
+        List<Long> ids = (oneResume ? request.getJobIds() : request.getResumeIds()).stream().distinct().toList();
+        if (ids.size() > batchTailoringService.getMaxItems()) {
+            return ResponseEntity.badRequest().contentType(MediaType.APPLICATION_JSON).body(Map.of("status", "error",
+                    "message", "At most " + batchTailoringService.getMaxItems() + " items per batch"));
+        }
+        log.info("[ResumeController] Batch tailoring {} {} against {} {}",
+                oneResume ? "resume" : "job", oneResume ? request.getResumeId() : request.getJobId(),
+                ids.size(), oneResume ? "jobs" : "resumes");
+
+        // One lookup for the fixed side and one IN query for the many side
+        List<BatchTailoringService.Item> items = new ArrayList<>();
+        List<Long> missing = new ArrayList<>();
+        if (oneResume) {
+            Optional<Resume> resume = resumeRepository.findById(request.getResumeId());
+            if (resume.isEmpty()) {
+                return ResponseEntity.badRequest().contentType(MediaType.APPLICATION_JSON)
+                        .body(Map.of("status", "error", "message", "Resume not found"));
+            }
+            Map<Long, Job> jobs = new HashMap<>();
+            jobRepository.findAllById(ids).forEach(job -> jobs.put(job.getId(), job));
+            for (Long id : ids) {
+                if (jobs.containsKey(id)) items.add(new BatchTailoringService.Item(resume.get(), jobs.get(id)));
+                else missing.add(id);
+            }
+        } else {
+            Optional<Job> job = jobRepository.findById(request.getJobId());
+            if (job.isEmpty()) {
+                return ResponseEntity.badRequest().contentType(MediaType.APPLICATION_JSON)
+                        .body(Map.of("status", "error", "message", "Job not found"));
+            }
+            Map<Long, Resume> resumes = new HashMap<>();
+            resumeRepository.findAllById(ids).forEach(resume -> resumes.put(resume.getId(), resume));
+            for (Long id : ids) {
+                if (resumes.containsKey(id)) items.add(new BatchTailoringService.Item(resumes.get(id), job.get()));
+                else missing.add(id);
+            }
+        }
 
-        return cleanedText;
+        SseEmitter emitter = new SseEmitter(batchTimeoutMs);
+        Deadline deadline = requestDeadlines.start(http, batchTimeoutMs);
+        sendEvent(emitter, "start", Map.of("total", items.size(), "missing", missing));
+
+        batchTailoringService.tailorAll(items, clientOf(http), deadline, new BatchTailoringService.Listener() {
+                    @Override
+                    public void onItem(TailoredResumeResponse result) {
+                        sendEvent(emitter, "item", result);
+                    }
+
+                    @Override
+                    public void onItemError(BatchTailoringService.Item item, Throwable cause) {
+                        sendEvent(emitter, "item-error", Map.of(
+                                "resumeId", item.resume().getId(),
+                                "jobId", item.job().getId(),
+                                "message", String.valueOf(cause.getMessage())));
+                    }
+                })
+                .whenComplete((saved, ex) -> {
+                    if (ex != null) {
+                        Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+                        log.error("[ResumeController] Batch tailoring failed: {}", cause.getMessage());
+                        sendEvent(emitter, "error", "Error: " + cause.getMessage());
+                    } else {
+                        sendEvent(emitter, "saved", saved);
+                    }
+                    emitter.complete();
+                });
+        return ResponseEntity.ok().contentType(MediaType.TEXT_EVENT_STREAM).body(emitter);
     }
 
+    @GetMapping(value = "/tailor/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter tailorResumeStreamGet(@RequestParam Long resumeId, @RequestParam Long jobId,
+                                            HttpServletRequest http) {
+        return streamTailoring(resumeId, jobId, clientOf(http), requestDeadlines.start(http, streamTimeoutMs));
+    }
 
-    private String convertMarkdownToPlainText(String text) {
-        // Remove markdown bold formatting
-        text = text.replaceAll("\\*\\*(.*?)\\*\\*", "$1");
+    @PostMapping(value = "/tailor/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter tailorResumeStreamPost(@RequestBody TailorResumeRequest request, HttpServletRequest http) {
+        return streamTailoring(request.getResumeId(), request.getJobId(), clientOf(http),
+                requestDeadlines.start(http, streamTimeoutMs));
+    }
 
-        // Handle bullet points - convert * to •
-        text = text.replaceAll("^\\s*\\*\\s+", "• ");
-        text = text.replaceAll("\\n\\s*\\*\\s+", "\n• ");
+    /**
+     * Server-Sent Events variant of {@code /tailor}. Events:
+     * {@code start} immediately, {@code token} for every raw upstream delta, {@code line} for each
+     * completed line after incremental clean-up, then {@code done} with the saved
+     * {@link TailoredResumeResponse} or {@code error} with a message.
+     */
+    private SseEmitter streamTailoring(Long resumeId, Long jobId, String client, Deadline deadline) {
+        log.info("[ResumeController] Streaming tailoring resume {} for job {}", resumeId, jobId);
+        SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+
+        Optional<Resume> resumeOpt = resumeRepository.findById(resumeId);
+        Optional<Job> jobOpt = jobRepository.findById(jobId);
+        if (resumeOpt.isEmpty() || jobOpt.isEmpty()) {
+            sendEvent(emitter, "error", resumeOpt.isEmpty() ? "Resume not found" : "Job not found");
+            emitter.complete();
+            return emitter;
+        }
 
-        // Handle sub-bullet points - convert + to ◦
-        text = text.replaceAll("^\\s*\\+\\s+", "  ◦ ");
-        text = text.replaceAll("\\n\\s*\\+\\s+", "\n  ◦ ");
+        Resume resume = resumeOpt.get();
+        Job job = jobOpt.get();
+        sendEvent(emitter, "start", Map.of("resumeId", resumeId, "jobId", jobId));
+
+        StreamingResumeCleaner cleaner = new StreamingResumeCleaner(line -> sendEvent(emitter, "line", line));
+        scheduler.submit(TailoringScheduler.Priority.INTERACTIVE, client, deadline,
+                        () -> aiService.streamTailoredResume(resume.getContent(), jobDigestService.promptText(job), deadline, token -> {
+                            sendEvent(emitter, "token", token);
+                            cleaner.accept(token);
+                        }))
+                .thenApply(result -> {
+                    cleaner.finish();
+                    return saveTailoredResume(resume, job, result, deadline);
+                })
+                .whenComplete((response, ex) -> {
+                    if (ex != null) {
+                        Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+                        log.error("[ResumeController] Streaming tailoring failed: {}", cause.getMessage());
+                        sendEvent(emitter, "error", "Error: " + cause.getMessage());
+                    } else {
+                        sendEvent(emitter, "done", response);
+                    }
+                    emitter.complete();
+                });
+        return emitter;
+    }
 
-        // Handle numbered lists
-        text = text.replaceAll("\\n\\s*\\d+\\.\\s+", "\n• ");
+    private void sendEvent(SseEmitter emitter, String name, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(name).data(data));
+        } catch (IOException | IllegalStateException e) {
+            log.debug("[ResumeController] Dropping SSE event '{}': {}", name, e.getMessage());
+        }
+    }
 
-        // Remove extra markdown syntax
-        text = text.replaceAll("\\*([^*]+)\\*", "$1"); // Remove single asterisks
-        text = text.replaceAll("`([^`]+)`", "$1"); // Remove backticks
-        text = text.replaceAll("#+\\s*", ""); // Remove heading markers
+    private TailoredResumeResponse saveTailoredResume(Resume resume, Job job, TailoringResult result, Deadline deadline) {
+        return tailoredResumeService.save(resume, job, result, deadline);
+    }
 
-        return text;
+    private ResponseEntity<TailoredResumeResponse> tailorError(TailorResumeRequest request, Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        log.error("[ResumeController] Error tailoring resume: {}", cause.getMessage());
+        return errorStatus(cause).body(
+                TailoredResumeResponse.builder()
+                        .resumeId(request.getResumeId())
+                        .jobId(request.getJobId())
+                        .atsScore(0)
+                        .tailoredText("Error: " + cause.getMessage())
+                        .build()
+        );
     }
 
 
     @PostMapping("/ats-score")
-    public ResponseEntity<?> calculateATSScorePost(@RequestBody TailorResumeRequest request) {
-        return buildAtsResponse(request.getResumeId(), request.getJobId());
+    public CompletableFuture<ResponseEntity<?>> calculateATSScorePost(@RequestBody TailorResumeRequest request,
+                                                                      HttpServletRequest http) {
+        return buildAtsResponse(request.getResumeId(), request.getJobId(), request.getScoring(), clientOf(http),
+                requestDeadlines.start(http, atsDeadlineMs));
     }
 
 
     @GetMapping("/ats-score")
-    public ResponseEntity<?> calculateATSScoreGet(@RequestParam Long resumeId,
-                                                  @RequestParam Long jobId) {
-        return buildAtsResponse(resumeId, jobId);
+    public CompletableFuture<ResponseEntity<?>> calculateATSScoreGet(@RequestParam Long resumeId,
+                                                                     @RequestParam Long jobId,
+                                                                     @RequestParam(value = "scoring", required = false) String scoring,
+                                                                     HttpServletRequest http) {
+        return buildAtsResponse(resumeId, jobId, scoring, clientOf(http), requestDeadlines.start(http, atsDeadlineMs));
     }
 
 
-    private ResponseEntity<?> buildAtsResponse(Long resumeId, Long jobId) {
+    private CompletableFuture<ResponseEntity<?>> buildAtsResponse(Long resumeId, Long jobId, String scoringParam,
+                                                                  String client, Deadline deadline) {
         log.info("[ResumeController] Calculating ATS score for resume {} and job {}", resumeId, jobId);
 
+        ATSService.Scoring scoring;
+        try {
+            scoring = scoringOf(scoringParam);
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(Map.of(
+                    "status","error","message",e.getMessage())));
+        }
+
         try {
             var resumeOpt = resumeRepository.findById(resumeId);
             var jobOpt = jobRepository.findById(jobId);
 
             if (resumeOpt.isEmpty()) {
-                return ResponseEntity.badRequest().body(Map.of(
-                        "status","error","message","Resume not found"));
+                return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(Map.of(
+                        "status","error","message","Resume not found")));
             }
             if (jobOpt.isEmpty()) {
-                return ResponseEntity.badRequest().body(Map.of(
-                        "status","error","message","Job not found"));
+                return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(Map.of(
+                        "status","error","message","Job not found")));
             }
 
             Resume resume = resumeOpt.get();
             Job job = jobOpt.get();
 
-            int basicScore = atsService.calculateATSScore(resume.getContent(), job.getDescription());
-            Map<String,Object> detailed = aiService.calculateATSScoreWithAI(
-                    resume.getContent(), job.getDescription());
-
-            Map<String,Object> resp = new HashMap<>();
-            resp.put("status","success");
-            resp.put("message","ATS score calculated successfully");
-            resp.put("resumeId", resumeId);
-            resp.put("jobId", jobId);
-            resp.put("candidateName", resume.getCandidateName());
-            resp.put("jobTitle", job.getTitle());
-            resp.put("basicScore", basicScore);
-            resp.put("detailedScore", detailed.get("score"));
-            resp.put("breakdown", detailed.get("breakdown"));
-            resp.put("matchingKeywords", detailed.get("matchingKeywords"));
-            resp.put("missingKeywords", detailed.get("missingKeywords"));
-            resp.put("suggestions", detailed.get("suggestions"));
-
-            return ResponseEntity.ok(resp);
+            int basicScore = atsService.calculateATSScore(resume.getContent(), job, deadline);
+            ATSService.WeightedScore weighted = scoring == ATSService.Scoring.BM25
+                    ? atsService.calculateWeightedATSScore(resume.getContent(), job, deadline) : null;
+
+            return scheduler.submit(TailoringScheduler.Priority.INTERACTIVE, client, deadline,
+                            () -> aiService.calculateATSScoreWithAIAsync(resume.getContent(), jobDigestService.promptText(job), deadline))
+                    .<ResponseEntity<?>>thenApply(detailed -> ResponseEntity.ok(
+                            atsBody(resume, job, basicScore, weighted, atsService.matchSkills(resume.getContent(), job.getDescription()), detailed)))
+                    .exceptionally(this::atsError);
+
+        } catch (Exception e) {
+            return CompletableFuture.completedFuture(atsError(e));
+        }
+    }
+
+    /**
+     * ATS analysis of a tailored resume. The analysis produced together with the text (fused
+     * tailoring) or by an earlier call is stored on the row and returned without an upstream call;
+     * otherwise it is computed once and stored.
+     */
+    @GetMapping("/tailored/{id}/ats-score")
+    public CompletableFuture<ResponseEntity<?>> getTailoredAtsScore(@PathVariable Long id,
+                                                                    @RequestParam(value = "scoring", required = false) String scoringParam,
+                                                                    HttpServletRequest http) {
+        Deadline deadline = requestDeadlines.start(http, atsDeadlineMs);
+        ATSService.Scoring scoring;
+        try {
+            scoring = scoringOf(scoringParam);
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(Map.of(
+                    "status","error","message",e.getMessage())));
+        }
+        try {
+            Optional<TailoredResume> tailoredOpt = tailoredResumeRepository.findById(id);
+            if (tailoredOpt.isEmpty()) {
+                return CompletableFuture.completedFuture(ResponseEntity.notFound().build());
+            }
+            TailoredResume tailored = tailoredOpt.get();
+            // The response is built after the request thread has moved on, so load the lazy relations now
+            Resume resume = (Resume) Hibernate.unproxy(tailored.getResume());
+            Job job = (Job) Hibernate.unproxy(tailored.getJob());
+            int basicScore = tailored.getAtsScore() != null ? tailored.getAtsScore() : 0;
+            ATSService.WeightedScore weighted = scoring == ATSService.Scoring.BM25
+                    ? atsService.calculateWeightedATSScore(tailored.getTailoredContent(), job, deadline) : null;
+
+            ATSService.SkillCoverage skills = atsService.matchSkills(tailored.getTailoredContent(), job.getDescription());
+
+            Map<String, Object> stored = tailoredResumeService.analysisOf(tailored);
+            if (stored != null) {
+                return CompletableFuture.completedFuture(ResponseEntity.ok(atsBody(resume, job, basicScore, weighted, skills, stored)));
+            }
+
+            log.info("[ResumeController] No stored ATS analysis for tailored resume {}, calculating", id);
+            return scheduler.submit(TailoringScheduler.Priority.INTERACTIVE, clientOf(http), deadline,
+                            () -> aiService.calculateATSScoreWithAIAsync(tailored.getTailoredContent(), jobDigestService.promptText(job), deadline))
+                    .<ResponseEntity<?>>thenApply(detailed -> {
+                        if (!Boolean.TRUE.equals(detailed.get("degraded"))) {
+                            tailoredResumeService.saveAnalysis(tailored, detailed);
+                        }
+                        return ResponseEntity.ok(atsBody(resume, job, basicScore, weighted, skills, detailed));
+                    })
+                    .exceptionally(this::atsError);
 
         } catch (Exception e) {
-            log.error("[ResumeController] Error calculating ATS score", e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of(
-                    "status","error","message","Failed to calculate ATS score: "+e.getMessage()));
+            return CompletableFuture.completedFuture(atsError(e));
+        }
+    }
+
+    /** Blank means the basic score only. */
+    private static ATSService.Scoring scoringOf(String scoring) {
+        return scoring == null || scoring.isBlank() ? ATSService.Scoring.BASIC : ATSService.Scoring.parse(scoring.trim());
+    }
+
+    private static Map<String, Object> atsBody(Resume resume, Job job, int basicScore, ATSService.WeightedScore weighted,
+                                               ATSService.SkillCoverage skills, Map<String, Object> detailed) {
+        Map<String,Object> resp = new HashMap<>();
+        resp.put("status","success");
+        resp.put("message","ATS score calculated successfully");
+        resp.put("resumeId", resume.getId());
+        resp.put("jobId", job.getId());
+        resp.put("candidateName", resume.getCandidateName());
+        resp.put("jobTitle", job.getTitle());
+        resp.put("basicScore", basicScore);
+        if (weighted != null) {
+            resp.put("scoring", "bm25");
+            resp.put("weightedScore", weighted.score());
+            resp.put("termContributions", weighted.terms());
         }
+        resp.put("skillScore", skills.score());
+        resp.put("matchedSkills", skills.matched());
+        resp.put("missingSkills", skills.missing());
+        resp.put("detailedScore", detailed.get("score"));
+        resp.put("breakdown", detailed.get("breakdown"));
+        resp.put("matchingKeywords", detailed.get("matchingKeywords"));
+        resp.put("missingKeywords", detailed.get("missingKeywords"));
+        resp.put("suggestions", detailed.get("suggestions"));
+        resp.put("degraded", detailed.getOrDefault("degraded", false));
+        return resp;
+    }
+
+    private ResponseEntity<?> atsError(Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        log.error("[ResumeController] Error calculating ATS score", cause);
+        return errorStatus(cause).body(Map.of(
+                "status","error","message","Failed to calculate ATS score: "+cause.getMessage()));
+    }
+
+    /**
+     * Upstream overload and an open circuit become 503 with a Retry-After hint so clients back off instead of piling on;
+     * a request whose deadline ended is 504.
+     */
+    private ResponseEntity.BodyBuilder errorStatus(Throwable cause) {
+        if (cause instanceof DeadlineExceededException) {
+            return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT);
+        }
+        long retryAfterMs;
+        if (cause instanceof UpstreamRejectedException rejected) {
+            retryAfterMs = rejected.getRetryAfterMs();
+        } else if (cause instanceof LlmException upstream && upstream.isOverload()) {
+            retryAfterMs = upstream.getRetryAfterMs();
+        } else if (cause instanceof CircuitOpenException open) {
+            retryAfterMs = open.getRetryAfterMs();
+        } else {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, (retryAfterMs + 999) / 1000)));
+    }
+
+    /**
+     * Fair-queuing identity of the caller. An authenticated caller is its principal, narrowed by the
+     * {@code X-Client-Id} header when present; the header is client-controlled, so anonymous callers
+     * are keyed by remote address and cannot claim extra shares by varying it.
+     */
+    private static String clientOf(HttpServletRequest http) {
+        Principal principal = http.getUserPrincipal();
+        if (principal == null) return http.getRemoteAddr();
+        String client = http.getHeader("X-Client-Id");
+        return client != null && !client.isBlank() ? principal.getName() + "/" + client.trim() : principal.getName();
     }
 
 
@@ -276,19 +586,7 @@ public class ResumeController {
             return ResponseEntity.notFound().build();
         }
 
-        TailoredResume tailored = tailoredOpt.get();
-        return ResponseEntity.ok(
-                TailoredResumeResponse.builder()
-                        .id(tailored.getId())
-                        .resumeId(tailored.getResume().getId())
-                        .jobId(tailored.getJob().getId())
-                        .atsScore(tailored.getAtsScore())
-                        .tailoredText(tailored.getTailoredContent())
-                        .candidateName(tailored.getResume().getCandidateName())
-                        .jobTitle(tailored.getJob().getTitle())
-                        .createdAt(tailored.getCreatedAt())
-                        .build()
-        );
+        return ResponseEntity.ok(tailoredResumeService.toResponse(tailoredOpt.get()));
     }
 
     @GetMapping("/tailored")
@@ -298,7 +596,8 @@ public class ResumeController {
     }
 
     @GetMapping("/tailored/{id}/download")
-    public ResponseEntity<ByteArrayResource> downloadTailoredResume(@PathVariable Long id) {
+    public ResponseEntity<ByteArrayResource> downloadTailoredResume(@PathVariable Long id, HttpServletRequest http) {
+        Deadline deadline = requestDeadlines.start(http, pdfDeadlineMs);
         Optional<TailoredResume> tailoredOpt = tailoredResumeRepository.findById(id);
 
         if (tailoredOpt.isEmpty()) {
@@ -310,7 +609,7 @@ public class ResumeController {
             String candidateName = tailored.getResume().getCandidateName();
             String jobTitle = tailored.getJob().getTitle();
 
-            byte[] pdfBytes = pdfService.generateResumePDF(tailored.getTailoredContent(), candidateName);
+            byte[] pdfBytes = pdfService.generateResumePDF(tailored.getTailoredContent(), candidateName, deadline);
             ByteArrayResource resource = new ByteArrayResource(pdfBytes);
 
             String filename = String.format("%s_Resume_%s.pdf",
@@ -324,6 +623,9 @@ public class ResumeController {
                     .contentLength(pdfBytes.length)
                     .body(resource);
 
+        } catch (DeadlineExceededException e) {
+            log.info("[ResumeController] PDF for tailored resume {} abandoned: {}", id, e.getMessage());
+            return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).build();
         } catch (Exception e) {
             log.error("[ResumeController] Error generating PDF: {}", e.getMessage());
             return ResponseEntity.internalServerError().build();
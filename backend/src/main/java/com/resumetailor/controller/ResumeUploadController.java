@@ -3,9 +3,12 @@ package com.resumetailor.controller;
 import com.resumetailor.model.Resume;
 import com.resumetailor.repository.ResumeRepository;
 import com.resumetailor.service.FileProcessingService;
+import com.resumetailor.service.JobIndex;
+import com.resumetailor.service.ResumeIndex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -30,6 +33,15 @@ public class ResumeUploadController {
     @Autowired
     private FileProcessingService fileProcessingService;
 
+    @Autowired
+    private ResumeIndex resumeIndex;
+
+    @Autowired
+    private JobIndex jobIndex;
+
+    @Value("${ats.matches.max-k:100}")
+    private int maxMatches;
+
     @PostMapping(value = "/upload", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public ResponseEntity<?> uploadResume(
             @RequestParam("file") MultipartFile file,
@@ -58,6 +70,7 @@ public class ResumeUploadController {
             resume.setUpdatedAt(LocalDateTime.now());
 
             Resume savedResume = resumeRepository.save(resume);
+            resumeIndex.index(savedResume);
 
             Map<String, Object> response = new HashMap<>();
             response.put("status", "success");
@@ -91,10 +104,42 @@ public class ResumeUploadController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    /**
+     * Stored jobs ranked by this resume's ATS score against them, best first. Scored locally from
+     * the job index in one pass; no model call.
+     */
+    @GetMapping("/{id}/matches")
+    public ResponseEntity<?> getMatches(@PathVariable Long id,
+                                        @RequestParam(value = "k", required = false, defaultValue = "10") int k) {
+        if (k < 1 || k > maxMatches) {
+            return ResponseEntity.badRequest().body("k must be between 1 and " + maxMatches);
+        }
+        if (!jobIndex.isReady()) {
+            Map<String, String> error = new HashMap<>();
+            error.put("status", "error");
+            error.put("message", "Job index is still loading, please retry shortly");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header("Retry-After", "5").body(error);
+        }
+        return resumeRepository.findById(id)
+                .<ResponseEntity<?>>map(resume -> {
+                    long started = System.nanoTime();
+                    List<JobIndex.Match> matches = jobIndex.topMatches(resume.getContent(), k);
+
+                    Map<String, Object> response = new HashMap<>();
+                    response.put("resumeId", id);
+                    response.put("jobsIndexed", jobIndex.size());
+                    response.put("matches", matches);
+                    response.put("tookMs", (System.nanoTime() - started) / 1_000_000.0);
+                    return ResponseEntity.ok(response);
+                })
+                .orElse(ResponseEntity.notFound().build());
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleteResume(@PathVariable Long id) {
         if (resumeRepository.existsById(id)) {
             resumeRepository.deleteById(id);
+            resumeIndex.remove(id);
             return ResponseEntity.ok().body("Resume deleted successfully");
         }
         return ResponseEntity.notFound().build();
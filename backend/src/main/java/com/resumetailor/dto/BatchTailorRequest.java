@@ -0,0 +1,17 @@
+package com.resumetailor.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Either one resume against many jobs ({@code resumeId} + {@code jobIds})
+ * or many resumes against one job ({@code jobId} + {@code resumeIds}).
+ */
+@Data
+public class BatchTailorRequest {
+    private Long resumeId;
+    private List<Long> jobIds;
+    private Long jobId;
+    private List<Long> resumeIds;
+}
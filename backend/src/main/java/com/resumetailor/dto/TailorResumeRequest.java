@@ -6,4 +6,6 @@ import lombok.Data;
 public class TailorResumeRequest {
     private Long resumeId;
     private Long jobId;
+    /** ATS scoring for the ats-score endpoint: basic (default) or bm25. */
+    private String scoring;
 }
@@ -6,6 +6,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.util.Map;
 
 @Data
 @Builder
@@ -20,4 +21,6 @@ public class TailoredResumeResponse {
     private String candidateName;
     private String jobTitle;
     private LocalDateTime createdAt;
+    private boolean degraded;
+    private Map<String, Object> atsAnalysis;
 }
\ No newline at end of file
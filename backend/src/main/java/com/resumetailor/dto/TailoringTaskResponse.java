@@ -0,0 +1,28 @@
+package com.resumetailor.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TailoringTaskResponse {
+    private String taskId;
+    private String status;
+    private String stage;
+    private int progress;
+    private Long queuePosition;
+    private Long resumeId;
+    private Long jobId;
+    private int attempts;
+    private String error;
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private TailoredResumeResponse result;
+}
@@ -1,5 +1,6 @@
 package com.resumetailor.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -55,6 +56,19 @@ public class Job {
     @Column(name = "job_url")
     private String jobUrl;
 
+    @Lob
+    @Column(name = "jd_digest", columnDefinition = "TEXT")
+    private String jdDigest;
+
+    @Column(name = "digested_at")
+    private LocalDateTime digestedAt;
+
+    /** {@link com.resumetailor.service.JobTermIndex} of the description, encoded. */
+    @JsonIgnore
+    @Lob
+    @Column(name = "term_index", columnDefinition = "BLOB")
+    private byte[] termIndex;
+
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
 
@@ -38,6 +38,15 @@ public class TailoredResume {
     @Column(name = "ats_score")
     private Integer atsScore;
 
+    /** True when the local engine produced this text because the inference endpoint was unavailable. */
+    @Column(name = "degraded")
+    private Boolean degraded;
+
+    /** ATS analysis of {@code tailoredContent} as JSON, stored when it was produced with the text or first requested. */
+    @Lob
+    @Column(name = "ats_analysis", columnDefinition = "TEXT")
+    private String atsAnalysis;
+
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
 
@@ -0,0 +1,61 @@
+package com.resumetailor.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A queued tailoring request. Rows are the queue itself, so submitted work survives restarts.
+ */
+@Entity
+@Table(name = "tailoring_tasks", indexes = @Index(name = "idx_tailoring_tasks_status", columnList = "status, run_after"))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TailoringTask {
+
+    public enum Status { QUEUED, RUNNING, SUCCEEDED, FAILED }
+
+    @Id
+    @Column(name = "id", length = 36)
+    private String id;
+
+    @Column(name = "resume_id", nullable = false)
+    private Long resumeId;
+
+    @Column(name = "job_id", nullable = false)
+    private Long jobId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 16)
+    private Status status;
+
+    @Column(name = "stage", length = 32)
+    private String stage;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "tailored_resume_id")
+    private Long tailoredResumeId;
+
+    @Column(name = "error", length = 1000)
+    private String error;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "run_after", nullable = false)
+    private LocalDateTime runAfter;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+}
@@ -0,0 +1,26 @@
+package com.resumetailor.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One entry of the term dictionary: a token as produced by the ATS tokenizer and its stable id.
+ */
+@Entity
+@Table(name = "terms")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class Term {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @Column(name = "term", nullable = false, unique = true, length = 255)
+    private String term;
+}
@@ -2,9 +2,12 @@ package com.resumetailor.repository;
 
 import com.resumetailor.model.Job;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -18,4 +21,18 @@ public interface JobRepository extends JpaRepository<Job, Long> {
 
     @Query("SELECT j FROM Job j WHERE j.title LIKE %:keyword% OR j.description LIKE %:keyword%")
     List<Job> searchByKeyword(String keyword);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Job j SET j.jdDigest = :digest, j.digestedAt = :digestedAt WHERE j.id = :id")
+    int updateDigest(Long id, String digest, LocalDateTime digestedAt);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Job j SET j.termIndex = :termIndex WHERE j.id = :id")
+    int updateTermIndex(Long id, byte[] termIndex);
+
+    /** Id, title, company and encoded term index of every job, without loading the description. */
+    @Query("SELECT j.id, j.title, j.company, j.termIndex FROM Job j")
+    List<Object[]> findTermIndexes();
 }
\ No newline at end of file
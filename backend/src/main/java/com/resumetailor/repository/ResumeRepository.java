@@ -16,4 +16,8 @@ public interface ResumeRepository extends JpaRepository<Resume, Long> {
 
     @Query("SELECT r FROM Resume r WHERE r.email = :email")
     List<Resume> findByEmail(String email);
+
+    /** Id and {@code updatedAt} of every resume, without loading the content. */
+    @Query("SELECT r.id, r.updatedAt FROM Resume r")
+    List<Object[]> findIndexStamps();
 }
\ No newline at end of file
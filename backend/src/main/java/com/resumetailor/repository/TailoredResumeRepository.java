@@ -2,8 +2,10 @@ package com.resumetailor.repository;
 
 import com.resumetailor.model.TailoredResume;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
@@ -17,4 +19,9 @@ public interface TailoredResumeRepository extends JpaRepository<TailoredResume,
 
     @Query("SELECT tr FROM TailoredResume tr WHERE tr.job.id = :jobId ORDER BY tr.createdAt DESC")
     List<TailoredResume> findByJobIdOrderByCreatedAtDesc(Long jobId);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE TailoredResume tr SET tr.atsAnalysis = :atsAnalysis WHERE tr.id = :id")
+    int updateAtsAnalysis(Long id, String atsAnalysis);
 }
\ No newline at end of file
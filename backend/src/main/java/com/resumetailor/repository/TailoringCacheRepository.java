@@ -0,0 +1,9 @@
+package com.resumetailor.repository;
+
+import com.resumetailor.model.TailoringCacheEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface TailoringCacheRepository extends JpaRepository<TailoringCacheEntry, String> {
+}
@@ -0,0 +1,39 @@
+package com.resumetailor.repository;
+
+import com.resumetailor.model.TailoringTask;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface TailoringTaskRepository extends JpaRepository<TailoringTask, String> {
+
+    long countByStatus(TailoringTask.Status status);
+
+    long countByStatusAndCreatedAtBefore(TailoringTask.Status status, LocalDateTime createdAt);
+
+    @Query("SELECT t FROM TailoringTask t WHERE t.status = com.resumetailor.model.TailoringTask.Status.QUEUED "
+            + "AND t.runAfter <= :now ORDER BY t.createdAt")
+    List<TailoringTask> findRunnable(LocalDateTime now, Pageable page);
+
+    /** Moves a task from QUEUED to RUNNING; returns 0 if something else claimed it first. */
+    @Modifying
+    @Transactional
+    @Query("UPDATE TailoringTask t SET t.status = com.resumetailor.model.TailoringTask.Status.RUNNING, "
+            + "t.stage = 'generating', t.startedAt = :now, t.attempts = t.attempts + 1 "
+            + "WHERE t.id = :id AND t.status = com.resumetailor.model.TailoringTask.Status.QUEUED")
+    int claim(String id, LocalDateTime now);
+
+    /** Tasks left RUNNING by a previous process go back to the queue. */
+    @Modifying
+    @Transactional
+    @Query("UPDATE TailoringTask t SET t.status = com.resumetailor.model.TailoringTask.Status.QUEUED, "
+            + "t.stage = 'queued' WHERE t.status = com.resumetailor.model.TailoringTask.Status.RUNNING")
+    int requeueInterrupted();
+}
@@ -0,0 +1,16 @@
+package com.resumetailor.repository;
+
+import com.resumetailor.model.Term;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface TermRepository extends JpaRepository<Term, Integer> {
+
+    Optional<Term> findByTerm(String term);
+
+    List<Term> findByIdGreaterThan(Integer id);
+}
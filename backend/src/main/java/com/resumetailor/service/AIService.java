@@ -1,23 +1,47 @@
 package com.resumetailor.service;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.*;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 @Service
 public class AIService {
     private static final Logger log = LoggerFactory.getLogger(AIService.class);
 
+    /** Bump whenever a prompt template changes so cached generations are not reused across versions. */
+    static final String PROMPT_VERSION = "v2";
+
+    private static final int TAILOR_MAX_TOKENS = 1000;
+    private static final double TAILOR_TEMPERATURE = 0.7;
+    private static final int ENHANCED_MAX_TOKENS = 2000;
+    private static final double ENHANCED_TEMPERATURE = 0.3;
+    private static final int SECTION_MAX_TOKENS = 800;
+    private static final int ATS_MAX_TOKENS = 1000;
+    private static final double ATS_TEMPERATURE = 0.1;
+    private static final int FUSED_ANALYSIS_TOKENS = 300;
+
+    private static final String FUSED_RESUME_MARKER = "=== TAILORED RESUME ===";
+    private static final String FUSED_ANALYSIS_MARKER = "=== ATS ANALYSIS ===";
+    private static final String FUSED_END_MARKER = "=== END ===";
+
     @Value("${ai.mode:MOCK}")
     private String mode;
 
@@ -30,8 +54,35 @@ public class AIService {
     @Value("${hf.chat.url:}")
     private String hfChatUrl;
 
-    private final RestTemplate rest = new RestTemplate();
-    private final ObjectMapper mapper = new ObjectMapper();
+    @Value("${ai.sectioned.enabled:true}")
+    private boolean sectionedEnabled;
+
+    @Value("${ai.sectioned.max-parallel:4}")
+    private int sectionMaxParallel;
+
+    @Value("${ai.sectioned.max-section-chars:2500}")
+    private int sectionMaxChars;
+
+    @Value("${ai.fused.enabled:true}")
+    private boolean fusedEnabled;
+
+    @Autowired
+    private LlmClient llmClient;
+
+    @Autowired
+    private TailoringCache tailoringCache;
+
+    @Autowired
+    private ResumeTextNormalizer normalizer;
+
+    @Autowired
+    private PromptBudget promptBudget;
+
+    @Autowired
+    private LocalResumeEngine localEngine;
+
+    private final SingleFlight<String, String> tailorFlights = new SingleFlight<>();
+    private final SingleFlight<String, Map<String, Object>> atsFlights = new SingleFlight<>();
 
     @PostConstruct
     void init() {
@@ -44,52 +95,240 @@ public class AIService {
 
 
     public String generateTailoredResume(String resumeText, String jdText) {
+        return generateTailoredResumeAsync(resumeText, jdText)
+                .thenApply(TailoringResult::text)
+                .exceptionally(this::upstreamErrorText)
+                .join();
+    }
+
+    /**
+     * Tailors a resume without blocking. Upstream failures, including bulkhead rejections,
+     * complete the future exceptionally; they are never returned as resume text. While the
+     * circuit breaker is open, cached generations are still served and the local engine answers
+     * the rest, flagged as degraded.
+     */
+    public CompletableFuture<TailoringResult> generateTailoredResumeAsync(String resumeText, String jdText) {
+        return generateTailoredResumeAsync(resumeText, jdText, Deadline.none());
+    }
+
+    /**
+     * As above, bounded by {@code deadline}: the upstream call is aborted when it ends and the
+     * post-processing is skipped, failing with {@link DeadlineExceededException}. Callers coalesced
+     * onto the same in-flight generation each time out on their own deadline; the shared generation
+     * keeps running until every one of them has given up (see {@link SingleFlight}).
+     */
+    public CompletableFuture<TailoringResult> generateTailoredResumeAsync(String resumeText, String jdText, Deadline deadline) {
         log.info("[AIService] generateTailoredResume - Resume: {} chars, JD: {} chars",
                 resumeText.length(), jdText.length());
 
-        String rawResponse;
+        if (useFused(resumeText)) {
+            return tailorFused(resumeText, jdText, deadline);
+        }
 
+        boolean enhanced = isEnhanced(resumeText);
+        String cacheKey = tailoringCacheKey(resumeText, jdText, false);
 
-        if (resumeText.length() > 3000) {
-            rawResponse = generateTailoredResumeEnhanced(resumeText, jdText);
-        } else {
-            String prompt = buildPrompt(resumeText, jdText);
-            rawResponse = callAIService(prompt);
+        Optional<String> cached = tailoringCache.get(cacheKey);
+        if (cached.isPresent()) {
+            log.info("[AIService] Tailoring cache hit {}", cacheKey.substring(0, 12));
+            return CompletableFuture.completedFuture(TailoringResult.generated(cached.get()));
+        }
+        if (usesUpstream() && llmClient.isCircuitOpen()) {
+            return CompletableFuture.completedFuture(localTailoring(resumeText, jdText));
         }
 
+        return tailorFlights.execute(cacheKey, deadline, flight -> {
+            CompletableFuture<String> rawResponse;
+            AtomicBoolean cacheable = new AtomicBoolean(true);
+
+
+            if (enhanced && useSectioned()) {
+                rawResponse = tailorSectioned(resumeText, jdText, cacheable, flight);
+            } else if (enhanced) {
+                rawResponse = tailorEnhanced(resumeText, jdText, flight);
+            } else {
+                String prompt = buildPrompt(resumeText, jdText);
+                rawResponse = callAIService(prompt, flight);
+            }
+
+
+            return rawResponse.thenApply(raw -> {
+                flight.check("post-processing");
+                String cleanedResponse = postProcessAIResponse(raw);
 
-        String cleanedResponse = postProcessAIResponse(rawResponse);
+                log.info("[AIService] Response processed - Original: {} chars, Cleaned: {} chars",
+                        raw.length(), cleanedResponse.length());
 
-        log.info("[AIService] Response processed - Original: {} chars, Cleaned: {} chars",
-                rawResponse.length(), cleanedResponse.length());
+                if (cacheable.get()) {
+                    tailoringCache.put(cacheKey, cleanedResponse);
+                }
+                return cleanedResponse;
+            });
+        }).thenApply(TailoringResult::generated).exceptionally(ex -> fallbackIfCircuitOpen(ex, resumeText, jdText));
+    }
+
+    /**
+     * Streams a tailored resume: raw content deltas go to {@code onToken} as the upstream
+     * produces them, and the returned future resolves to the fully post-processed text.
+     * Modes without a streaming protocol (HF, MOCK), sectioned tailoring and cache hits deliver
+     * the text as one chunk.
+     */
+    public CompletableFuture<TailoringResult> streamTailoredResume(String resumeText, String jdText, Deadline deadline,
+                                                                 Consumer<String> onToken) {
+        log.info("[AIService] streamTailoredResume - Resume: {} chars, JD: {} chars",
+                resumeText.length(), jdText.length());
+
+        // Sectioned tailoring fans out to several calls, so it has no single token stream to forward;
+        // the open-circuit fallback is a whole text as well. Streamed output is never fused: the
+        // client renders every token, so the envelope would show up in the preview.
+        String cacheKey = tailoringCacheKey(resumeText, jdText, false);
+        if (!"HF_CHAT".equalsIgnoreCase(mode) || (isEnhanced(resumeText) && useSectioned())
+                || llmClient.isCircuitOpen()) {
+            return generateTailoredResumeAsync(resumeText, jdText, deadline).thenApply(result -> {
+                onToken.accept(result.text());
+                return result;
+            });
+        }
+        Optional<String> cached = tailoringCache.get(cacheKey);
+        if (cached.isPresent()) {
+            log.info("[AIService] Tailoring cache hit {}", cacheKey.substring(0, 12));
+            onToken.accept(cached.get());
+            return CompletableFuture.completedFuture(TailoringResult.generated(cached.get()));
+        }
+        if (!llmClient.isChatConfigured()) {
+            return CompletableFuture.failedFuture(
+                    new IllegalStateException("HF Chat configuration missing. Set hf.chat.url & hf.api.token."));
+        }
+
+        boolean enhanced = isEnhanced(resumeText);
+        CompletableFuture<String> rawResponse = enhanced
+                ? llmClient.chatStream(buildEnhancedPrompt(resumeText, jdText), ENHANCED_MAX_TOKENS, ENHANCED_TEMPERATURE, deadline, onToken)
+                : llmClient.chatStream(buildPrompt(resumeText, jdText), TAILOR_MAX_TOKENS, TAILOR_TEMPERATURE, deadline, onToken);
+
+        return rawResponse.thenApply(raw -> {
+            if (raw.isBlank()) throw new IllegalStateException("Empty response from HF Chat.");
+            deadline.check("post-processing");
+            // The enhanced path has always been post-processed twice; keep the output identical.
+            String cleaned = postProcessAIResponse(enhanced ? postProcessAIResponse(raw) : raw);
+            tailoringCache.put(cacheKey, cleaned);
+            return TailoringResult.generated(cleaned);
+        }).exceptionally(ex -> {
+            TailoringResult fallback = fallbackIfCircuitOpen(ex, resumeText, jdText);
+            onToken.accept(fallback.text());
+            return fallback;
+        });
+    }
+
+    /**
+     * One upstream call for both the tailored text and its ATS analysis: the fused prompt asks for
+     * the resume and the analysis in a marker-delimited envelope. The raw envelope is what gets
+     * cached, so a hit is parsed exactly like a fresh answer; an envelope missing its analysis or
+     * end marker is not cached. An answer without a cleanly parsed analysis still yields the
+     * resume, just without {@code analysis}.
+     */
+    private CompletableFuture<TailoringResult> tailorFused(String resumeText, String jdText, Deadline deadline) {
+        String cacheKey = tailoringCacheKey(resumeText, jdText, true);
+        Optional<String> cached = tailoringCache.get(cacheKey);
+        if (cached.isPresent()) {
+            log.info("[AIService] Fused tailoring cache hit {}", cacheKey.substring(0, 12));
+            return CompletableFuture.completedFuture(parseFused(cached.get()));
+        }
+        if (llmClient.isCircuitOpen()) {
+            return CompletableFuture.completedFuture(localTailoring(resumeText, jdText));
+        }
+
+        boolean enhanced = isEnhanced(resumeText);
+        int maxTokens = (enhanced ? ENHANCED_MAX_TOKENS : TAILOR_MAX_TOKENS) + FUSED_ANALYSIS_TOKENS;
+        double temperature = enhanced ? ENHANCED_TEMPERATURE : TAILOR_TEMPERATURE;
+        return tailorFlights.execute(cacheKey, deadline, flight ->
+                callHuggingFaceChat(buildFusedPrompt(resumeText, jdText, maxTokens), maxTokens, temperature, flight)
+                        .thenApply(raw -> {
+                            if (raw.contains(FUSED_ANALYSIS_MARKER) && raw.contains(FUSED_END_MARKER)) {
+                                tailoringCache.put(cacheKey, raw);
+                            }
+                            return raw;
+                        }))
+                .thenApply(raw -> {
+                    deadline.check("post-processing");
+                    return parseFused(raw);
+                })
+                .exceptionally(ex -> fallbackIfCircuitOpen(ex, resumeText, jdText));
+    }
+
+    private TailoringResult parseFused(String raw) {
+        int analysisAt = raw.indexOf(FUSED_ANALYSIS_MARKER);
+        String resumePart = analysisAt >= 0 ? raw.substring(0, analysisAt) : raw;
+        int resumeAt = resumePart.indexOf(FUSED_RESUME_MARKER);
+        if (resumeAt >= 0) {
+            resumePart = resumePart.substring(resumeAt + FUSED_RESUME_MARKER.length());
+        }
+        String tailored = postProcessAIResponse(resumePart.strip());
+        if (analysisAt < 0) {
+            log.warn("[AIService] Fused response has no analysis part; returning the resume only");
+            return TailoringResult.generated(tailored);
+        }
+
+        String analysisPart = raw.substring(analysisAt + FUSED_ANALYSIS_MARKER.length());
+        int endAt = analysisPart.indexOf(FUSED_END_MARKER);
+        if (endAt >= 0) {
+            analysisPart = analysisPart.substring(0, endAt);
+        }
+        Map<String, Object> analysis = parseATSResponse(analysisPart.strip());
+        if (!isCompleteAnalysis(analysis)) {
+            log.warn("[AIService] Fused response analysis is incomplete; returning the resume only");
+            return TailoringResult.generated(tailored);
+        }
+        analysis.put("degraded", false);
+        return TailoringResult.generated(tailored, analysis);
+    }
 
-        return cleanedResponse;
+    /** A score within 0-100 and both keyword lists: anything less is not shown as the model's analysis. */
+    private static boolean isCompleteAnalysis(Map<String, Object> analysis) {
+        return analysis.get("score") instanceof Integer score && score >= 0 && score <= 100
+                && analysis.containsKey("matchingKeywords") && analysis.containsKey("missingKeywords");
     }
 
     public String generateTailoredResumeEnhanced(String resumeText, String jdText) {
+        return generateTailoredResumeEnhancedAsync(resumeText, jdText).exceptionally(this::upstreamErrorText).join();
+    }
+
+    public CompletableFuture<String> generateTailoredResumeEnhancedAsync(String resumeText, String jdText) {
+        return tailorEnhanced(resumeText, jdText, Deadline.none());
+    }
+
+    private CompletableFuture<String> tailorEnhanced(String resumeText, String jdText, Deadline deadline) {
         log.info("[AIService] generateTailoredResumeEnhanced - Processing large resume: {} chars", resumeText.length());
 
         String enhancedPrompt = buildEnhancedPrompt(resumeText, jdText);
 
-        String rawResponse;
+        CompletableFuture<String> rawResponse;
         switch (mode.toUpperCase()) {
             case "HF":
-                rawResponse = callHuggingFaceEnhanced(enhancedPrompt);
+                rawResponse = callHuggingFaceEnhanced(enhancedPrompt, deadline);
                 break;
             case "HF_CHAT":
-                rawResponse = callHuggingFaceChatEnhanced(enhancedPrompt);
+                rawResponse = callHuggingFaceChat(enhancedPrompt, ENHANCED_MAX_TOKENS, ENHANCED_TEMPERATURE, deadline);
                 break;
             default:
                 log.info("[AIService] Using MOCK mode for enhanced tailoring");
-                rawResponse = generateMockTailoredResume(resumeText, jdText);
+                rawResponse = CompletableFuture.completedFuture(generateMockTailoredResume(resumeText, jdText));
                 break;
         }
 
 
-        return postProcessAIResponse(rawResponse);
+        return rawResponse.thenApply(this::postProcessAIResponse);
     }
 
     public Map<String, Object> calculateATSScoreWithAI(String resumeContent, String jobDescription) {
+        return calculateATSScoreWithAIAsync(resumeContent, jobDescription).join();
+    }
+
+    public CompletableFuture<Map<String, Object>> calculateATSScoreWithAIAsync(String resumeContent, String jobDescription) {
+        return calculateATSScoreWithAIAsync(resumeContent, jobDescription, Deadline.none());
+    }
+
+    public CompletableFuture<Map<String, Object>> calculateATSScoreWithAIAsync(String resumeContent, String jobDescription,
+                                                                          Deadline deadline) {
         log.info("[AIService] calculateATSScoreWithAI - Resume: {} chars, JD: {} chars",
                 resumeContent.length(), jobDescription.length());
 
@@ -97,332 +336,260 @@ public class AIService {
 
         switch (mode.toUpperCase()) {
             case "HF_CHAT":
-                return callATSAnalysis(prompt);
+                if (llmClient.isCircuitOpen()) {
+                    return CompletableFuture.completedFuture(localEngine.analyze(resumeContent, jobDescription));
+                }
+                String flightKey = TailoringCache.key(resumeContent, jobDescription, mode.toUpperCase(),
+                        llmClient.getModelsKey(), ATS_MAX_TOKENS, ATS_TEMPERATURE, PROMPT_VERSION + "-ats");
+                return atsFlights.execute(flightKey, deadline,
+                        flight -> callATSAnalysis(prompt, resumeContent, jobDescription, flight));
             default:
                 log.info("[AIService] Using MOCK mode for ATS analysis");
-                return generateMockATSScore(resumeContent, jobDescription);
+                return CompletableFuture.completedFuture(generateMockATSScore(resumeContent, jobDescription));
         }
     }
 
 
-    private String postProcessAIResponse(String aiResponse) {
-        if (aiResponse == null || aiResponse.trim().isEmpty()) {
-            return aiResponse;
+    /**
+     * Map/reduce tailoring for long resumes: each section is tailored by its own upstream call,
+     * at most {@code ai.sectioned.max-parallel} at a time, and the results are stitched back
+     * together in the original order. The contact preamble and EDUCATION pass through unchanged,
+     * and a section whose call fails keeps its original text, so nothing is dropped; such a
+     * partial result clears {@code cacheable}. Overload fails the whole request fast instead.
+     */
+    private CompletableFuture<String> tailorSectioned(String resumeText, String jdText, AtomicBoolean cacheable,
+                                              Deadline deadline) {
+        List<ResumeSectionSplitter.Section> sections = ResumeSectionSplitter.split(resumeText, sectionMaxChars);
+        log.info("[AIService] Sectioned tailoring - {} sections, maxParallel={}", sections.size(), sectionMaxParallel);
+
+        List<Supplier<CompletableFuture<String>>> tasks = new ArrayList<>();
+        for (ResumeSectionSplitter.Section section : sections) {
+            if (section.kind() == ResumeSectionSplitter.Kind.PREAMBLE
+                    || section.kind() == ResumeSectionSplitter.Kind.EDUCATION
+                    || section.body().isBlank()) {
+                tasks.add(() -> CompletableFuture.completedFuture(section.render()));
+                continue;
+            }
+            tasks.add(() -> callHuggingFaceChat(buildSectionPrompt(section, jdText), SECTION_MAX_TOKENS, ENHANCED_TEMPERATURE, deadline)
+                    .thenApply(tailored -> {
+                        String body = normalizer.removeAICommentary(tailored).strip();
+                        return new ResumeSectionSplitter.Section(section.kind(), section.heading(), body).render();
+                    })
+                    .exceptionally(ex -> {
+                        Throwable cause = unwrap(ex);
+                        if (isOverload(cause) || cause instanceof CircuitOpenException
+                                || cause instanceof DeadlineExceededException) throw new CompletionException(cause);
+                        log.warn("[AIService] Section {} kept as-is after failure: {}", section.kind(), cause.toString());
+                        cacheable.set(false);
+                        return section.render();
+                    }));
         }
 
-        log.debug("[AIService] Post-processing AI response: {} chars", aiResponse.length());
-
-        String processed = aiResponse;
-
-
-        processed = removeAICommentary(processed);
-
-        processed = cleanFormatting(processed);
-
-
-        // Remove common AI commentary patterns
-        processed = removeAICommentary(processed);
-
-        // Clean up formatting
-        processed = cleanFormatting(processed);
-
-        // Ensure proper structure
-
-        processed = ensureProperStructure(processed);
-
-        log.debug("[AIService] Post-processing complete: {} chars", processed.length());
-
-        return processed.trim();
+        return runBounded(tasks, sectionMaxParallel).thenApply(ResumeSectionSplitter::join);
     }
 
-    private String removeAICommentary(String text) {
-
-        String[] removePatterns = {
-                "(?i)\\n\\s*Note:.*$",
-                "(?i)\\n\\s*Note -.*$",
-                "(?i)\\n\\s*\\*\\*Note\\*\\*:.*$",
-                "(?i)\\n\\s*I have rewritten.*$",
-                "(?i)\\n\\s*Here is the rewritten.*$",
-                "(?i)\\n\\s*This resume has been.*$",
-                "(?i)\\n\\s*The above resume.*$",
-                "(?i)\\n\\s*Explanation:.*$",
-                "(?i)\\n\\s*Analysis:.*$",
-                "(?i)\\n\\s*MOCK.*RESUME.*$"
+    /**
+     * Starts at most {@code maxParallel} tasks at once and resolves to their results in task order.
+     */
+    private static <T> CompletableFuture<List<T>> runBounded(List<Supplier<CompletableFuture<T>>> tasks, int maxParallel) {
+        List<CompletableFuture<T>> results = new ArrayList<>(tasks.size());
+        for (int i = 0; i < tasks.size(); i++) {
+            results.add(new CompletableFuture<>());
+        }
+        AtomicInteger next = new AtomicInteger();
+        Runnable[] launch = new Runnable[1];
+        launch[0] = () -> {
+            int i = next.getAndIncrement();
+            if (i >= tasks.size()) return;
+            CompletableFuture<T> started;
+            try {
+                started = tasks.get(i).get();
+            } catch (RuntimeException ex) {
+                started = CompletableFuture.failedFuture(ex);
+            }
+            started.whenComplete((value, ex) -> {
+                if (ex != null) results.get(i).completeExceptionally(ex);
+                else results.get(i).complete(value);
+                launch[0].run();
+            });
         };
-
-        for (String pattern : removePatterns) {
-            text = text.replaceAll(pattern, "");
+        for (int i = 0; i < Math.min(Math.max(1, maxParallel), tasks.size()); i++) {
+            launch[0].run();
         }
-
-        return text;
+        return CompletableFuture.allOf(results.toArray(new CompletableFuture[0]))
+                .thenApply(done -> results.stream().map(CompletableFuture::join).toList());
     }
 
-    private String cleanFormatting(String text) {
-
-        text = text.replaceAll("\\*\\*(.*?)\\*\\*", "$1"); // Bold
-        text = text.replaceAll("\\*([^*\n]+)\\*", "$1"); // Italic
-        text = text.replaceAll("`([^`]+)`", "$1"); // Code
-
-
-
-        text = text.replaceAll("^\\s*[\\*-]\\s+", "• ");
-        text = text.replaceAll("\\n\\s*[\\*-]\\s+", "\n• ");
-
-
-        text = text.replaceAll("^\\s*\\+\\s+", "  ◦ ");
-        text = text.replaceAll("\\n\\s*\\+\\s+", "\n  ◦ ");
-
-
-        text = text.replaceAll("#+\\s*", "");
-
-
-
-        // Standardize bullet points
-        text = text.replaceAll("^\\s*[\\*-]\\s+", "• ");
-        text = text.replaceAll("\\n\\s*[\\*-]\\s+", "\n• ");
-
-        // Handle sub-bullets
-        text = text.replaceAll("^\\s*\\+\\s+", "  ◦ ");
-        text = text.replaceAll("\\n\\s*\\+\\s+", "\n  ◦ ");
-
-        // Clean up headers
-        text = text.replaceAll("#+\\s*", "");
-
-        // Normalize whitespace
+    /** Fusion needs one chat call that sees the whole resume, so sectioned tailoring is never fused. */
+    private boolean useFused(String resumeText) {
+        return fusedEnabled && "HF_CHAT".equalsIgnoreCase(mode) && !(isEnhanced(resumeText) && useSectioned());
+    }
 
-        text = text.replaceAll("\\n{3,}", "\n\n");
-        text = text.replaceAll("\\s+$", ""); // Trim trailing spaces
+    private boolean useSectioned() {
+        return sectionedEnabled && "HF_CHAT".equalsIgnoreCase(mode);
+    }
 
-        return text;
+    private static boolean isEnhanced(String resumeText) {
+        return resumeText.length() > 3000;
     }
 
-    private String ensureProperStructure(String text) {
-        // Ensure sections are properly spaced
-        String[] commonSections = {
-                "SUMMARY", "OBJECTIVE", "EXPERIENCE", "PROFESSIONAL EXPERIENCE",
-                "EDUCATION", "SKILLS", "PROJECTS", "CERTIFICATIONS"
-        };
+    private String tailoringCacheKey(String resumeText, String jdText, boolean fused) {
+        boolean enhanced = isEnhanced(resumeText);
+        boolean sectioned = enhanced && useSectioned();
+        String variant = sectioned ? PROMPT_VERSION + "-sectioned-" + sectionMaxChars
+                : fused ? PROMPT_VERSION + "-fused" : PROMPT_VERSION;
+        return TailoringCache.key(resumeText, jdText, mode.toUpperCase(), llmClient.getModelsKey(),
+                sectioned ? SECTION_MAX_TOKENS : enhanced ? ENHANCED_MAX_TOKENS : TAILOR_MAX_TOKENS,
+                enhanced ? ENHANCED_TEMPERATURE : TAILOR_TEMPERATURE, variant);
+    }
 
-        for (String section : commonSections) {
-            // Add proper spacing before sections if missing
-            String pattern = "(?<!\\n\\n)" + section;
-            text = text.replaceAll(pattern, "\n\n" + section);
-        }
+    /**
+     * Runtime counters for the AI pipeline, exposed via {@code /api/ai/stats}.
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("cache", tailoringCache.stats());
+        stats.put("tailorCoalescing", tailorFlights.stats());
+        stats.put("atsCoalescing", atsFlights.stats());
+        stats.put("bulkhead", llmClient.bulkheadStats());
+        stats.put("breaker", llmClient.breakerStats());
+        stats.put("router", llmClient.routerStats());
+        stats.put("hedging", llmClient.hedgeStats());
+        return stats;
+    }
 
-        // Clean up any excessive spacing created
-        text = text.replaceAll("\\n{3,}", "\n\n");
-        text = text.replaceAll("^\\n+", ""); // Remove leading newlines
 
-        return text;
+    private String postProcessAIResponse(String aiResponse) {
+        if (aiResponse == null) return null;
+        log.debug("[AIService] Post-processing AI response: {} chars", aiResponse.length());
+        return normalizer.postProcess(aiResponse);
     }
 
-    private String callAIService(String prompt) {
+    private CompletableFuture<String> callAIService(String prompt, Deadline deadline) {
         switch (mode.toUpperCase()) {
             case "HF":
-                return callHuggingFace(prompt);
+                return callHuggingFace(prompt, deadline);
             case "HF_CHAT":
-                return callHuggingFaceChat(prompt);
+                return callHuggingFaceChat(prompt, TAILOR_MAX_TOKENS, TAILOR_TEMPERATURE, deadline);
             default:
                 log.info("[AIService] Using MOCK mode, not calling external API");
-                return "MOCK TAILORED RESUME:\nBased on the job description, your resume has been rewritten.";
+                return CompletableFuture.completedFuture(
+                        "MOCK TAILORED RESUME:\nBased on the job description, your resume has been rewritten.");
         }
     }
 
-    private String callHuggingFaceChatEnhanced(String prompt) {
-        if (hfChatUrl == null || hfChatUrl.isBlank() || hfToken == null || hfToken.isBlank()) {
-            log.error("[AIService] Missing HF Chat config for enhanced processing");
-            return "HF Chat configuration missing. Set hf.chat.url & hf.api.token.";
-        }
-        try {
-            HttpHeaders headers = new HttpHeaders();
-            headers.setBearerAuth(hfToken);
-            headers.setContentType(MediaType.APPLICATION_JSON);
-
-            // Increase max_tokens for large resume processing
-            String requestBody = String.format("""
-                {
-                  "messages": [
-                    {
-                      "role": "user",
-                      "content": %s
-                    }
-                  ],
-                  "model": "meta-llama/Llama-3.1-8B-Instruct",
-                  "max_tokens": 2000,
-                  "temperature": 0.3
-                }
-                """, jsonEscape(prompt));
-
-            log.info("[AIService] Enhanced POST to HF Chat {}", hfChatUrl);
-            ResponseEntity<String> resp = rest.exchange(hfChatUrl, HttpMethod.POST,
-                    new HttpEntity<>(requestBody, headers), String.class);
-
-            String raw = resp.getBody();
-            log.info("[AIService] Enhanced HF Chat status={} response_len={}",
-                    resp.getStatusCodeValue(), raw == null ? 0 : raw.length());
-
-            if (raw == null || raw.isBlank()) return "Empty response from HF Chat.";
-
-            JsonNode json = mapper.readTree(raw);
-            if (json.has("choices") && json.get("choices").isArray() && json.get("choices").size() > 0) {
-                JsonNode firstChoice = json.get("choices").get(0);
-                if (firstChoice.has("message") && firstChoice.get("message").has("content")) {
-                    String content = firstChoice.get("message").get("content").asText();
-                    log.info("[AIService] Enhanced tailoring result length: {}", content.length());
-                    return content;
-                }
-            }
-
-            log.warn("[AIService] Unexpected enhanced HF Chat response format");
-            return raw;
-        } catch (Exception ex) {
-            log.error("[AIService] Enhanced HF Chat call failed: {}", ex.toString());
-            return "Enhanced HF Chat API error: " + ex.getMessage();
-        }
-    }
-
-    private String callHuggingFaceEnhanced(String prompt) {
+    private CompletableFuture<String> callHuggingFaceEnhanced(String prompt, Deadline deadline) {
         // For the old HF API, we still need to limit prompt size
         String limitedPrompt = prompt.length() > 1200 ? prompt.substring(0, 1200) + "..." : prompt;
-        return callHuggingFace(limitedPrompt);
+        return callHuggingFace(limitedPrompt, deadline);
     }
 
-    private Map<String, Object> callATSAnalysis(String prompt) {
-        if (hfChatUrl == null || hfChatUrl.isBlank() || hfToken == null || hfToken.isBlank()) {
+    /**
+     * Model-backed ATS analysis. Overload and an ended request deadline propagate; any other failure,
+     * including an open circuit and a reply without a readable score, falls back to the local
+     * keyword analysis flagged as degraded.
+     */
+    private CompletableFuture<Map<String, Object>> callATSAnalysis(String prompt, String resume, String jd, Deadline deadline) {
+        if (!llmClient.isChatConfigured()) {
             log.error("[AIService] Missing HF Chat config for ATS analysis");
-            return generateMockATSScore("", "");
+            return CompletableFuture.completedFuture(localEngine.analyze(resume, jd));
         }
 
-        try {
-            HttpHeaders headers = new HttpHeaders();
-            headers.setBearerAuth(hfToken);
-            headers.setContentType(MediaType.APPLICATION_JSON);
-
-            String requestBody = String.format("""
-                {
-                  "messages": [
-                    {
-                      "role": "user",
-                      "content": %s
+        return llmClient.chat(prompt, ATS_MAX_TOKENS, ATS_TEMPERATURE, deadline)
+                .thenApply(content -> {
+                    Map<String, Object> parsed = parseATSResponse(content);
+                    if (parsed.isEmpty()) {
+                        log.warn("[AIService] ATS reply has no usable score, using local analysis");
+                        return localEngine.analyze(resume, jd);
                     }
-                  ],
-                  "model": "meta-llama/Llama-3.1-8B-Instruct",
-                  "max_tokens": 1000,
-                  "temperature": 0.1
-                }
-                """, jsonEscape(prompt));
+                    parsed.put("degraded", false);
+                    return parsed;
+                })
+                .exceptionally(ex -> {
+                    Throwable cause = unwrap(ex);
+                    if (isOverload(cause) || cause instanceof DeadlineExceededException) throw new CompletionException(cause);
+                    log.error("[AIService] ATS analysis call failed, using local analysis: {}", cause.toString());
+                    return localEngine.analyze(resume, jd);
+                });
+    }
 
-            ResponseEntity<String> resp = rest.exchange(hfChatUrl, HttpMethod.POST,
-                    new HttpEntity<>(requestBody, headers), String.class);
 
-            String raw = resp.getBody();
-            if (raw == null || raw.isBlank()) {
-                return generateMockATSScore("", "");
-            }
+    /**
+     * Completes exceptionally on missing configuration, transport errors and empty bodies,
+     * so callers can tell a real generation from a failure (see {@link #upstreamErrorText}).
+     */
+    private CompletableFuture<String> callHuggingFaceChat(String prompt, int maxTokens, double temperature, Deadline deadline) {
+        if (!llmClient.isChatConfigured()) {
+            log.error("[AIService] Missing HF Chat config. hfChatUrl='{}' tokenPresent={}", hfChatUrl, hfToken != null && !hfToken.isBlank());
+            return CompletableFuture.failedFuture(
+                    new IllegalStateException("HF Chat configuration missing. Set hf.chat.url & hf.api.token."));
+        }
 
-            JsonNode json = mapper.readTree(raw);
-            if (json.has("choices") && json.get("choices").isArray() && json.get("choices").size() > 0) {
-                JsonNode firstChoice = json.get("choices").get(0);
-                if (firstChoice.has("message") && firstChoice.get("message").has("content")) {
-                    String content = firstChoice.get("message").get("content").asText();
-                    return parseATSResponse(content);
-                }
-            }
+        return llmClient.chat(prompt, maxTokens, temperature, deadline)
+                .thenApply(content -> {
+                    if (content.isBlank()) throw new IllegalStateException("Empty response from HF Chat.");
+                    return content;
+                });
+    }
 
-            return generateMockATSScore("", "");
-        } catch (Exception ex) {
-            log.error("[AIService] ATS analysis call failed: {}", ex.toString());
-            return generateMockATSScore("", "");
+    private CompletableFuture<String> callHuggingFace(String prompt, Deadline deadline) {
+        if (hfUrl == null || hfUrl.isBlank() || hfToken == null || hfToken.isBlank()) {
+            log.error("[AIService] Missing HF config. hfUrl='{}' tokenPresent={}", hfUrl, hfToken != null && !hfToken.isBlank());
+            return CompletableFuture.failedFuture(
+                    new IllegalStateException("HF configuration missing. Set hf.api.url & hf.api.token."));
         }
-    }
 
+        String shortPrompt = prompt.length() > 800 ? prompt.substring(0, 800) : prompt;
 
-    private String callHuggingFaceChat(String prompt) {
-        if (hfChatUrl == null || hfChatUrl.isBlank() || hfToken == null || hfToken.isBlank()) {
-            log.error("[AIService] Missing HF Chat config. hfChatUrl='{}' tokenPresent={}", hfChatUrl, hfToken != null && !hfToken.isBlank());
-            return "HF Chat configuration missing. Set hf.chat.url & hf.api.token.";
-        }
-        try {
-            HttpHeaders headers = new HttpHeaders();
-            headers.setBearerAuth(hfToken);
-            headers.setContentType(MediaType.APPLICATION_JSON);
-
-            String requestBody = String.format("""
-                {
-                  "messages": [
-                    {
-                      "role": "user",
-                      "content": %s
-                    }
-                  ],
-                  "model": "meta-llama/Llama-3.1-8B-Instruct",
-                  "max_tokens": 1000,
-                  "temperature": 0.7
-                }
-                """, jsonEscape(prompt));
+        return llmClient.generate(hfUrl, shortPrompt, deadline)
+                .thenApply(text -> {
+                    if (text.isBlank()) throw new IllegalStateException("Empty response from HF.");
+                    return text;
+                });
+    }
 
-            log.info("[AIService] POST to HF Chat {}", hfChatUrl);
-            ResponseEntity<String> resp = rest.exchange(hfChatUrl, HttpMethod.POST, new HttpEntity<>(requestBody, headers), String.class);
+    private boolean usesUpstream() {
+        return "HF".equalsIgnoreCase(mode) || "HF_CHAT".equalsIgnoreCase(mode);
+    }
 
-            String raw = resp.getBody();
-            log.info("[AIService] HF Chat status={} len={}", resp.getStatusCodeValue(), raw == null ? 0 : raw.length());
-            if (raw == null || raw.isBlank()) return "Empty response from HF Chat.";
+    private TailoringResult localTailoring(String resumeText, String jdText) {
+        log.warn("[AIService] Inference circuit open, tailoring locally");
+        String tailored = localEngine.tailor(resumeText, jdText);
+        return TailoringResult.fallback(tailored, localEngine.analyze(tailored, jdText));
+    }
 
-            JsonNode json = mapper.readTree(raw);
-            if (json.has("choices") && json.get("choices").isArray() && json.get("choices").size() > 0) {
-                JsonNode firstChoice = json.get("choices").get(0);
-                if (firstChoice.has("message") && firstChoice.get("message").has("content")) {
-                    return firstChoice.get("message").get("content").asText();
-                }
-            }
+    /** Serves the local engine when the failure was the open circuit; rethrows anything else. */
+    private TailoringResult fallbackIfCircuitOpen(Throwable ex, String resumeText, String jdText) {
+        Throwable cause = unwrap(ex);
+        if (cause instanceof CircuitOpenException) return localTailoring(resumeText, jdText);
+        throw ex instanceof CompletionException ce ? ce : new CompletionException(cause);
+    }
 
-            log.warn("[AIService] Unexpected HF Chat response format: {}", raw);
-            return raw;
-        } catch (Exception ex) {
-            log.error("[AIService] HF Chat call failed: {}", ex.toString());
-            return "HF Chat API error: " + ex.getMessage();
-        }
+    /**
+     * True for failures that mean "upstream is saturated": bulkhead rejections and 429/503.
+     */
+    static boolean isOverload(Throwable cause) {
+        return cause instanceof UpstreamRejectedException
+                || (cause instanceof LlmException le && le.isOverload());
     }
 
-    private String callHuggingFace(String prompt) {
-        if (hfUrl == null || hfUrl.isBlank() || hfToken == null || hfToken.isBlank()) {
-            log.error("[AIService] Missing HF config. hfUrl='{}' tokenPresent={}", hfUrl, hfToken != null && !hfToken.isBlank());
-            return "HF configuration missing. Set hf.api.url & hf.api.token.";
-        }
-        try {
-            HttpHeaders headers = new HttpHeaders();
-            headers.setBearerAuth(hfToken);
-            headers.setContentType(MediaType.APPLICATION_JSON);
-
-            String shortPrompt = prompt.length() > 800 ? prompt.substring(0, 800) : prompt;
-            String body = "{\"inputs\":" + jsonEscape(shortPrompt) + "}";
-
-            log.info("[AIService] POST to HF {}", hfUrl);
-            ResponseEntity<String> resp = rest.exchange(hfUrl, HttpMethod.POST, new HttpEntity<>(body, headers), String.class);
-
-            String raw = resp.getBody();
-            log.info("[AIService] HF status={} len={}", resp.getStatusCodeValue(), raw == null ? 0 : raw.length());
-            if (raw == null || raw.isBlank()) return "Empty response from HF.";
-
-            JsonNode arr = mapper.readTree(raw);
-            if (arr.isArray() && arr.size() > 0) {
-                JsonNode first = arr.get(0);
-                if (first.has("generated_text")) {
-                    return first.get("generated_text").asText();
-                } else if (first.has("summary_text")) {
-                    return first.get("summary_text").asText();
-                }
-            }
-            return raw;
-        } catch (Exception ex) {
-            log.error("[AIService] HF call failed: {}", ex.toString());
-            return "HF API error: " + ex.getMessage();
+    /**
+     * Converts a failed generation into the text the synchronous entry points have always returned.
+     */
+    private String upstreamErrorText(Throwable ex) {
+        Throwable cause = unwrap(ex);
+        if (cause instanceof IllegalStateException) {
+            log.error("[AIService] {}", cause.getMessage());
+            return cause.getMessage();
         }
+        String api = "HF".equalsIgnoreCase(mode) ? "HF" : "HF Chat";
+        log.error("[AIService] {} call failed: {}", api, cause.toString());
+        return api + " API error: " + cause.getMessage();
     }
 
 
     private String buildEnhancedPrompt(String resume, String jd) {
-        return String.format("""
+        String template = """
             You are an expert resume writer. Your task is to completely rewrite this resume to match the job description.
             
             CRITICAL INSTRUCTIONS:
@@ -442,12 +609,36 @@ public class AIService {
             ORIGINAL RESUME TO REWRITE:
             %s
             
-            TAILORED RESUME:""",
-                safeTruncate(jd, 2000), safeTruncate(resume, 4000));
+            TAILORED RESUME:""";
+        List<String> fitted = promptBudget.fit(template, ENHANCED_MAX_TOKENS, jd, resume);
+        return String.format(template, fitted.get(0), fitted.get(1));
+    }
+
+    private String buildSectionPrompt(ResumeSectionSplitter.Section section, String jd) {
+        String heading = section.heading() != null ? section.heading() : section.kind().name();
+        String template = """
+            You are an expert resume writer. Rewrite ONE section of a resume to match the job description.
+            
+            RULES:
+            1. Rewrite only the section text below - keep every role, date, employer and fact
+            2. Match keywords from the job description naturally
+            3. Return ONLY the rewritten section text, without the section heading
+            4. NO notes, explanations or commentary
+            5. NO markdown formatting - use plain text and bullet points (•)
+            
+            JOB DESCRIPTION:
+            %s
+            
+            SECTION (%s):
+            %s
+            
+            REWRITTEN SECTION:""";
+        List<String> fitted = promptBudget.fit(template + heading, SECTION_MAX_TOKENS, jd, section.body());
+        return String.format(template, fitted.get(0), heading, fitted.get(1));
     }
 
     private String buildATSPrompt(String resume, String jd) {
-        return String.format("""
+        String template = """
             You are an ATS (Applicant Tracking System) analyzer. Analyze this resume against the job description.
             
             Job Description:
@@ -462,12 +653,47 @@ public class AIService {
             MISSING_KEYWORDS: missing1, missing2, missing3
             SUGGESTIONS: suggestion1 | suggestion2 | suggestion3
             
-            Analysis:""",
-                safeTruncate(jd, 1500), safeTruncate(resume, 2000));
+            Analysis:""";
+        List<String> fitted = promptBudget.fit(template, ATS_MAX_TOKENS, jd, resume);
+        return String.format(template, fitted.get(0), fitted.get(1));
+    }
+
+    private String buildFusedPrompt(String resume, String jd, int maxTokens) {
+        String template = """
+            You are an expert resume writer and ATS (Applicant Tracking System) analyzer.
+            First rewrite the resume to fit the job description, keeping the same structure.
+            Then analyze YOUR REWRITTEN resume against the job description.
+            
+            RULES FOR THE RESUME:
+            1. Keep every role, date, employer and fact
+            2. NO explanatory notes or commentary
+            3. NO markdown formatting - use plain text only
+            4. Use bullet points (•) not asterisks (*)
+            5. Match keywords from job description naturally
+            
+            Reply in exactly this format and nothing else:
+            === TAILORED RESUME ===
+            (the complete tailored resume)
+            === ATS ANALYSIS ===
+            SCORE: [number 0-100]
+            MATCHING_KEYWORDS: keyword1, keyword2, keyword3
+            MISSING_KEYWORDS: missing1, missing2, missing3
+            SUGGESTIONS: suggestion1 | suggestion2 | suggestion3
+            === END ===
+            
+            === JOB DESCRIPTION ===
+            %s
+            
+            === ORIGINAL RESUME ===
+            %s
+            
+            """;
+        List<String> fitted = promptBudget.fit(template, maxTokens, jd, resume);
+        return String.format(template, fitted.get(0), fitted.get(1));
     }
 
     private String buildPrompt(String resume, String jd) {
-        return String.format("""
+        String template = """
             You are an expert resume writer. Rewrite the resume to fit the job description. Keep the same structure but tailor the content.
             
             IMPORTANT RULES:
@@ -483,7 +709,9 @@ public class AIService {
             === ORIGINAL RESUME ===
             %s
             
-            TAILORED RESUME:""", safe(jd), safe(resume));
+            TAILORED RESUME:""";
+        List<String> fitted = promptBudget.fit(template, TAILOR_MAX_TOKENS, jd, resume);
+        return String.format(template, fitted.get(0), fitted.get(1));
     }
 
 
@@ -561,6 +789,7 @@ public class AIService {
     }
 
 
+    /** The analysis in a SCORE / KEYWORDS / SUGGESTIONS reply, or an empty map when it has no readable score. */
     private Map<String, Object> parseATSResponse(String response) {
         Map<String, Object> result = new HashMap<>();
         try {
@@ -581,7 +810,10 @@ public class AIService {
                     result.put("suggestions", Arrays.asList(suggestions.split("\\|\\s*")));
                 }
             }
-
+            if (!result.containsKey("score")) {
+                log.warn("[AIService] ATS response has no SCORE line");
+                return new HashMap<>();
+            }
 
             result.put("breakdown", Map.of(
                     "keywordMatch", (Integer) result.getOrDefault("score", 0),
@@ -590,24 +822,15 @@ public class AIService {
 
         } catch (Exception e) {
             log.error("[AIService] Error parsing ATS response: {}", e.getMessage());
-            return generateMockATSScore("", "");
+            return new HashMap<>();
         }
         return result;
     }
 
-    private static String safe(String s) {
-        if (s == null) return "";
-        return s.length() > 3000 ? s.substring(0, 3000) : s;
-    }
-
-    private static String safeTruncate(String s, int maxLength) {
-        if (s == null) return "";
-        return s.length() > maxLength ? s.substring(0, maxLength) + "..." : s;
-    }
-
-    private static String jsonEscape(String s) {
-        if (s == null) return "\"\"";
-        String esc = s.replace("\\","\\\\").replace("\"","\\\"").replace("\n","\\n").replace("\r","\\r").replace("\t","\\t");
-        return "\"" + esc + "\"";
+    private static Throwable unwrap(Throwable ex) {
+        while ((ex instanceof CompletionException || ex instanceof ExecutionException) && ex.getCause() != null) {
+            ex = ex.getCause();
+        }
+        return ex;
     }
 }
\ No newline at end of file
@@ -1,25 +1,223 @@
 package com.resumetailor.service;
 
+import com.resumetailor.model.Job;
+import com.resumetailor.repository.JobRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import java.util.*;
-import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 
 @Service
 public class ATSService {
+    private static final Logger log = LoggerFactory.getLogger(ATSService.class);
 
-    private static final Set<String> STOPWORDS = Set.of(
+    static final Set<String> STOPWORDS = Set.of(
             "the","a","an","and","or","but","to","in","on","for","of","with","by","at",
             "from","as","is","are","was","were","be","been","being","this","that","these","those",
             "it","its","you","your","we","our","they","their"
     );
 
-    private static final Pattern TOKENIZER = Pattern.compile("[^a-z0-9+.#]+"); // keep tech-ish tokens like c++, c#, .net
+    // Tokens longer than every stopword skip the comparison
+    private static final int MAX_STOPWORD_LENGTH = STOPWORDS.stream().mapToInt(String::length).max().orElse(0);
+    private static final String[] STOPWORD_LIST = STOPWORDS.toArray(new String[0]);
 
-    private static List<String> tokenize(String text) {
-        return Arrays.stream(TOKENIZER.split(text.toLowerCase()))
-                .filter(t -> t.length() > 1)
-                .collect(Collectors.toList());
+    /** Tokens of {@code text}: lower-cased runs of {@code [a-z0-9+.#]} (keeps c++, c#, .net), 2+ chars. */
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        TermScanner scanner = new TermScanner(text);
+        while (scanner.next()) {
+            tokens.add(scanner.term());
+        }
+        return tokens;
+    }
+
+    static boolean isStopword(TermScanner scanner) {
+        if (scanner.length() > MAX_STOPWORD_LENGTH) return false;
+        for (String stopword : STOPWORD_LIST) {
+            if (scanner.is(stopword)) return true;
+        }
+        return false;
+    }
+
+    @Autowired
+    private TermDictionary dictionary;
+
+    @Autowired
+    private JobRepository jobRepository;
+
+    @Autowired
+    private CorpusStats corpusStats;
+
+    @Autowired
+    private SkillTaxonomy skillTaxonomy;
+
+    @Value("${ats.bm25.k1:1.2}")
+    private double k1;
+
+    @Value("${ats.bm25.b:0.75}")
+    private double b;
+
+    /** How a score weighs the job's terms. */
+    public enum Scoring {
+        /** Every distinct job term counts the same. */
+        BASIC,
+        /** Terms weighted by how rare they are in the corpus, with BM25 term-frequency saturation. */
+        BM25;
+
+        public static Scoring parse(String value) {
+            for (Scoring scoring : values()) {
+                if (scoring.name().equalsIgnoreCase(value)) return scoring;
+            }
+            throw new IllegalArgumentException("Unknown scoring '" + value + "', expected basic or bm25");
+        }
+    }
+
+    /**
+     * What one job term adds to a weighted score: its BM25 inverse document frequency as the weight,
+     * and the points (out of 100 across all terms) the resume earned for it.
+     */
+    public record TermContribution(String term, int termFrequency, int documentFrequency, double weight, double points) {}
+
+    public record WeightedScore(int score, List<TermContribution> terms) {}
+
+    /** Taxonomy skills the job asks for, split by whether the resume mentions them (by any synonym). */
+    public record SkillCoverage(int score, List<String> matched, List<String> missing) {}
+
+    /**
+     * Term index of a job description: its distinct non-stopword tokens, interned in the dictionary.
+     * Computed once when the job is uploaded and stored with it.
+     */
+    public JobTermIndex indexJob(String jd) {
+        return JobTermIndex.build(jd, dictionary);
+    }
+
+    /**
+     * The stored term index of {@code job}; jobs uploaded before indexes existed are indexed and
+     * stored on first use.
+     */
+    public JobTermIndex termIndexOf(Job job) {
+        if (job.getTermIndex() != null) {
+            return JobTermIndex.decode(job.getTermIndex());
+        }
+        JobTermIndex index = indexJob(job.getDescription());
+        byte[] encoded = index.encode();
+        if (job.getId() != null) {
+            jobRepository.updateTermIndex(job.getId(), encoded);
+            log.info("[ATSService] Indexed job {}: {} terms in {} bytes", job.getId(), index.size(), encoded.length);
+        }
+        job.setTermIndex(encoded);
+        return index;
+    }
+
+    /** Same score as {@link #calculateATSScore(String, String)} against the job's stored term index. */
+    public int calculateATSScore(String resume, Job job, Deadline deadline) {
+        deadline.check("ATS scoring");
+        return calculateATSScore(resume, termIndexOf(job));
+    }
+
+    /**
+     * Share of the job's terms that occur in the resume; only the resume is scanned, and its tokens
+     * are matched as dictionary ids without being copied out. Resume tokens missing from the
+     * dictionary occur in no job and are skipped.
+     */
+    public int calculateATSScore(String resume, JobTermIndex jd) {
+        if (jd.size() == 0) return 0;
+        dictionary.ensureKnown(jd.maxTermId());
+
+        int matches = jd.countMatches(resume, dictionary);
+        int score = (int)Math.round((matches * 100.0) / jd.size());
+        return Math.max(0, Math.min(100, score));
+    }
+
+    /** {@link #calculateWeightedATSScore(String, JobTermIndex)} against the job's stored term index. */
+    public WeightedScore calculateWeightedATSScore(String resume, Job job, Deadline deadline) {
+        deadline.check("ATS scoring");
+        return calculateWeightedATSScore(resume, termIndexOf(job));
+    }
+
+    /**
+     * Weighted counterpart of the basic score. Each job term {@code t} is worth
+     * {@code idf(t) = ln(1 + (N - df + 0.5) / (df + 0.5))} over the {@link CorpusStats corpus} of
+     * stored jobs and resumes, so common words such as "experience" count for little and rare skills
+     * for a lot. The resume earns {@code min(1, tf (k1 + 1) / (tf + k1 (1 - b + b len / avgLen)))}
+     * of a term's worth: one mention is full credit in a resume of average length, while longer
+     * resumes need more mentions. The score is the earned share of the total worth, 0 to 100.
+     */
+    public WeightedScore calculateWeightedATSScore(String resume, JobTermIndex jd) {
+        int[] ids = jd.termIds();
+        if (ids.length == 0) return new WeightedScore(0, List.of());
+        dictionary.ensureKnown(jd.maxTermId());
+
+        int[] tf = new int[ids.length];
+        int length = 0;
+        TermScanner scanner = new TermScanner(resume);
+        while (scanner.next()) {
+            length++;
+            int id = dictionary.idOf(scanner);
+            if (id < 0) continue;
+            int at = Arrays.binarySearch(ids, id);
+            if (at >= 0) tf[at]++;
+        }
+
+        String[] terms = new String[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            terms[i] = dictionary.termOf(ids[i]);
+        }
+        CorpusStats.Frequencies corpus = corpusStats.frequencies(ids, terms);
+        double averageLength = corpus.averageResumeLength() > 0 ? corpus.averageResumeLength() : Math.max(1, length);
+        double lengthNorm = 1 - b + b * length / averageLength;
+
+        double[] idf = new double[ids.length];
+        double totalWeight = 0;
+        for (int i = 0; i < ids.length; i++) {
+            int df = corpus.documentFrequencies()[i];
+            int n = Math.max(corpus.documents(), df);
+            idf[i] = Math.log(1 + (n - df + 0.5) / (df + 0.5));
+            totalWeight += idf[i];
+        }
+
+        List<TermContribution> contributions = new ArrayList<>(ids.length);
+        double points = 0;
+        for (int i = 0; i < ids.length; i++) {
+            double credit = tf[i] == 0 ? 0 : Math.min(1, tf[i] * (k1 + 1) / (tf[i] + k1 * lengthNorm));
+            double earned = 100 * idf[i] * credit / totalWeight;
+            points += earned;
+            contributions.add(new TermContribution(terms[i], tf[i], corpus.documentFrequencies()[i],
+                    Math.round(idf[i] * 1000) / 1000.0, Math.round(earned * 100) / 100.0));
+        }
+        contributions.sort(Comparator.comparingDouble(TermContribution::weight).reversed()
+                .thenComparing(TermContribution::term, Comparator.nullsLast(Comparator.naturalOrder())));
+
+        int score = (int) Math.round(points);
+        return new WeightedScore(Math.max(0, Math.min(100, score)), contributions);
+    }
+
+    /**
+     * Skill phrases rather than single tokens: "Spring Boot", "CI/CD" and "k8s"/"Kubernetes" match as
+     * the skills they name. The score is the share of the job's skills found in the resume, 0 when
+     * the job mentions none.
+     */
+    public SkillCoverage matchSkills(String resume, String jd) {
+        SkillMatcher matcher = skillTaxonomy.matcher();
+        List<String> required = matcher.find(jd);
+        if (required.isEmpty()) return new SkillCoverage(0, List.of(), List.of());
+
+        Set<String> present = new HashSet<>(matcher.find(resume));
+        List<String> matched = new ArrayList<>();
+        List<String> missing = new ArrayList<>();
+        for (String skill : required) {
+            (present.contains(skill) ? matched : missing).add(skill);
+        }
+        int score = (int) Math.round((matched.size() * 100.0) / required.size());
+        return new SkillCoverage(score, matched, missing);
+    }
+
+    /** Scores only while {@code deadline} is still open; the result would be discarded otherwise. */
+    public int calculateATSScore(String resume, String jd, Deadline deadline) {
+        deadline.check("ATS scoring");
+        return calculateATSScore(resume, jd);
     }
 
     public int calculateATSScore(String resume, String jd) {
@@ -0,0 +1,183 @@
+package com.resumetailor.service;
+
+import com.resumetailor.dto.TailoredResumeResponse;
+import com.resumetailor.model.Job;
+import com.resumetailor.model.Resume;
+import com.resumetailor.model.TailoredResume;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Tailors many resume/job pairs in one request. Pairs run through {@link AIService} at most
+ * {@code ai.batch.max-parallel} at a time; each result is reported as soon as it is ready, and
+ * successful rows are inserted in JDBC batches of {@code ai.batch.insert-chunk-size} as they finish,
+ * with the remainder inserted when the last pair is done. Once the request deadline ends no new pair
+ * is started, but rows already generated are still inserted, since their upstream calls are paid
+ * for. Every pair is also admitted
+ * through the {@link TailoringScheduler} as BATCH work of the requesting client, so batches yield
+ * to interactive requests and share capacity fairly with other clients' batches.
+ */
+@Service
+public class BatchTailoringService {
+    private static final Logger log = LoggerFactory.getLogger(BatchTailoringService.class);
+
+    @Value("${ai.batch.max-parallel:4}")
+    private int maxParallel;
+
+    @Value("${ai.batch.max-items:200}")
+    private int maxItems;
+
+    @Value("${ai.batch.insert-chunk-size:20}")
+    private int insertChunkSize;
+
+    @Autowired
+    private AIService aiService;
+
+    @Autowired
+    private JobDigestService jobDigestService;
+
+    @Autowired
+    private TailoredResumeService tailoredResumeService;
+
+    @Autowired
+    private TailoringScheduler scheduler;
+
+    public record Item(Resume resume, Job job) {}
+
+    /** Per-pair callbacks; they run on whichever thread completed the generation. */
+    public interface Listener {
+        void onItem(TailoredResumeResponse result);
+
+        void onItemError(Item item, Throwable cause);
+    }
+
+    public int getMaxItems() {
+        return maxItems;
+    }
+
+    /**
+     * Runs every pair and resolves with the saved rows, in completion order, once the last chunk is inserted.
+     * If a chunk fails to insert, the other chunks are still inserted and the result fails with that error.
+     */
+    public CompletableFuture<List<TailoredResumeResponse>> tailorAll(List<Item> items, String client, Deadline deadline,
+                                                                     Listener listener) {
+        log.info("[BatchTailoringService] Tailoring {} pairs, maxParallel={}", items.size(), maxParallel);
+
+        Inserts inserts = new Inserts();
+        CompletableFuture<Void> allDone = new CompletableFuture<>();
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger remaining = new AtomicInteger(items.size());
+
+        if (items.isEmpty()) {
+            allDone.complete(null);
+        } else {
+            for (int i = 0; i < Math.min(Math.max(1, maxParallel), items.size()); i++) {
+                startNext(items, next, remaining, inserts, client, deadline, listener, allDone);
+            }
+        }
+
+        // No deadline check here: the remaining rows are already generated
+        return allDone.thenApply(ignored -> inserts.finish());
+    }
+
+    /**
+     * Pairs still waiting when {@code deadline} ends are reported as failed without calling the upstream.
+     */
+    private void startNext(List<Item> items, AtomicInteger next, AtomicInteger remaining, Inserts inserts,
+                           String client, Deadline deadline, Listener listener, CompletableFuture<Void> allDone) {
+        int index = next.getAndIncrement();
+        if (index >= items.size()) return;
+        Item item = items.get(index);
+
+        CompletableFuture<TailoringResult> generation;
+        try {
+            deadline.check("tailoring");
+            generation = scheduler.submit(TailoringScheduler.Priority.BATCH, client, deadline,
+                    () -> aiService.generateTailoredResumeAsync(
+                            item.resume().getContent(), jobDigestService.promptText(item.job()), deadline));
+        } catch (RuntimeException e) {
+            generation = CompletableFuture.failedFuture(e);
+        }
+
+        generation.thenApply(result -> tailoredResumeService.prepare(item.resume(), item.job(), result))
+                .whenComplete((row, ex) -> {
+                    try {
+                        if (ex == null) {
+                            listener.onItem(tailoredResumeService.toResponse(row));
+                            inserts.add(row);
+                        } else {
+                            Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+                            log.warn("[BatchTailoringService] Resume {} / job {} failed: {}",
+                                    item.resume().getId(), item.job().getId(), cause.getMessage());
+                            listener.onItemError(item, cause);
+                        }
+                    } finally {
+                        if (remaining.decrementAndGet() == 0) {
+                            allDone.complete(null);
+                        } else {
+                            startNext(items, next, remaining, inserts, client, deadline, listener, allDone);
+                        }
+                    }
+                });
+    }
+
+    /** Collects one batch's finished rows and inserts them a chunk at a time. */
+    private final class Inserts {
+        private final List<TailoredResume> pending = new ArrayList<>();
+        private final List<TailoredResume> saved = new ArrayList<>();
+        private RuntimeException failure;
+
+        void add(TailoredResume row) {
+            List<TailoredResume> chunk;
+            synchronized (this) {
+                pending.add(row);
+                if (pending.size() < Math.max(1, insertChunkSize)) return;
+                chunk = new ArrayList<>(pending);
+                pending.clear();
+            }
+            save(chunk);
+        }
+
+        List<TailoredResumeResponse> finish() {
+            List<TailoredResume> chunk;
+            synchronized (this) {
+                chunk = new ArrayList<>(pending);
+                pending.clear();
+            }
+            save(chunk);
+            synchronized (this) {
+                if (failure != null) throw failure;
+                List<TailoredResumeResponse> responses = new ArrayList<>(saved.size());
+                for (TailoredResume row : saved) {
+                    responses.add(tailoredResumeService.toResponse(row));
+                }
+                return responses;
+            }
+        }
+
+        private void save(List<TailoredResume> chunk) {
+            if (chunk.isEmpty()) return;
+            try {
+                tailoredResumeService.saveAll(chunk);
+                synchronized (this) {
+                    saved.addAll(chunk);
+                }
+            } catch (RuntimeException e) {
+                log.error("[BatchTailoringService] Inserting {} rows failed: {}", chunk.size(), e.getMessage());
+                synchronized (this) {
+                    if (failure == null) failure = e;
+                }
+            }
+        }
+    }
+}
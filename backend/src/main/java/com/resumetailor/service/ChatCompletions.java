@@ -0,0 +1,178 @@
+package com.resumetailor.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.http.HttpRequest;
+import java.util.List;
+
+/**
+ * Wire format of the OpenAI-style chat completions endpoint (and the older HF text-generation one),
+ * written and read with Jackson's streaming API. Requests are encoded straight to UTF-8 bytes that
+ * become the HTTP body; responses are parsed from the received bytes, reading the first choice and the
+ * usage counts and skipping everything else, so neither side builds an intermediate String or tree.
+ */
+final class ChatCompletions {
+
+    private static final JsonFactory JSON = new JsonFactory();
+
+    record Message(String role, String content) {}
+
+    record Request(String model, List<Message> messages, int maxTokens, double temperature, boolean stream) {
+
+        static Request user(String model, String prompt, int maxTokens, double temperature, boolean stream) {
+            return new Request(model, List.of(new Message("user", prompt)), maxTokens, temperature, stream);
+        }
+    }
+
+    /**
+     * {@code choices[0]} and {@code usage.completion_tokens}; {@code content} is null and
+     * {@code completionTokens} -1 when the body has no such field.
+     */
+    record Response(String content, String finishReason, int completionTokens) {}
+
+    private ChatCompletions() {
+    }
+
+    static HttpRequest.BodyPublisher write(Request request) throws IOException {
+        Body body = new Body(256 + request.messages().stream().mapToInt(m -> m.content().length()).sum());
+        try (JsonGenerator gen = JSON.createGenerator(body)) {
+            gen.writeStartObject();
+            gen.writeStringField("model", request.model());
+            gen.writeNumberField("max_tokens", request.maxTokens());
+            gen.writeNumberField("temperature", request.temperature());
+            if (request.stream()) {
+                gen.writeBooleanField("stream", true);
+            }
+            gen.writeArrayFieldStart("messages");
+            for (Message message : request.messages()) {
+                gen.writeStartObject();
+                gen.writeStringField("role", message.role());
+                gen.writeStringField("content", message.content());
+                gen.writeEndObject();
+            }
+            gen.writeEndArray();
+            gen.writeEndObject();
+        }
+        return body.publisher();
+    }
+
+    /** {@code {"inputs": "..."}} for the text-generation inference API. */
+    static HttpRequest.BodyPublisher writeInputs(String inputs) throws IOException {
+        Body body = new Body(32 + inputs.length());
+        try (JsonGenerator gen = JSON.createGenerator(body)) {
+            gen.writeStartObject();
+            gen.writeStringField("inputs", inputs);
+            gen.writeEndObject();
+        }
+        return body.publisher();
+    }
+
+    static Response read(byte[] body) throws IOException {
+        try (JsonParser parser = JSON.createParser(body)) {
+            return readFirstChoice(parser, "message");
+        }
+    }
+
+    /** Content fragment of one {@code data:} payload of a streamed completion, or null. */
+    static String readDelta(String data) throws IOException {
+        try (JsonParser parser = JSON.createParser(data)) {
+            return readFirstChoice(parser, "delta").content();
+        }
+    }
+
+    /**
+     * {@code [0].generated_text} (or {@code summary_text}) of a text-generation response, or null.
+     */
+    static String readGeneratedText(byte[] body) throws IOException {
+        try (JsonParser parser = JSON.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY || parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            String summary = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if ("generated_text".equals(field) && value == JsonToken.VALUE_STRING) {
+                    return parser.getText();
+                } else if ("summary_text".equals(field) && value == JsonToken.VALUE_STRING) {
+                    summary = parser.getText();
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            return summary;
+        }
+    }
+
+    private static Response readFirstChoice(JsonParser parser, String messageField) throws IOException {
+        Response choice = new Response(null, null, -1);
+        int completionTokens = -1;
+        if (parser.nextToken() != JsonToken.START_OBJECT) return choice;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if ("choices".equals(field) && value == JsonToken.START_ARRAY) {
+                if (parser.nextToken() == JsonToken.START_OBJECT) {
+                    choice = readChoice(parser, messageField);
+                    while (parser.nextToken() != JsonToken.END_ARRAY) {
+                        parser.skipChildren();
+                    }
+                }
+            } else if ("usage".equals(field) && value == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String inner = parser.getCurrentName();
+                    JsonToken innerValue = parser.nextToken();
+                    if ("completion_tokens".equals(inner) && innerValue == JsonToken.VALUE_NUMBER_INT) {
+                        completionTokens = parser.getIntValue();
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return new Response(choice.content(), choice.finishReason(), completionTokens);
+    }
+
+    private static Response readChoice(JsonParser parser, String messageField) throws IOException {
+        String content = null;
+        String finishReason = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if (messageField.equals(field) && value == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String inner = parser.getCurrentName();
+                    JsonToken innerValue = parser.nextToken();
+                    if ("content".equals(inner) && innerValue == JsonToken.VALUE_STRING) {
+                        content = parser.getText();
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            } else if ("finish_reason".equals(field) && value == JsonToken.VALUE_STRING) {
+                finishReason = parser.getText();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return new Response(content, finishReason, -1);
+    }
+
+    /** Exposes the written buffer to the HTTP client without the copy {@code toByteArray()} would make. */
+    private static final class Body extends ByteArrayOutputStream {
+        Body(int sizeHint) {
+            super(sizeHint);
+        }
+
+        HttpRequest.BodyPublisher publisher() {
+            return HttpRequest.BodyPublishers.ofByteArray(buf, 0, count);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.resumetailor.service;
+
+/**
+ * Raised without calling the upstream while the circuit breaker is open.
+ */
+public class CircuitOpenException extends RuntimeException {
+
+    private final long retryAfterMs;
+
+    public CircuitOpenException(String message, long retryAfterMs) {
+        super(message);
+        this.retryAfterMs = retryAfterMs;
+    }
+
+    /** Time until the breaker lets a probe call through. */
+    public long getRetryAfterMs() {
+        return retryAfterMs;
+    }
+}
@@ -0,0 +1,78 @@
+package com.resumetailor.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Document frequencies over the corpus of stored jobs and resumes, for weighting ATS terms by how
+ * rare they are. Nothing is ever recomputed in full: job counts are adjusted as {@link JobIndex}
+ * adds and removes jobs, and resume counts are the live posting counts {@link ResumeIndex}
+ * maintains.
+ * <p>
+ * Job counts are an array indexed by {@link TermDictionary} id. Updates are serialised; reads
+ * take no lock, and a resize publishes a complete copy.
+ */
+@Service
+public class CorpusStats {
+
+    @Autowired
+    private ResumeIndex resumeIndex;
+
+    private volatile AtomicIntegerArray jobFrequencies = new AtomicIntegerArray(1024);
+    private volatile int jobs;
+
+    /** Document frequency and corpus size for a set of terms, read together. */
+    public record Frequencies(int[] documentFrequencies, int documents, double averageResumeLength) {}
+
+    synchronized void addJob(JobTermIndex terms) {
+        ensureCapacity(terms.maxTermId());
+        AtomicIntegerArray frequencies = jobFrequencies;
+        for (int id : terms.termIds()) {
+            frequencies.incrementAndGet(id);
+        }
+        jobs++;
+    }
+
+    synchronized void removeJob(JobTermIndex terms) {
+        AtomicIntegerArray frequencies = jobFrequencies;
+        for (int id : terms.termIds()) {
+            if (id < frequencies.length()) frequencies.decrementAndGet(id);
+        }
+        jobs--;
+    }
+
+    /**
+     * How many stored jobs and resumes contain each term; {@code termIds} and {@code terms} are the
+     * same terms as dictionary ids and as text.
+     */
+    public Frequencies frequencies(int[] termIds, String[] terms) {
+        int[] frequencies = resumeIndex.documentFrequencies(terms);
+        AtomicIntegerArray jobCounts = jobFrequencies;
+        for (int i = 0; i < termIds.length; i++) {
+            if (termIds[i] < jobCounts.length()) frequencies[i] += jobCounts.get(termIds[i]);
+        }
+        return new Frequencies(frequencies, jobs + resumeIndex.size(), resumeIndex.averageLength());
+    }
+
+    private void ensureCapacity(int maxTermId) {
+        AtomicIntegerArray current = jobFrequencies;
+        if (maxTermId < current.length()) return;
+        AtomicIntegerArray bigger = new AtomicIntegerArray(Math.max(maxTermId + 1, current.length() * 2));
+        for (int i = 0; i < current.length(); i++) {
+            bigger.set(i, current.get(i));
+        }
+        jobFrequencies = bigger;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("jobs", jobs);
+        stats.put("resumes", resumeIndex.size());
+        stats.put("averageResumeLength", Math.round(resumeIndex.averageLength()));
+        return stats;
+    }
+}
@@ -0,0 +1,109 @@
+package com.resumetailor.service;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time budget of one incoming request, passed explicitly down the call chain. It ends when the
+ * budget runs out or when {@link #cancel} is called (the client disconnected or the request
+ * completed), whichever comes first. Stages call {@link #check} before doing work whose result
+ * nobody may read any more, and in-flight upstream calls register with {@link #onEnd} to be cancelled.
+ */
+public final class Deadline {
+
+    private static final ScheduledExecutorService TIMER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "request-deadline");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private static final Deadline NONE = new Deadline(Long.MAX_VALUE);
+
+    private final long expiresAtNanos;
+    private final CompletableFuture<String> ended = new CompletableFuture<>();
+    private final ScheduledFuture<?> expiry;
+
+    private Deadline(long timeoutMs) {
+        if (timeoutMs == Long.MAX_VALUE) {
+            this.expiresAtNanos = Long.MAX_VALUE;
+            this.expiry = null;
+        } else {
+            this.expiresAtNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+            this.expiry = TIMER.schedule(() -> end("deadline of " + timeoutMs + "ms exceeded"),
+                    timeoutMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public static Deadline after(Duration timeout) {
+        return new Deadline(Math.max(0, timeout.toMillis()));
+    }
+
+    /** No time limit and never cancelled; for background work such as the task queue. */
+    public static Deadline none() {
+        return NONE;
+    }
+
+    /**
+     * A deadline with the same time left that also ends when this one does, but can be cancelled on
+     * its own; lets one of several concurrent upstream attempts be abandoned without the request.
+     */
+    public Deadline child() {
+        Deadline child = new Deadline(remainingMs());
+        onEnd(() -> child.end(reason()));
+        return child;
+    }
+
+    /** No time limit, but ends when cancelled; for work shared by several requests. */
+    public static Deadline unbounded() {
+        return new Deadline(Long.MAX_VALUE);
+    }
+
+    /** Ends the deadline early, e.g. because the client disconnected. */
+    public void cancel(String reason) {
+        if (this != NONE) end(reason);
+    }
+
+    public boolean isOver() {
+        return ended.isDone() || (expiresAtNanos != Long.MAX_VALUE && System.nanoTime() - expiresAtNanos >= 0);
+    }
+
+    /** Milliseconds left, 0 once over; {@code Long.MAX_VALUE} without a time limit. */
+    public long remainingMs() {
+        if (ended.isDone()) return 0;
+        if (expiresAtNanos == Long.MAX_VALUE) return Long.MAX_VALUE;
+        return Math.max(0, TimeUnit.NANOSECONDS.toMillis(expiresAtNanos - System.nanoTime()));
+    }
+
+    /** Caps a configured timeout to the time left. */
+    public long cap(long timeoutMs) {
+        return Math.min(timeoutMs, remainingMs());
+    }
+
+    /** Throws {@link DeadlineExceededException} naming {@code stage} if the deadline is over. */
+    public void check(String stage) {
+        if (isOver()) {
+            throw new DeadlineExceededException("Skipped " + stage + ": " + reason());
+        }
+    }
+
+    /** Runs {@code action} once when the deadline ends; immediately if it already has. */
+    public void onEnd(Runnable action) {
+        if (this == NONE) return;
+        if (!ended.isDone() && isOver()) end("deadline exceeded");
+        ended.thenRun(action);
+    }
+
+    private String reason() {
+        return ended.isDone() ? ended.getNow("deadline exceeded") : "deadline exceeded";
+    }
+
+    private void end(String reason) {
+        if (ended.complete(reason) && expiry != null) {
+            expiry.cancel(false);
+        }
+    }
+}
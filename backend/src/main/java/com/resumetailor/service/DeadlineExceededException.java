@@ -0,0 +1,12 @@
+package com.resumetailor.service;
+
+/**
+ * Raised when work is skipped or abandoned because its request's {@link Deadline} passed or the
+ * client went away.
+ */
+public class DeadlineExceededException extends RuntimeException {
+
+    public DeadlineExceededException(String message) {
+        super(message);
+    }
+}
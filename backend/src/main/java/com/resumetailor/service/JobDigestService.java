@@ -0,0 +1,304 @@
+package com.resumetailor.service;
+
+import com.resumetailor.model.Job;
+import com.resumetailor.repository.JobRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compact digest of a job description: role and seniority, required skills, nice-to-haves and
+ * recurring key phrases. It is computed once in the background when a job is uploaded, stored
+ * with the {@link Job}, and sent to the model instead of the raw description, so every later
+ * tailoring or ATS call on that job carries a fraction of the prompt tokens.
+ * <p>
+ * Extraction is local and rule-based (section headings, bullets, cue words), so digesting costs
+ * no upstream call. Jobs without a digest, or whose digest would not be shorter than the raw
+ * text, keep using the description.
+ */
+@Service
+public class JobDigestService {
+    private static final Logger log = LoggerFactory.getLogger(JobDigestService.class);
+
+    private static final int MAX_REQUIRED = 12;
+    private static final int MAX_NICE_TO_HAVE = 8;
+    private static final int MAX_KEY_PHRASES = 12;
+    private static final int MAX_ITEM_CHARS = 120;
+
+    private enum Part { NONE, REQUIRED, PREFERRED, RESPONSIBILITIES, IGNORED }
+
+    private static final Pattern BULLET = Pattern.compile("^\\s*(?:[-*•◦+]|\\d+[.)])\\s+");
+    private static final Pattern REQUIRED_HEADING = Pattern.compile(
+            "(?i).*\\b(requirements?|qualifications?|must[- ]haves?|what you (?:bring|need|have)|"
+                    + "you (?:have|bring)|skills|required|experience)\\b.*");
+    private static final Pattern PREFERRED_HEADING = Pattern.compile(
+            "(?i).*\\b(nice[- ]to[- ]haves?|preferred|bonus|pluses|desired|good to have)\\b.*");
+    private static final Pattern RESPONSIBILITIES_HEADING = Pattern.compile(
+            "(?i).*\\b(responsibilities|what you(?:'ll| will) do|duties|the role|your role|day to day)\\b.*");
+    private static final Pattern IGNORED_HEADING = Pattern.compile(
+            "(?i).*\\b(about (?:us|the company)|benefits|perks|we offer|compensation|salary|equal opportunity|how to apply)\\b.*");
+    private static final Pattern PREFERRED_CUE = Pattern.compile(
+            "(?i)\\b(nice to have|preferred|is a plus|a bonus|bonus points|desirable|ideally)\\b");
+    private static final Pattern REQUIRED_CUE = Pattern.compile(
+            "(?i)\\b(required|must|proficien\\w*|experience (?:with|in)|knowledge of|expertise in|familiarity with|strong)\\b");
+    private static final Pattern SENIORITY = Pattern.compile(
+            "(?i)\\b(intern(?:ship)?|junior|entry[- ]level|graduate|mid[- ]level|senior|sr\\.?|staff|principal|lead|head of|director)\\b");
+    private static final Pattern YEARS = Pattern.compile(
+            "(?i)\\b(\\d{1,2})\\s*(?:\\+|-\\s*\\d{1,2})?\\s*\\+?\\s*years?\\b");
+    private static final Pattern SENTENCE_END = Pattern.compile("(?<=[.!?])\\s+");
+    private static final Pattern WORD_SPLIT = Pattern.compile("[^a-z0-9+.#]+");
+
+    private static final Set<String> STOPWORDS = Set.of(
+            "the", "a", "an", "and", "or", "but", "to", "in", "on", "for", "of", "with", "by", "at",
+            "from", "as", "is", "are", "was", "were", "be", "been", "being", "this", "that", "these", "those",
+            "it", "its", "you", "your", "we", "our", "they", "their", "will", "can", "who", "what", "all",
+            "have", "has", "not", "us", "work", "working", "team", "role", "job", "about", "into",
+            "able", "also", "such", "etc", "other", "more", "including", "within", "across", "well", "new",
+            "end", "experience", "years", "plus", "looking"
+    );
+
+    @Value("${ai.digest.enabled:true}")
+    private boolean enabled;
+
+    @Autowired
+    private JobRepository jobRepository;
+
+    private ExecutorService worker;
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    void init() {
+        worker = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "job-digest");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        worker.shutdown();
+    }
+
+    /**
+     * Text to put in prompts for this job: the digest when there is a useful one, otherwise the raw
+     * description. A job that has never been digested (e.g. uploaded before digests existed) is
+     * queued so later calls get the short form.
+     */
+    public String promptText(Job job) {
+        String description = job.getDescription();
+        if (!enabled) return description;
+
+        String digest = job.getJdDigest();
+        if (digest == null) {
+            digestInBackground(job);
+            return description;
+        }
+        return !digest.isBlank() && digest.length() < description.length() ? digest : description;
+    }
+
+    /**
+     * Computes and stores the digest off the request thread; at most one run per job is queued.
+     */
+    public void digestInBackground(Job job) {
+        if (!enabled || job.getId() == null || !pending.add(job.getId())) return;
+
+        worker.execute(() -> {
+            try {
+                String digest = digest(job);
+                jobRepository.updateDigest(job.getId(), digest, LocalDateTime.now());
+                job.setJdDigest(digest);
+                log.info("[JobDigestService] Job {} digested: {} -> {} chars",
+                        job.getId(), job.getDescription().length(), digest.length());
+            } catch (Exception e) {
+                log.warn("[JobDigestService] Digest failed for job {}: {}", job.getId(), e.toString());
+            } finally {
+                pending.remove(job.getId());
+            }
+        });
+    }
+
+    /**
+     * Builds the digest text. An empty string means nothing useful was found and the raw
+     * description should be used.
+     */
+    public static String digest(Job job) {
+        String description = job.getDescription() == null ? "" : job.getDescription();
+
+        List<String> required = new ArrayList<>();
+        List<String> preferred = new ArrayList<>();
+        List<String> responsibilities = new ArrayList<>();
+        boolean structured = false;
+
+        Part part = Part.NONE;
+        for (String rawLine : description.split("\\R")) {
+            String line = rawLine.strip();
+            if (line.isEmpty()) continue;
+
+            boolean bullet = BULLET.matcher(line).find();
+            Part heading = bullet ? null : headingPart(line);
+            if (heading != null) {
+                part = heading;
+                structured |= part != Part.NONE;
+                continue;
+            }
+            if (part == Part.IGNORED) continue;
+
+            String item = condense(BULLET.matcher(line).replaceFirst(""));
+            if (item.isEmpty()) continue;
+
+            if (PREFERRED_CUE.matcher(item).find() || part == Part.PREFERRED) {
+                preferred.add(item);
+            } else if (part == Part.REQUIRED) {
+                required.add(item);
+            } else if (part == Part.RESPONSIBILITIES && bullet) {
+                responsibilities.add(item);
+            }
+        }
+
+        // Free-prose descriptions: fall back to sentences that read like requirements
+        if (!structured || required.isEmpty()) {
+            for (String sentence : SENTENCE_END.split(description.replaceAll("\\s*\\R\\s*", " "))) {
+                String item = condense(sentence);
+                if (item.isEmpty() || PREFERRED_CUE.matcher(item).find()) continue;
+                if (REQUIRED_CUE.matcher(item).find() && !required.contains(item)) required.add(item);
+            }
+        }
+
+        List<String> keyPhrases = keyPhrases(description);
+        String seniority = seniority(job, description);
+
+        if (required.isEmpty() && preferred.isEmpty() && keyPhrases.isEmpty()) {
+            return "";
+        }
+
+        StringBuilder out = new StringBuilder();
+        out.append("ROLE: ").append(job.getTitle() == null ? "" : job.getTitle());
+        if (job.getCompany() != null && !job.getCompany().isBlank()) out.append(" at ").append(job.getCompany());
+        out.append('\n');
+        if (!seniority.isEmpty()) out.append("SENIORITY: ").append(seniority).append('\n');
+        appendList(out, "REQUIRED", required, MAX_REQUIRED);
+        appendList(out, "NICE TO HAVE", preferred, MAX_NICE_TO_HAVE);
+        appendList(out, "RESPONSIBILITIES", responsibilities, MAX_REQUIRED / 2);
+        if (!keyPhrases.isEmpty()) out.append("KEY PHRASES: ").append(String.join(", ", keyPhrases)).append('\n');
+        return out.toString().trim();
+    }
+
+    /**
+     * The part a heading line opens, {@link Part#NONE} for an unrecognised heading, or null when the
+     * line is content. Short lines only count as headings when they are marked as such (colon,
+     * markdown, capitals) or are a few words without digits, so "5 years experience" stays content.
+     */
+    private static Part headingPart(String line) {
+        if (line.length() > 60) return null;
+        boolean marked = line.endsWith(":") || line.startsWith("#")
+                || (line.equals(line.toUpperCase(Locale.ROOT)) && !line.equals(line.toLowerCase(Locale.ROOT)));
+        boolean bare = line.split("\\s+").length <= 4 && line.chars().noneMatch(Character::isDigit);
+        if (!marked && !bare) return null;
+
+        if (IGNORED_HEADING.matcher(line).matches()) return Part.IGNORED;
+        if (PREFERRED_HEADING.matcher(line).matches()) return Part.PREFERRED;
+        if (RESPONSIBILITIES_HEADING.matcher(line).matches()) return Part.RESPONSIBILITIES;
+        if (REQUIRED_HEADING.matcher(line).matches()) return Part.REQUIRED;
+        return marked ? Part.NONE : null;
+    }
+
+    private static String condense(String text) {
+        String item = text.replaceAll("[*`#]", "").replaceAll("\\s+", " ").strip();
+        if (item.endsWith(".") || item.endsWith(";")) item = item.substring(0, item.length() - 1);
+        if (item.length() <= MAX_ITEM_CHARS) return item;
+        int cut = item.lastIndexOf(' ', MAX_ITEM_CHARS);
+        return item.substring(0, cut > 0 ? cut : MAX_ITEM_CHARS);
+    }
+
+    private static String seniority(Job job, String description) {
+        String level = null;
+        Matcher title = SENIORITY.matcher(job.getTitle() == null ? "" : job.getTitle());
+        if (title.find()) {
+            level = title.group(1);
+        } else if (job.getExperienceLevel() != null && !job.getExperienceLevel().isBlank()) {
+            level = job.getExperienceLevel();
+        } else {
+            Matcher body = SENIORITY.matcher(description);
+            if (body.find()) level = body.group(1);
+        }
+
+        Matcher years = YEARS.matcher(description);
+        String yearsText = years.find() ? years.group(1) + "+ years" : null;
+
+        if (level == null) return yearsText == null ? "" : yearsText;
+        return yearsText == null ? level : level + " (" + yearsText + ")";
+    }
+
+    /**
+     * Terms and two-word phrases that recur in the description, most frequent first.
+     * Phrases absorb the counts of the words they are made of, so "machine learning" is listed once.
+     */
+    private static List<String> keyPhrases(String description) {
+        String[] words = WORD_SPLIT.split(description.toLowerCase(Locale.ROOT));
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        String previous = null;
+        for (String raw : words) {
+            String word = raw.replaceAll("^\\.+|\\.+$", "");
+            if (word.length() < 2 || STOPWORDS.contains(word) || word.chars().allMatch(Character::isDigit)) {
+                previous = null;
+                continue;
+            }
+            counts.merge(word, 1, Integer::sum);
+            if (previous != null) counts.merge(previous + " " + word, 1, Integer::sum);
+            previous = word;
+        }
+
+        List<Map.Entry<String, Integer>> ranked = new ArrayList<>();
+        for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+            boolean phrase = entry.getKey().indexOf(' ') > 0;
+            if (entry.getValue() >= 2 && (phrase || entry.getKey().length() > 2)) ranked.add(entry);
+        }
+        // stable sort: equal weights keep first-occurrence order
+        ranked.sort((a, b) -> Integer.compare(weight(b), weight(a)));
+
+        Set<String> chosen = new LinkedHashSet<>();
+        Set<String> chosenWords = new LinkedHashSet<>();
+        for (Map.Entry<String, Integer> entry : ranked) {
+            if (chosen.size() >= MAX_KEY_PHRASES) break;
+            List<String> termWords = List.of(entry.getKey().split(" "));
+            if (chosenWords.containsAll(termWords)) continue;
+            chosen.add(entry.getKey());
+            chosenWords.addAll(termWords);
+        }
+        return new ArrayList<>(chosen);
+    }
+
+    private static int weight(Map.Entry<String, Integer> entry) {
+        return entry.getKey().indexOf(' ') > 0 ? entry.getValue() * 2 : entry.getValue();
+    }
+
+    private static void appendList(StringBuilder out, String label, List<String> items, int max) {
+        if (items.isEmpty()) return;
+        out.append(label).append(":\n");
+        Set<String> seen = new LinkedHashSet<>(items);
+        int n = 0;
+        for (String item : seen) {
+            if (n++ >= max) break;
+            out.append("- ").append(item).append('\n');
+        }
+    }
+}
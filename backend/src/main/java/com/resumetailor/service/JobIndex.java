@@ -0,0 +1,234 @@
+package com.resumetailor.service;
+
+import com.resumetailor.model.Job;
+import com.resumetailor.repository.JobRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * The term index of every stored job, held in memory so one resume can be ranked against the whole
+ * catalogue without loading descriptions or calling the model. The resume is scanned once into a
+ * set of dictionary ids; each job's score is then the share of its sorted term ids found in that
+ * set, the same value {@link ATSService#calculateATSScore(String, JobTermIndex)} gives.
+ * <p>
+ * The jobs are a copy-on-write array: uploads and deletes (rare) replace it, rankings read it
+ * without locking. Large catalogues are scored in slices on the common fork-join pool, each slice
+ * keeping its own bounded top-k heap. Jobs added and removed here are counted in
+ * {@link CorpusStats}.
+ */
+@Service
+public class JobIndex {
+    private static final Logger log = LoggerFactory.getLogger(JobIndex.class);
+
+    @Value("${ats.job-index.parallel-threshold:4096}")
+    private int parallelThreshold;
+
+    @Value("${ats.job-index.slice-size:1024}")
+    private int sliceSize;
+
+    @Autowired
+    private JobRepository jobRepository;
+
+    @Autowired
+    private ATSService atsService;
+
+    @Autowired
+    private TermDictionary dictionary;
+
+    @Autowired
+    private CorpusStats corpusStats;
+
+    /** One ranked job. */
+    public record Match(long jobId, String title, String company, int score, int matchedTerms) {}
+
+    private record Entry(long jobId, String title, String company, JobTermIndex terms) {}
+
+    /** Ranking order: higher share of the job's terms matched first, then lower job id. */
+    private record Scored(Entry entry, int matches) {
+        static final Comparator<Scored> BEST_FIRST = (a, b) -> {
+            // a.matches / a.size against b.matches / b.size, without division
+            int byShare = Long.compare((long) b.matches * a.size(), (long) a.matches * b.size());
+            return byShare != 0 ? byShare : Long.compare(a.entry.jobId, b.entry.jobId);
+        };
+
+        /** A job without terms scores 0 (matches is 0 too). */
+        int size() {
+            return Math.max(1, entry.terms.size());
+        }
+    }
+
+    private volatile Entry[] entries = new Entry[0];
+    private volatile boolean ready;
+    // Guarded by this; jobs changed through the endpoints while the startup load runs
+    private final Set<Long> touched = new HashSet<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    void start() {
+        Thread loader = new Thread(this::load, "job-index");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    private void load() {
+        long started = System.currentTimeMillis();
+        try {
+            List<Entry> loaded = new ArrayList<>();
+            int backfilled = 0;
+            for (Object[] row : jobRepository.findTermIndexes()) {
+                Long id = (Long) row[0];
+                byte[] encoded = (byte[]) row[3];
+                JobTermIndex terms;
+                if (encoded != null) {
+                    terms = JobTermIndex.decode(encoded);
+                } else {
+                    Job job = jobRepository.findById(id).orElse(null);
+                    if (job == null) continue;
+                    terms = atsService.termIndexOf(job);
+                    backfilled++;
+                }
+                loaded.add(new Entry(id, (String) row[1], (String) row[2], terms));
+            }
+
+            synchronized (this) {
+                Map<Long, Entry> merged = new LinkedHashMap<>();
+                for (Entry e : loaded) {
+                    if (touched.contains(e.jobId)) continue;
+                    merged.put(e.jobId, e);
+                    corpusStats.addJob(e.terms);
+                }
+                for (Entry e : entries) {
+                    merged.put(e.jobId, e);
+                }
+                entries = merged.values().toArray(new Entry[0]);
+                touched.clear();
+                ready = true;
+            }
+            log.info("[JobIndex] Ready: {} jobs ({} indexed now) in {}ms",
+                    entries.length, backfilled, System.currentTimeMillis() - started);
+        } catch (RuntimeException e) {
+            log.error("[JobIndex] Failed to load job term indexes", e);
+        }
+    }
+
+    /** False until the startup load has finished. */
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        return entries.length;
+    }
+
+    /** Adds a newly stored job, or replaces an earlier entry for it. */
+    public synchronized void index(Job job, JobTermIndex terms) {
+        if (job.getId() == null) return;
+        if (!ready) touched.add(job.getId());
+        Entry entry = new Entry(job.getId(), job.getTitle(), job.getCompany(), terms);
+        corpusStats.addJob(terms);
+        Entry[] current = entries;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i].jobId == entry.jobId) {
+                corpusStats.removeJob(current[i].terms);
+                Entry[] next = current.clone();
+                next[i] = entry;
+                entries = next;
+                return;
+            }
+        }
+        Entry[] next = Arrays.copyOf(current, current.length + 1);
+        next[current.length] = entry;
+        entries = next;
+    }
+
+    public synchronized void remove(Long jobId) {
+        if (!ready) touched.add(jobId);
+        Entry[] current = entries;
+        for (Entry e : current) {
+            if (e.jobId == jobId) corpusStats.removeJob(e.terms);
+        }
+        entries = Arrays.stream(current).filter(e -> e.jobId != jobId).toArray(Entry[]::new);
+    }
+
+    /**
+     * The {@code k} jobs {@code resume} scores highest against, best first. Jobs whose terms it
+     * matches none of are only returned to fill up {@code k}.
+     */
+    public List<Match> topMatches(String resume, int k) {
+        Entry[] jobs = entries;
+        if (jobs.length == 0 || k <= 0) return List.of();
+
+        int maxTermId = 0;
+        for (Entry e : jobs) {
+            maxTermId = Math.max(maxTermId, e.terms.maxTermId());
+        }
+        dictionary.ensureKnown(maxTermId);
+        BitSet resumeTerms = JobTermIndex.termSet(resume, dictionary);
+
+        List<Scored> best;
+        if (jobs.length < parallelThreshold) {
+            best = topOf(jobs, 0, jobs.length, resumeTerms, k);
+        } else {
+            int slices = (jobs.length + sliceSize - 1) / sliceSize;
+            best = IntStream.range(0, slices).parallel()
+                    .mapToObj(s -> topOf(jobs, s * sliceSize, Math.min(jobs.length, (s + 1) * sliceSize), resumeTerms, k))
+                    .flatMap(List::stream)
+                    .sorted(Scored.BEST_FIRST)
+                    .limit(k)
+                    .toList();
+        }
+
+        List<Match> matches = new ArrayList<>(best.size());
+        for (Scored s : best) {
+            int size = s.entry.terms.size();
+            int score = size == 0 ? 0 : (int) Math.round((s.matches * 100.0) / size);
+            matches.add(new Match(s.entry.jobId, s.entry.title, s.entry.company, Math.max(0, Math.min(100, score)), s.matches));
+        }
+        return matches;
+    }
+
+    /** Best {@code k} of {@code jobs[from, to)}, best first. */
+    private static List<Scored> topOf(Entry[] jobs, int from, int to, BitSet resumeTerms, int k) {
+        // Worst of the best k at the head
+        PriorityQueue<Scored> heap = new PriorityQueue<>(Math.min(k, to - from) + 1, Scored.BEST_FIRST.reversed());
+        for (int i = from; i < to; i++) {
+            Scored scored = new Scored(jobs[i], jobs[i].terms.countMatches(resumeTerms));
+            if (heap.size() < k) {
+                heap.add(scored);
+            } else if (Scored.BEST_FIRST.compare(scored, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(scored);
+            }
+        }
+        Scored[] sorted = heap.toArray(new Scored[0]);
+        Arrays.sort(sorted, Scored.BEST_FIRST);
+        return Arrays.asList(sorted);
+    }
+
+    public Map<String, Object> stats() {
+        Entry[] jobs = entries;
+        long terms = 0;
+        for (Entry e : jobs) terms += e.terms.size();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("ready", ready);
+        stats.put("jobs", jobs.length);
+        stats.put("termEntries", terms);
+        return stats;
+    }
+}
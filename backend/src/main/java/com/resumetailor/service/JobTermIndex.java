@@ -0,0 +1,136 @@
+package com.resumetailor.service;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * The distinct non-stopword terms of a job description as sorted {@link TermDictionary} ids.
+ * Stored with the job as gap-encoded varints (ids are ascending, so each gap usually fits in one
+ * or two bytes), which keeps a typical description's index to a few hundred bytes.
+ */
+public final class JobTermIndex {
+
+    private final int[] termIds;
+
+    JobTermIndex(int[] termIds) {
+        this.termIds = termIds;
+    }
+
+    /** Indexes a job description, interning its distinct non-stopword terms. */
+    public static JobTermIndex build(String jd, TermDictionary dictionary) {
+        List<String> terms = new ArrayList<>();
+        TermScanner scanner = new TermScanner(jd);
+        while (scanner.next()) {
+            if (ATSService.isStopword(scanner)) continue;
+            terms.add(scanner.term());
+        }
+        return of(dictionary.internAll(terms));
+    }
+
+    /**
+     * How many of this index's terms occur in {@code text}. Each token is looked up in place and
+     * binary-searched here, and hits are marked per index position, so the only allocation is one
+     * flag per indexed term.
+     */
+    public int countMatches(String text, TermDictionary dictionary) {
+        boolean[] seen = new boolean[termIds.length];
+        int matches = 0;
+        TermScanner scanner = new TermScanner(text);
+        while (scanner.next()) {
+            int id = dictionary.idOf(scanner);
+            if (id < 0) continue;
+            int at = Arrays.binarySearch(termIds, id);
+            if (at >= 0 && !seen[at]) {
+                seen[at] = true;
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    /** How many of this index's terms are in {@code termIds}, a text's term ids already collected. */
+    public int countMatches(BitSet termIds) {
+        int matches = 0;
+        for (int id : this.termIds) {
+            if (termIds.get(id)) matches++;
+        }
+        return matches;
+    }
+
+    /** Ids of the dictionary terms occurring in {@code text}; tokens no job uses are left out. */
+    public static BitSet termSet(String text, TermDictionary dictionary) {
+        BitSet ids = new BitSet();
+        TermScanner scanner = new TermScanner(text);
+        while (scanner.next()) {
+            int id = dictionary.idOf(scanner);
+            if (id >= 0) ids.set(id);
+        }
+        return ids;
+    }
+
+    /** Builds an index from ids in any order, dropping duplicates. */
+    static JobTermIndex of(int[] ids) {
+        int[] sorted = ids.clone();
+        Arrays.sort(sorted);
+        int n = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) sorted[n++] = sorted[i];
+        }
+        return new JobTermIndex(Arrays.copyOf(sorted, n));
+    }
+
+    public int size() {
+        return termIds.length;
+    }
+
+    /** Largest id in the index, or 0 when empty. */
+    public int maxTermId() {
+        return termIds.length == 0 ? 0 : termIds[termIds.length - 1];
+    }
+
+    public boolean contains(int termId) {
+        return Arrays.binarySearch(termIds, termId) >= 0;
+    }
+
+    int[] termIds() {
+        return termIds;
+    }
+
+    public byte[] encode() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(termIds.length * 2 + 1);
+        int previous = 0;
+        for (int id : termIds) {
+            int gap = id - previous;
+            while ((gap & ~0x7F) != 0) {
+                out.write((gap & 0x7F) | 0x80);
+                gap >>>= 7;
+            }
+            out.write(gap);
+            previous = id;
+        }
+        return out.toByteArray();
+    }
+
+    public static JobTermIndex decode(byte[] encoded) {
+        int[] ids = new int[encoded.length];
+        int n = 0;
+        int previous = 0;
+        int gap = 0;
+        int shift = 0;
+        for (byte b : encoded) {
+            gap |= (b & 0x7F) << shift;
+            if ((b & 0x80) != 0) {
+                shift += 7;
+                continue;
+            }
+            previous += gap;
+            ids[n++] = previous;
+            gap = 0;
+            shift = 0;
+        }
+        return new JobTermIndex(Arrays.copyOf(ids, n));
+    }
+}
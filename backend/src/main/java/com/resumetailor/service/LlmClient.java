@@ -0,0 +1,365 @@
+package com.resumetailor.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Shared non-blocking HTTP client for the upstream inference endpoints.
+ * One pooled HTTP/2 connection set is reused by every caller; responses are
+ * delivered as {@link CompletableFuture}s so no request thread waits on a generation.
+ * Every request passes the {@link UpstreamCircuitBreaker} and is then admitted through the
+ * {@link UpstreamBulkhead}. Chat completions go to the backend the {@link ModelRouter} picks for the
+ * prompt, and report their timing back to it; the {@link UpstreamHedger} may race a second attempt
+ * against one that is slow to answer.
+ */
+@Service
+public class LlmClient {
+    private static final Logger log = LoggerFactory.getLogger(LlmClient.class);
+
+    @Value("${hf.api.token:}")
+    private String hfToken;
+
+    @Value("${llm.http.connect-timeout-ms:5000}")
+    private long connectTimeoutMs;
+
+    @Value("${llm.http.read-timeout-ms:120000}")
+    private long readTimeoutMs;
+
+    @Value("${llm.http.io-threads:4}")
+    private int ioThreads;
+
+    @Autowired
+    private UpstreamBulkhead bulkhead;
+
+    @Autowired
+    private UpstreamCircuitBreaker breaker;
+
+    @Autowired
+    private ModelRouter router;
+
+    @Autowired
+    private UpstreamHedger hedger;
+
+    private ExecutorService ioExecutor;
+    private HttpClient http;
+
+    @PostConstruct
+    void init() {
+        AtomicInteger seq = new AtomicInteger();
+        ioExecutor = Executors.newFixedThreadPool(Math.max(1, ioThreads), r -> {
+            Thread t = new Thread(r, "llm-io-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .executor(ioExecutor)
+                .build();
+        log.info("[LlmClient] connectTimeout={}ms, readTimeout={}ms, ioThreads={}",
+                connectTimeoutMs, readTimeoutMs, ioThreads);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        ioExecutor.shutdownNow();
+    }
+
+    public boolean isChatConfigured() {
+        return router.isConfigured() && hfToken != null && !hfToken.isBlank();
+    }
+
+    public Map<String, Object> bulkheadStats() {
+        return bulkhead.stats();
+    }
+
+    public Map<String, Object> breakerStats() {
+        return breaker.stats();
+    }
+
+    public Map<String, Object> routerStats() {
+        return router.stats();
+    }
+
+    public Map<String, Object> hedgeStats() {
+        return hedger.stats();
+    }
+
+    /** True while the circuit breaker is failing calls fast. */
+    public boolean isCircuitOpen() {
+        return breaker.isOpen();
+    }
+
+    /** Identifies the models chat output can come from, for cache keys. */
+    public String getModelsKey() {
+        return router.modelsKey();
+    }
+
+    /**
+     * Sends a single-message chat completion and resolves to {@code choices[0].message.content}.
+     * If the body has no such field the raw body is returned, matching the old RestTemplate paths.
+     */
+    public CompletableFuture<String> chat(String prompt, int maxTokens, double temperature, Deadline deadline) {
+        int promptTokens = TokenEstimator.estimate(prompt);
+        ModelRouter.Backend primary = router.route(promptTokens, maxTokens);
+        // Response time grows with max_tokens, so hedge delays are learned per power-of-two bucket
+        return hedger.call("chat/" + Integer.highestOneBit(Math.max(1, maxTokens)), deadline, attempt -> chat(
+                attempt.isHedge() ? router.route(promptTokens, maxTokens, primary) : primary,
+                prompt, maxTokens, temperature, attempt));
+    }
+
+    private CompletableFuture<String> chat(ModelRouter.Backend backend, String prompt, int maxTokens,
+                                           double temperature, UpstreamHedger.Attempt attempt) {
+        HttpRequest.BodyPublisher body;
+        try {
+            body = ChatCompletions.write(
+                    ChatCompletions.Request.user(backend.getModel(), prompt, maxTokens, temperature, false));
+        } catch (Exception ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+
+        log.info("[LlmClient] POST to HF Chat {} via {} (max_tokens={}{})", backend.getUrl(), backend.getName(),
+                maxTokens, attempt.isHedge() ? ", hedge" : "");
+        ModelRouter.Call call = router.start(backend, attempt::sent);
+        return post(backend.getUrl(), body, attempt.deadline(), call, raw -> {
+            if (raw.length == 0) {
+                call.succeeded(0);
+                return "";
+            }
+            try {
+                ChatCompletions.Response response = ChatCompletions.read(raw);
+                if (response.content() != null) {
+                    call.succeeded(response.completionTokens() >= 0
+                            ? response.completionTokens() : TokenEstimator.estimate(response.content()));
+                    return response.content();
+                }
+            } catch (IOException ex) {
+                log.warn("[LlmClient] Could not parse HF Chat response: {}", ex.toString());
+            }
+            log.warn("[LlmClient] Unexpected HF Chat response format");
+            String text = new String(raw, StandardCharsets.UTF_8);
+            call.succeeded(TokenEstimator.estimate(text));
+            return text;
+        });
+    }
+
+    /**
+     * Calls a text-generation inference endpoint with {@code {"inputs": prompt}} and resolves to
+     * {@code [0].generated_text} (or {@code summary_text}); other bodies are returned raw.
+     */
+    public CompletableFuture<String> generate(String url, String prompt, Deadline deadline) {
+        HttpRequest.BodyPublisher body;
+        try {
+            body = ChatCompletions.writeInputs(prompt);
+        } catch (Exception ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+
+        log.info("[LlmClient] POST to HF {}", url);
+        return post(url, body, deadline, null, raw -> {
+            if (raw.length == 0) return "";
+            try {
+                String text = ChatCompletions.readGeneratedText(raw);
+                if (text != null) {
+                    return text;
+                }
+            } catch (IOException ex) {
+                log.warn("[LlmClient] Could not parse HF response: {}", ex.toString());
+            }
+            return new String(raw, StandardCharsets.UTF_8);
+        });
+    }
+
+    /**
+     * Streaming variant of {@link #chat}: requests {@code stream: true} and hands every
+     * {@code choices[0].delta.content} fragment to {@code onToken} as it arrives.
+     * Resolves to the concatenated content once the upstream sends {@code [DONE]} or closes.
+     * Streamed calls are the ones that tell the router a backend's time to first token.
+     */
+    public CompletableFuture<String> chatStream(String prompt, int maxTokens, double temperature,
+                                                Deadline deadline, Consumer<String> onToken) {
+        int promptTokens = TokenEstimator.estimate(prompt);
+        ModelRouter.Backend primary = router.route(promptTokens, maxTokens);
+        // Hedged on time to first token; whichever attempt streams first is the one forwarded
+        return hedger.call("stream", deadline, attempt -> chatStream(
+                attempt.isHedge() ? router.route(promptTokens, maxTokens, primary) : primary,
+                prompt, maxTokens, temperature, attempt, delta -> {
+                    if (attempt.claim()) onToken.accept(delta);
+                }));
+    }
+
+    private CompletableFuture<String> chatStream(ModelRouter.Backend backend, String prompt, int maxTokens,
+                                                 double temperature, UpstreamHedger.Attempt attempt,
+                                                 Consumer<String> onToken) {
+        HttpRequest.BodyPublisher body;
+        try {
+            body = ChatCompletions.write(
+                    ChatCompletions.Request.user(backend.getModel(), prompt, maxTokens, temperature, true));
+        } catch (Exception ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+
+        log.info("[LlmClient] Streaming POST to HF Chat {} via {} (max_tokens={}{})",
+                backend.getUrl(), backend.getName(), maxTokens, attempt.isHedge() ? ", hedge" : "");
+        ModelRouter.Call call = router.start(backend, attempt::sent);
+        long started = System.nanoTime();
+        HttpResponse.BodyHandler<String> handler = info -> {
+            if (info.statusCode() / 100 != 2) {
+                return HttpResponse.BodySubscribers.mapping(
+                        HttpResponse.BodySubscribers.ofString(StandardCharsets.UTF_8),
+                        raw -> { throw new LlmException(info.statusCode(), raw, retryAfterMs(info.headers())); });
+            }
+            return HttpResponse.BodySubscribers.fromLineSubscriber(
+                    new SseDeltaSubscriber(call, onToken), SseDeltaSubscriber::content, StandardCharsets.UTF_8, null);
+        };
+        return breaker.call(() -> bulkhead.submit(
+                        () -> send(backend.getUrl(), body, attempt.deadline(), call, "text/event-stream", handler)))
+                .thenApply(resp -> {
+                    log.info("[LlmClient] stream status={} len={} in {}ms", resp.statusCode(),
+                            resp.body().length(), (System.nanoTime() - started) / 1_000_000);
+                    call.succeeded(TokenEstimator.estimate(resp.body()));
+                    return resp.body();
+                });
+    }
+
+    /**
+     * POSTs a JSON body with the configured bearer token and hands the raw 2xx body bytes to
+     * {@code decoder}. Non-2xx responses complete the future exceptionally with {@link LlmException}.
+     * {@code call}, when routed, is reported the failure; the decoder reports success.
+     */
+    private <T> CompletableFuture<T> post(String url, HttpRequest.BodyPublisher body, Deadline deadline,
+                                          ModelRouter.Call call, Function<byte[], T> decoder) {
+        long started = System.nanoTime();
+        HttpResponse.BodyHandler<byte[]> handler = info -> info.statusCode() / 100 != 2
+                ? HttpResponse.BodySubscribers.mapping(
+                        HttpResponse.BodySubscribers.ofString(StandardCharsets.UTF_8),
+                        raw -> { throw new LlmException(info.statusCode(), raw, retryAfterMs(info.headers())); })
+                : HttpResponse.BodySubscribers.ofByteArray();
+        return breaker.call(() -> bulkhead.submit(() -> send(url, body, deadline, call, "application/json", handler)
+                .thenApply(resp -> {
+                    log.info("[LlmClient] status={} len={} in {}ms", resp.statusCode(),
+                            resp.body().length, (System.nanoTime() - started) / 1_000_000);
+                    return decoder.apply(resp.body());
+                })));
+    }
+
+    /** Reads a delta-seconds {@code Retry-After} header; HTTP-date values fall back to the bulkhead default. */
+    private static long retryAfterMs(HttpHeaders headers) {
+        return headers.firstValue("Retry-After").map(value -> {
+            try {
+                return Long.parseLong(value.trim()) * 1000;
+            } catch (NumberFormatException e) {
+                return -1L;
+            }
+        }).orElse(-1L);
+    }
+
+    /**
+     * Sends once a bulkhead slot is granted. A request whose deadline is already over is not sent;
+     * otherwise the read timeout is capped to the time left and the exchange is aborted as soon as
+     * the deadline ends. Both surface as {@link DeadlineExceededException}, which the breaker and
+     * the bulkhead do not count against the upstream. A routed {@code call} is timed from here, so
+     * time queued in the bulkhead is not charged to the backend, and is told of any failure.
+     */
+    private <T> CompletableFuture<HttpResponse<T>> send(String url, HttpRequest.BodyPublisher body, Deadline deadline,
+                                                       ModelRouter.Call call, String accept,
+                                                       HttpResponse.BodyHandler<T> handler) {
+        deadline.check("upstream call");
+        long timeoutMs = deadline.cap(readTimeoutMs);
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(Duration.ofMillis(Math.max(1, timeoutMs)))
+                .header("Authorization", "Bearer " + hfToken)
+                .header("Content-Type", "application/json")
+                .header("Accept", accept)
+                .POST(body)
+                .build();
+
+        if (call != null) call.sent();
+        CompletableFuture<HttpResponse<T>> exchange = http.sendAsync(request, handler);
+        deadline.onEnd(() -> exchange.cancel(true));
+        return exchange.exceptionally(ex -> {
+            Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+            if (call != null) call.failed(cause);
+            if (cause instanceof CancellationException
+                    || (cause instanceof HttpTimeoutException && timeoutMs < readTimeoutMs)) {
+                log.info("[LlmClient] Abandoned upstream call to {}: request deadline ended", url);
+                throw new DeadlineExceededException("Upstream call abandoned: request deadline ended");
+            }
+            throw ex instanceof CompletionException ce ? ce : new CompletionException(cause);
+        });
+    }
+
+    /**
+     * Parses {@code data:} lines of an OpenAI-style event stream and forwards each content delta.
+     */
+    private final class SseDeltaSubscriber implements Flow.Subscriber<String> {
+        private final ModelRouter.Call call;
+        private final Consumer<String> onToken;
+        private final StringBuilder content = new StringBuilder();
+
+        SseDeltaSubscriber(ModelRouter.Call call, Consumer<String> onToken) {
+            this.call = call;
+            this.onToken = onToken;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(String line) {
+            if (!line.startsWith("data:")) return;
+            String data = line.substring(5).trim();
+            if (data.isEmpty() || "[DONE]".equals(data)) return;
+            try {
+                String delta = ChatCompletions.readDelta(data);
+                if (delta != null && !delta.isEmpty()) {
+                    call.firstToken();
+                    content.append(delta);
+                    onToken.accept(delta);
+                }
+            } catch (Exception ex) {
+                log.warn("[LlmClient] Skipping malformed stream chunk: {}", ex.toString());
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            log.error("[LlmClient] Stream failed: {}", throwable.toString());
+        }
+
+        @Override
+        public void onComplete() {
+        }
+
+        String content() {
+            return content.toString();
+        }
+    }
+}
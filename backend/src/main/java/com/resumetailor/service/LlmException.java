@@ -0,0 +1,34 @@
+package com.resumetailor.service;
+
+/**
+ * Raised when the inference endpoint answers with a non-2xx status.
+ */
+public class LlmException extends RuntimeException {
+
+    private final int statusCode;
+    private final long retryAfterMs;
+
+    public LlmException(int statusCode, String body) {
+        this(statusCode, body, -1);
+    }
+
+    public LlmException(int statusCode, String body, long retryAfterMs) {
+        super(statusCode + " " + (body == null ? "" : body));
+        this.statusCode = statusCode;
+        this.retryAfterMs = retryAfterMs;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /** Delay requested by the upstream {@code Retry-After} header, or -1 when absent. */
+    public long getRetryAfterMs() {
+        return retryAfterMs;
+    }
+
+    /** 429 and 503 mean "slow down" rather than "this request is broken". */
+    public boolean isOverload() {
+        return statusCode == 429 || statusCode == 503;
+    }
+}
@@ -0,0 +1,221 @@
+package com.resumetailor.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Deterministic, model-free tailoring and ATS analysis, used while the inference endpoint is
+ * unavailable. Tailoring never invents content: it reorders what the resume already says so the
+ * lines that share the most job-description keywords come first (bullets within each run, items
+ * within skill lists, and the SKILLS section right after the summary). ATS analysis is a real
+ * keyword comparison instead of the fixed mock numbers.
+ */
+@Component
+public class LocalResumeEngine {
+
+    private static final Pattern YEARS = Pattern.compile("(?i)\\b(\\d{1,2})\\s*\\+?\\s*(?:years?|yrs?)\\b");
+    private static final Pattern LIST_SEPARATOR = Pattern.compile("\\s*[,|;]\\s*");
+    private static final int CORE_TERMS = 20;
+    private static final int KEYWORDS_SHOWN = 10;
+
+    public String tailor(String resume, String jd) {
+        Map<String, Integer> jdTerms = termCounts(jd);
+        List<ResumeSectionSplitter.Section> sections = ResumeSectionSplitter.split(resume, 0);
+
+        List<String> rendered = new ArrayList<>();
+        List<String> skills = new ArrayList<>();
+        int skillsAt = -1;
+        for (ResumeSectionSplitter.Section section : sections) {
+            String body = switch (section.kind()) {
+                case PREAMBLE, EDUCATION -> section.body();
+                case SKILLS -> prioritiseSkills(section.body(), jdTerms);
+                default -> prioritiseBullets(section.body(), jdTerms);
+            };
+            String text = new ResumeSectionSplitter.Section(section.kind(), section.heading(), body).render();
+
+            if (section.kind() == ResumeSectionSplitter.Kind.SKILLS) {
+                skills.add(text);
+            } else {
+                rendered.add(text);
+                if (section.kind() == ResumeSectionSplitter.Kind.PREAMBLE
+                        || section.kind() == ResumeSectionSplitter.Kind.SUMMARY) {
+                    skillsAt = rendered.size();
+                }
+            }
+        }
+        rendered.addAll(Math.max(0, skillsAt), skills);
+        return ResumeSectionSplitter.join(rendered);
+    }
+
+    /**
+     * Same shape as the model-backed analysis: score, breakdown, matching/missing keywords and
+     * suggestions, plus {@code degraded=true}.
+     */
+    public Map<String, Object> analyze(String resume, String jd) {
+        Map<String, Integer> jdTerms = termCounts(jd);
+        Set<String> resumeTerms = new HashSet<>(ATSService.tokenize(resume));
+
+        List<String> ranked = new ArrayList<>(jdTerms.keySet());
+        ranked.sort(Comparator.comparing((String t) -> jdTerms.get(t)).reversed());
+
+        int totalWeight = 0;
+        int matchedWeight = 0;
+        List<String> matching = new ArrayList<>();
+        List<String> missing = new ArrayList<>();
+        for (String term : ranked) {
+            int weight = jdTerms.get(term);
+            totalWeight += weight;
+            if (resumeTerms.contains(term)) {
+                matchedWeight += weight;
+                matching.add(term);
+            } else {
+                missing.add(term);
+            }
+        }
+
+        int keywordMatch = totalWeight == 0 ? 0 : Math.round(100f * matchedWeight / totalWeight);
+        List<String> core = ranked.subList(0, Math.min(CORE_TERMS, ranked.size()));
+        int skillsMatch = core.isEmpty() ? 0
+                : Math.round(100f * core.stream().filter(resumeTerms::contains).count() / core.size());
+        int experienceMatch = experienceMatch(resume, jd, keywordMatch);
+        int formatMatch = formatMatch(resume);
+        int score = Math.round(0.5f * keywordMatch + 0.2f * skillsMatch + 0.15f * experienceMatch + 0.15f * formatMatch);
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("score", Math.max(0, Math.min(100, score)));
+        result.put("breakdown", Map.of(
+                "keywordMatch", keywordMatch,
+                "skillsMatch", skillsMatch,
+                "experienceMatch", experienceMatch,
+                "formatMatch", formatMatch
+        ));
+        result.put("matchingKeywords", matching.subList(0, Math.min(KEYWORDS_SHOWN, matching.size())));
+        result.put("missingKeywords", missing.subList(0, Math.min(KEYWORDS_SHOWN, missing.size())));
+        result.put("suggestions", suggestions(missing, experienceMatch, formatMatch));
+        result.put("degraded", true);
+        return result;
+    }
+
+    private static Map<String, Integer> termCounts(String text) {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        for (String token : ATSService.tokenize(text)) {
+            if (!ATSService.STOPWORDS.contains(token)) counts.merge(token, 1, Integer::sum);
+        }
+        return counts;
+    }
+
+    private static int relevance(String line, Map<String, Integer> jdTerms) {
+        int score = 0;
+        for (String token : new HashSet<>(ATSService.tokenize(line))) {
+            Integer count = jdTerms.get(token);
+            if (count != null) score += 1 + count;
+        }
+        return score;
+    }
+
+    /** Sorts each run of consecutive bullet lines by relevance; other lines keep their place. */
+    private static String prioritiseBullets(String body, Map<String, Integer> jdTerms) {
+        List<String> out = new ArrayList<>();
+        List<String> run = new ArrayList<>();
+        for (String line : body.split("\n", -1)) {
+            if (ResumeSectionSplitter.isBullet(line.trim())) {
+                run.add(line);
+            } else {
+                flushRun(run, out, jdTerms);
+                out.add(line);
+            }
+        }
+        flushRun(run, out, jdTerms);
+        return String.join("\n", out);
+    }
+
+    private static void flushRun(List<String> run, List<String> out, Map<String, Integer> jdTerms) {
+        run.sort(Comparator.comparingInt((String line) -> relevance(line, jdTerms)).reversed());
+        out.addAll(run);
+        run.clear();
+    }
+
+    /** Orders list items inside each skills line, and the lines themselves, by relevance. */
+    private static String prioritiseSkills(String body, Map<String, Integer> jdTerms) {
+        List<String> lines = new ArrayList<>();
+        for (String line : body.split("\n", -1)) {
+            String trimmed = line.trim();
+            String prefix = line.substring(0, line.length() - line.stripLeading().length());
+            int colon = trimmed.indexOf(':');
+            String label = colon > 0 && colon < 30 ? trimmed.substring(0, colon + 1) + " " : "";
+            String list = label.isEmpty() ? trimmed : trimmed.substring(colon + 1).trim();
+
+            Matcher separator = LIST_SEPARATOR.matcher(list);
+            if (!separator.find()) {
+                lines.add(line);
+                continue;
+            }
+            String joiner = separator.group().trim().equals(",") ? ", " : " " + separator.group().trim() + " ";
+            List<String> items = new ArrayList<>(List.of(LIST_SEPARATOR.split(list)));
+            items.sort(Comparator.comparingInt((String item) -> relevance(item, jdTerms)).reversed());
+            lines.add(prefix + label + String.join(joiner, items));
+        }
+
+        List<String> blocks = new ArrayList<>(lines);
+        if (blocks.stream().noneMatch(String::isBlank)) {
+            blocks.sort(Comparator.comparingInt((String line) -> relevance(line, jdTerms)).reversed());
+        }
+        return String.join("\n", blocks);
+    }
+
+    /** Years asked for in the JD against the most the resume mentions; keyword match when the JD names none. */
+    private static int experienceMatch(String resume, String jd, int fallback) {
+        int required = maxYears(jd);
+        if (required <= 0) return fallback;
+        int stated = maxYears(resume);
+        return Math.min(100, Math.round(100f * stated / required));
+    }
+
+    private static int maxYears(String text) {
+        int max = 0;
+        Matcher m = YEARS.matcher(text);
+        while (m.find()) max = Math.max(max, Integer.parseInt(m.group(1)));
+        return max;
+    }
+
+    private static int formatMatch(String resume) {
+        Set<ResumeSectionSplitter.Kind> present = new HashSet<>();
+        for (ResumeSectionSplitter.Section section : ResumeSectionSplitter.split(resume, 0)) {
+            present.add(section.kind());
+        }
+        int found = 0;
+        for (ResumeSectionSplitter.Kind kind : List.of(ResumeSectionSplitter.Kind.SUMMARY,
+                ResumeSectionSplitter.Kind.EXPERIENCE, ResumeSectionSplitter.Kind.SKILLS,
+                ResumeSectionSplitter.Kind.EDUCATION)) {
+            if (present.contains(kind)) found++;
+        }
+        return found * 25;
+    }
+
+    private static List<String> suggestions(List<String> missing, int experienceMatch, int formatMatch) {
+        List<String> suggestions = new ArrayList<>();
+        if (!missing.isEmpty()) {
+            suggestions.add("Add evidence of " + String.join(", ", missing.subList(0, Math.min(3, missing.size()))));
+        }
+        if (experienceMatch < 100) {
+            suggestions.add("State your years of relevant experience explicitly");
+        }
+        if (formatMatch < 100) {
+            suggestions.add("Use standard SUMMARY, EXPERIENCE, SKILLS and EDUCATION headings");
+        }
+        if (suggestions.isEmpty()) {
+            suggestions.add("Quantify achievements with concrete numbers");
+        }
+        return suggestions;
+    }
+}
@@ -0,0 +1,291 @@
+package com.resumetailor.service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+/**
+ * Picks the chat backend (model + endpoint) for each request.
+ * <p>
+ * Backends come from {@code llm.backends}, a comma-separated list of {@code name|model|url|contextTokens}
+ * entries, listed from the smallest/fastest to the largest model; a blank url or context falls back
+ * to {@code hf.chat.url} / {@code ai.model.context-tokens}. Without the property the single
+ * {@code hf.chat.model} backend is used, as before.
+ * <p>
+ * A request can only go to a backend whose context holds its prompt plus {@code max_tokens}, so long
+ * resumes skip small models by construction. Among those the router takes the lowest predicted
+ * latency, {@code ttft + max_tokens / tokensPerSecond} from per-backend EWMAs, inflated by the
+ * backend's recent error rate; backends without samples predict zero, so each is tried early and
+ * ties go to the earlier (smaller) entry. A failed call charges its elapsed time to the TTFT average
+ * (never lowering it), and a backend that has failed every call so far predicts the worst case, so
+ * an endpoint refusing connections does not look instant. A small share of requests
+ * ({@code llm.router.explore-rate}) goes to a random eligible backend so a degraded one that
+ * recovered is noticed again.
+ */
+@Service
+public class ModelRouter {
+    private static final Logger log = LoggerFactory.getLogger(ModelRouter.class);
+
+    @Value("${llm.backends:}")
+    private String backendsSpec;
+
+    @Value("${hf.chat.url:}")
+    private String defaultUrl;
+
+    @Value("${hf.chat.model:meta-llama/Llama-3.1-8B-Instruct}")
+    private String defaultModel;
+
+    @Value("${ai.model.context-tokens:8192}")
+    private int defaultContextTokens;
+
+    @Value("${llm.router.ewma-alpha:0.2}")
+    private double alpha;
+
+    @Value("${llm.router.explore-rate:0.05}")
+    private double exploreRate;
+
+    private List<Backend> backends;
+
+    @PostConstruct
+    void init() {
+        List<Backend> parsed = new ArrayList<>();
+        if (backendsSpec != null && !backendsSpec.isBlank()) {
+            for (String entry : backendsSpec.split(",")) {
+                if (entry.isBlank()) continue;
+                String[] parts = entry.trim().split("\\|", -1);
+                if (parts.length < 2 || parts[0].isBlank() || parts[1].isBlank()) {
+                    throw new IllegalStateException("Invalid llm.backends entry '" + entry.trim()
+                            + "', expected name|model|url|contextTokens");
+                }
+                String url = parts.length > 2 && !parts[2].isBlank() ? parts[2].trim() : defaultUrl;
+                int context = parts.length > 3 && !parts[3].isBlank()
+                        ? Integer.parseInt(parts[3].trim()) : defaultContextTokens;
+                parsed.add(new Backend(parts[0].trim(), parts[1].trim(), url, context));
+            }
+        }
+        if (parsed.isEmpty()) {
+            parsed.add(new Backend("default", defaultModel, defaultUrl, defaultContextTokens));
+        }
+        backends = List.copyOf(parsed);
+        log.info("[ModelRouter] Backends: {}", backends.stream()
+                .map(b -> b.name + "=" + b.model + " (" + b.contextTokens + " tokens)")
+                .collect(Collectors.joining(", ")));
+    }
+
+    public boolean isConfigured() {
+        return backends.stream().allMatch(b -> b.url != null && !b.url.isBlank());
+    }
+
+    /**
+     * Identifies the configured backend set, for cache keys: output may come from any of them,
+     * and changing the set should not serve generations from models no longer in use.
+     */
+    public String modelsKey() {
+        return backends.stream().map(b -> b.model).collect(Collectors.joining("+"));
+    }
+
+    public Backend route(int promptTokens, int maxTokens) {
+        return route(promptTokens, maxTokens, null);
+    }
+
+    /** Like {@link #route(int, int)} but away from {@code avoid} when another backend fits; for hedges. */
+    public Backend route(int promptTokens, int maxTokens, Backend avoid) {
+        int needed = promptTokens + maxTokens;
+        List<Backend> eligible = backends.stream().filter(b -> b.contextTokens >= needed).toList();
+        if (avoid != null && eligible.size() > 1) {
+            eligible = eligible.stream().filter(b -> b != avoid).toList();
+        } else if (avoid != null && eligible.contains(avoid)) {
+            return avoid;
+        }
+        if (eligible.isEmpty()) {
+            // Nothing fits; the largest window truncates least
+            Backend largest = backends.get(0);
+            for (Backend b : backends) {
+                if (b.contextTokens > largest.contextTokens) largest = b;
+            }
+            return largest;
+        }
+        if (eligible.size() > 1 && ThreadLocalRandom.current().nextDouble() < exploreRate) {
+            return eligible.get(ThreadLocalRandom.current().nextInt(eligible.size()));
+        }
+
+        Backend best = null;
+        double bestMs = Double.POSITIVE_INFINITY;
+        for (Backend b : eligible) {
+            double predicted = b.predictMs(maxTokens);
+            if (best == null || predicted < bestMs) {
+                best = b;
+                bestMs = predicted;
+            }
+        }
+        return best;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        for (Backend b : backends) {
+            stats.put(b.name, b.stats());
+        }
+        return stats;
+    }
+
+    /** Starts timing one upstream exchange on {@code backend}; {@code onSent} runs whenever it is sent. */
+    Call start(Backend backend, Runnable onSent) {
+        return new Call(backend, onSent);
+    }
+
+    /**
+     * One model endpoint and its live statistics.
+     */
+    public final class Backend {
+        private final String name;
+        private final String model;
+        private final String url;
+        private final int contextTokens;
+
+        private long samples;
+        private long successes;
+        private double ttftMs;
+        private double tokensPerSecond;
+        private double errorRate;
+        private int inFlight;
+
+        private Backend(String name, String model, String url, int contextTokens) {
+            this.name = name;
+            this.model = model;
+            this.url = url;
+            this.contextTokens = contextTokens;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getModel() {
+            return model;
+        }
+
+        public String getUrl() {
+            return url;
+        }
+
+        private synchronized double predictMs(int maxTokens) {
+            if (samples == 0) return 0;
+            if (successes == 0) return Double.POSITIVE_INFINITY;
+            double generationMs = tokensPerSecond > 0 ? maxTokens * 1000.0 / tokensPerSecond : 0;
+            return (ttftMs + generationMs) / (1 - Math.min(errorRate, 0.9));
+        }
+
+        private synchronized void recordSuccess(double firstTokenMs, double totalMs, int tokens) {
+            inFlight--;
+            // Without a stream the first token is not observable; keep the TTFT seen on streamed calls
+            double ttft = firstTokenMs >= 0 ? firstTokenMs : Math.min(ttftMs, totalMs);
+            double generationMs = totalMs - ttft;
+            double tps = generationMs > 0 && tokens > 0 ? tokens * 1000.0 / generationMs : tokensPerSecond;
+            if (successes == 0) {
+                ttftMs = ttft;
+                tokensPerSecond = tps;
+            } else {
+                ttftMs = ewma(ttftMs, ttft);
+                tokensPerSecond = ewma(tokensPerSecond, tps);
+            }
+            errorRate = ewma(errorRate, 0);
+            samples++;
+            successes++;
+        }
+
+        private synchronized void recordFailure(double elapsedMs) {
+            inFlight--;
+            // A failure is at least as slow as the calls that worked
+            if (successes > 0) ttftMs = ewma(ttftMs, Math.max(ttftMs, elapsedMs));
+            errorRate = ewma(errorRate, 1);
+            samples++;
+        }
+
+        private synchronized void recordAbandoned() {
+            inFlight--;
+        }
+
+        private synchronized void recordStart() {
+            inFlight++;
+        }
+
+        private double ewma(double current, double sample) {
+            return current + alpha * (sample - current);
+        }
+
+        private synchronized Map<String, Object> stats() {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("model", model);
+            stats.put("contextTokens", contextTokens);
+            stats.put("samples", samples);
+            stats.put("successes", successes);
+            stats.put("ttftMs", Math.round(ttftMs));
+            stats.put("tokensPerSecond", Math.round(tokensPerSecond * 10) / 10.0);
+            stats.put("errorRate", Math.round(errorRate * 1000) / 1000.0);
+            stats.put("inFlight", inFlight);
+            return stats;
+        }
+    }
+
+    /**
+     * Timing of one exchange; {@link #sent} restarts the clock so bulkhead queueing and retries
+     * are not charged to the backend.
+     */
+    final class Call {
+        private final Backend backend;
+        private final Runnable onSent;
+        private long sentAt;
+        private long firstTokenAt;
+        private boolean started;
+
+        private Call(Backend backend, Runnable onSent) {
+            this.backend = backend;
+            this.onSent = onSent;
+        }
+
+        void sent() {
+            synchronized (this) {
+                if (!started) {
+                    backend.recordStart();
+                    started = true;
+                }
+                sentAt = System.nanoTime();
+                firstTokenAt = 0;
+            }
+            onSent.run();
+        }
+
+        synchronized void firstToken() {
+            if (firstTokenAt == 0) firstTokenAt = System.nanoTime();
+        }
+
+        synchronized void succeeded(int tokens) {
+            if (!started) return;
+            started = false;
+            long now = System.nanoTime();
+            backend.recordSuccess(firstTokenAt == 0 ? -1 : (firstTokenAt - sentAt) / 1e6, (now - sentAt) / 1e6, tokens);
+        }
+
+        /** Upstream errors and timeouts count against the backend; local rejections and abandoned calls do not. */
+        synchronized void failed(Throwable cause) {
+            if (!started) return;
+            started = false;
+            boolean upstreamFault = cause instanceof LlmException upstream
+                    ? upstream.isOverload() || upstream.getStatusCode() >= 500
+                    : cause instanceof IOException;
+            if (upstreamFault) backend.recordFailure((System.nanoTime() - sentAt) / 1e6);
+            else backend.recordAbandoned();
+        }
+    }
+}
@@ -19,6 +19,15 @@ public class PDFService {
     private static final BaseColor TEXT_COLOR = BaseColor.BLACK;
 
     public byte[] generateResumePDF(String resumeText, String candidateName) {
+        return generateResumePDF(resumeText, candidateName, Deadline.none());
+    }
+
+    /**
+     * Renders the PDF, giving up with {@link DeadlineExceededException} as soon as {@code deadline}
+     * ends (checked between lines) so an abandoned download stops using CPU.
+     */
+    public byte[] generateResumePDF(String resumeText, String candidateName, Deadline deadline) {
+        deadline.check("PDF rendering");
         try {
             Document document = new Document(PageSize.A4, 50, 50, 50, 50); // margins
             ByteArrayOutputStream baos = new ByteArrayOutputStream();
@@ -27,7 +36,7 @@ public class PDFService {
             document.open();
 
             // Process and add content
-            processResumeContent(document, resumeText, candidateName);
+            processResumeContent(document, resumeText, candidateName, deadline);
 
             document.close();
             return baos.toByteArray();
@@ -38,13 +47,14 @@ public class PDFService {
         }
     }
 
-    private void processResumeContent(Document document, String resumeText, String candidateName)
+    private void processResumeContent(Document document, String resumeText, String candidateName, Deadline deadline)
             throws DocumentException {
 
         String[] lines = resumeText.split("\n");
         boolean isFirstLine = true;
 
         for (int i = 0; i < lines.length; i++) {
+            deadline.check("PDF rendering");
             String line = lines[i].trim();
 
             if (line.isEmpty()) {
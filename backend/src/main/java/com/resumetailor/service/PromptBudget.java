@@ -0,0 +1,125 @@
+package com.resumetailor.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Fits variable prompt inputs (job description, resume, section text) into the model's context
+ * window. The window minus the template, the completion budget and a safety margin is shared
+ * max-min fairly between the inputs: short inputs are kept whole and the remainder goes to the
+ * longer ones. Inputs that still do not fit are cut at line boundaries, so bullets and sections
+ * are never split mid-word.
+ */
+@Component
+public class PromptBudget {
+
+    static final String OMISSION = "...";
+
+    @Value("${ai.model.context-tokens:8192}")
+    private int contextTokens;
+
+    @Value("${ai.prompt.safety-margin:0.1}")
+    private double safetyMargin;
+
+    /**
+     * Returns {@code inputs} trimmed so that {@code String.format(template, inputs)} plus
+     * {@code completionTokens} fits the context window.
+     */
+    public List<String> fit(String template, int completionTokens, String... inputs) {
+        int available = (int) (contextTokens * (1 - safetyMargin))
+                - TokenEstimator.estimate(template) - completionTokens;
+        available = Math.max(available, 0);
+
+        int[] needs = new int[inputs.length];
+        int total = 0;
+        for (int i = 0; i < inputs.length; i++) {
+            needs[i] = TokenEstimator.estimate(inputs[i]);
+            total += needs[i];
+        }
+        if (total <= available) {
+            return Arrays.asList(inputs);
+        }
+
+        int[] budgets = shareFairly(needs, available);
+        List<String> fitted = new ArrayList<>(inputs.length);
+        for (int i = 0; i < inputs.length; i++) {
+            fitted.add(needs[i] <= budgets[i] ? inputs[i] : trimToTokens(inputs[i], budgets[i]));
+        }
+        return fitted;
+    }
+
+    public int getContextTokens() {
+        return contextTokens;
+    }
+
+    /** Water-filling: repeatedly give every unsatisfied input an equal share of what is left. */
+    private static int[] shareFairly(int[] needs, int available) {
+        int[] budgets = new int[needs.length];
+        boolean[] satisfied = new boolean[needs.length];
+        int remaining = available;
+        int open = needs.length;
+
+        while (open > 0) {
+            int share = remaining / open;
+            boolean progressed = false;
+            for (int i = 0; i < needs.length; i++) {
+                if (!satisfied[i] && needs[i] <= share) {
+                    budgets[i] = needs[i];
+                    remaining -= needs[i];
+                    satisfied[i] = true;
+                    open--;
+                    progressed = true;
+                }
+            }
+            if (!progressed) {
+                for (int i = 0; i < needs.length; i++) {
+                    if (!satisfied[i]) budgets[i] = share;
+                }
+                break;
+            }
+        }
+        return budgets;
+    }
+
+    /**
+     * Keeps whole lines while they fit; only a single oversized first line is cut, at a word boundary.
+     */
+    static String trimToTokens(String text, int budget) {
+        if (text == null || text.isEmpty()) return "";
+        int limit = budget - TokenEstimator.estimate(OMISSION) - 1;
+        if (limit <= 0) return OMISSION;
+
+        StringBuilder out = new StringBuilder();
+        int used = 0;
+        for (String line : text.split("\n", -1)) {
+            int cost = TokenEstimator.estimate(line) + 1;
+            if (used + cost > limit) {
+                if (out.length() == 0) {
+                    out.append(cutAtWord(line, limit)).append('\n');
+                }
+                break;
+            }
+            out.append(line).append('\n');
+            used += cost;
+        }
+        return out.append(OMISSION).toString();
+    }
+
+    private static String cutAtWord(String line, int budget) {
+        String[] words = line.split(" ");
+        StringBuilder out = new StringBuilder();
+        int used = 0;
+        for (String word : words) {
+            int cost = TokenEstimator.estimate(word);
+            if (used + cost > budget) break;
+            if (out.length() > 0) out.append(' ');
+            out.append(word);
+            used += cost;
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,588 @@
+package com.resumetailor.service;
+
+import com.resumetailor.model.Resume;
+import com.resumetailor.repository.ResumeRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over all stored resumes: for every term, the resumes whose content
+ * contains it. Ranking a job against every resume then only touches the posting lists of the job's
+ * terms, instead of loading and tokenizing each resume's content.
+ * <p>
+ * Terms and scores follow {@link ATSService#calculateATSScore(String, String)}: a resume's score is
+ * the share of the job's distinct non-stopword terms it contains. The index also supplies the
+ * resume half of {@link CorpusStats}: per-term document frequencies and resume lengths, kept exact
+ * as resumes come and go.
+ * <p>
+ * The index is kept current by the upload and delete endpoints and written to a snapshot file
+ * periodically and on shutdown. At startup the snapshot is loaded and reconciled against the
+ * {@code id}/{@code updatedAt} of every resume, so only resumes added, changed or deleted since it
+ * was written are read from the database; without a snapshot every resume is indexed once.
+ */
+@Service
+public class ResumeIndex {
+    private static final Logger log = LoggerFactory.getLogger(ResumeIndex.class);
+
+    private static final int SNAPSHOT_MAGIC = 0x52495832; // "RIX2"
+    private static final int LOAD_BATCH_SIZE = 200;
+
+    @Value("${ats.resume-index.enabled:true}")
+    private boolean enabled;
+
+    @Value("${ats.resume-index.snapshot-path:data/resume-index.bin}")
+    private String snapshotPath;
+
+    @Value("${ats.resume-index.snapshot-interval-ms:300000}")
+    private long snapshotIntervalMs;
+
+    @Autowired
+    private ResumeRepository resumeRepository;
+
+    /** One ranked resume. */
+    public record Match(long resumeId, String candidateName, int score, int matchedTerms) {}
+
+    /** Resume numbers (ascending, as they are appended in order) of the resumes containing one term. */
+    private static final class Postings {
+        int[] docs = new int[4];
+        int size;
+        /** Entries whose resume has not been removed: the term's document frequency. */
+        int live;
+
+        void add(int doc) {
+            if (size == docs.length) docs = Arrays.copyOf(docs, size * 2);
+            docs[size++] = doc;
+            live++;
+        }
+    }
+
+    /** A text's distinct non-stopword terms and its length in tokens (stopwords included). */
+    private record Scan(Set<String> terms, int length) {}
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Guarded by lock. Resumes are numbered densely in the order they are indexed; a removed
+    // resume keeps its number (flagged in removed) until the next compaction.
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final Map<Long, Integer> docOf = new HashMap<>();
+    private long[] resumeIds = new long[64];
+    private long[] stamps = new long[64];
+    private String[] candidateNames = new String[64];
+    /** The posting lists each resume is on, so removing it can keep document frequencies exact. */
+    private Postings[][] docTerms = new Postings[64][];
+    private int[] lengths = new int[64];
+    private long liveLength;
+    private int docCount;
+    private final BitSet removed = new BitSet();
+    private int removedCount;
+    /** Resumes indexed or removed through the endpoints while startup reconciliation is running. */
+    private final Set<Long> touched = new HashSet<>();
+    /** Changed since the last snapshot; cleared under the write lock, set again if writing fails. */
+    private volatile boolean dirty;
+
+    private volatile boolean ready;
+    private ScheduledExecutorService snapshotter;
+
+    @PostConstruct
+    void init() {
+        snapshotter = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "resume-index");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        snapshotter.shutdownNow();
+        if (ready) writeSnapshotIfDirty();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void start() {
+        if (!enabled) return;
+        snapshotter.execute(() -> {
+            try {
+                long started = System.currentTimeMillis();
+                loadSnapshot();
+                reconcile();
+                ready = true;
+                log.info("[ResumeIndex] Ready: {} resumes, {} terms in {}ms",
+                        size(), termCount(), System.currentTimeMillis() - started);
+                writeSnapshotIfDirty();
+            } catch (RuntimeException e) {
+                log.error("[ResumeIndex] Failed to build the index", e);
+                return;
+            }
+            snapshotter.scheduleWithFixedDelay(this::writeSnapshotIfDirty,
+                    snapshotIntervalMs, snapshotIntervalMs, TimeUnit.MILLISECONDS);
+        });
+    }
+
+    /** False until the startup load has finished (or when the index is disabled). */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /** Indexes a new or changed resume, replacing what was indexed for it before. */
+    public void index(Resume resume) {
+        if (!enabled || resume.getId() == null) return;
+        Scan scan = scan(resume.getContent());
+        lock.writeLock().lock();
+        try {
+            if (!ready) touched.add(resume.getId());
+            removeLocked(resume.getId());
+            addLocked(resume.getId(), stamp(resume.getUpdatedAt()), resume.getCandidateName(), scan);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long resumeId) {
+        if (!enabled) return;
+        lock.writeLock().lock();
+        try {
+            if (!ready) touched.add(resumeId);
+            removeLocked(resumeId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * The {@code k} resumes scoring highest against {@code jd}, best first; equal scores are ordered
+     * by resume id. Resumes that match no term are only returned to fill up {@code k}.
+     */
+    public List<Match> topMatches(String jd, int k) {
+        Set<String> terms = termsOf(jd);
+        if (terms.isEmpty() || k <= 0) return List.of();
+
+        lock.readLock().lock();
+        try {
+            int[] counts = new int[docCount];
+            for (String term : terms) {
+                Postings p = postings.get(term);
+                if (p == null) continue;
+                for (int i = 0; i < p.size; i++) {
+                    counts[p.docs[i]]++;
+                }
+            }
+
+            // Min-heap of the best k so far: fewest matches, then highest id, at the head
+            PriorityQueue<Integer> best = new PriorityQueue<>(k + 1, (a, b) -> counts[a] != counts[b]
+                    ? Integer.compare(counts[a], counts[b])
+                    : Long.compare(resumeIds[b], resumeIds[a]));
+            for (int doc = 0; doc < docCount; doc++) {
+                if (removed.get(doc)) continue;
+                best.add(doc);
+                if (best.size() > k) best.poll();
+            }
+
+            Match[] ranked = new Match[best.size()];
+            for (int i = ranked.length - 1; i >= 0; i--) {
+                int doc = best.poll();
+                int score = (int) Math.round((counts[doc] * 100.0) / terms.size());
+                ranked[i] = new Match(resumeIds[doc], candidateNames[doc], Math.max(0, Math.min(100, score)), counts[doc]);
+            }
+            return List.of(ranked);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docOf.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Number of indexed resumes containing each of {@code terms}. */
+    public int[] documentFrequencies(String[] terms) {
+        int[] frequencies = new int[terms.length];
+        lock.readLock().lock();
+        try {
+            for (int i = 0; i < terms.length; i++) {
+                Postings p = postings.get(terms[i]);
+                frequencies[i] = p == null ? 0 : p.live;
+            }
+            return frequencies;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Mean length in tokens of the indexed resumes, or 0 when there are none. */
+    public double averageLength() {
+        lock.readLock().lock();
+        try {
+            return docOf.isEmpty() ? 0 : (double) liveLength / docOf.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int termCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Map<String, Object> stats() {
+        lock.readLock().lock();
+        try {
+            long entries = 0;
+            for (Postings p : postings.values()) entries += p.size;
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("enabled", enabled);
+            stats.put("ready", ready);
+            stats.put("resumes", docOf.size());
+            stats.put("terms", postings.size());
+            stats.put("postings", entries);
+            stats.put("averageLength", docOf.isEmpty() ? 0 : liveLength / docOf.size());
+            stats.put("removedPendingCompaction", removedCount);
+            return stats;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Distinct non-stopword terms, as {@link ATSService} tokenizes them. */
+    static Set<String> termsOf(String text) {
+        return scan(text).terms();
+    }
+
+    private static Scan scan(String text) {
+        Set<String> terms = new LinkedHashSet<>();
+        int length = 0;
+        if (text == null) return new Scan(terms, 0);
+        TermScanner scanner = new TermScanner(text);
+        while (scanner.next()) {
+            length++;
+            if (!ATSService.isStopword(scanner)) terms.add(scanner.term());
+        }
+        return new Scan(terms, length);
+    }
+
+    private void addLocked(long resumeId, long stamp, String candidateName, Scan scan) {
+        ensureCapacity(docCount + 1);
+        int doc = docCount++;
+        resumeIds[doc] = resumeId;
+        stamps[doc] = stamp;
+        candidateNames[doc] = candidateName;
+        lengths[doc] = scan.length();
+        liveLength += scan.length();
+        docOf.put(resumeId, doc);
+        Postings[] onto = new Postings[scan.terms().size()];
+        int i = 0;
+        for (String term : scan.terms()) {
+            Postings p = postings.computeIfAbsent(term, t -> new Postings());
+            p.add(doc);
+            onto[i++] = p;
+        }
+        docTerms[doc] = onto;
+        dirty = true;
+    }
+
+    private void ensureCapacity(int docs) {
+        if (docs <= resumeIds.length) return;
+        int capacity = Math.max(docs, resumeIds.length * 2);
+        resumeIds = Arrays.copyOf(resumeIds, capacity);
+        stamps = Arrays.copyOf(stamps, capacity);
+        candidateNames = Arrays.copyOf(candidateNames, capacity);
+        docTerms = Arrays.copyOf(docTerms, capacity);
+        lengths = Arrays.copyOf(lengths, capacity);
+    }
+
+    private void removeLocked(long resumeId) {
+        Integer doc = docOf.remove(resumeId);
+        if (doc == null) return;
+        removed.set(doc);
+        candidateNames[doc] = null;
+        for (Postings p : docTerms[doc]) {
+            p.live--;
+        }
+        docTerms[doc] = null;
+        liveLength -= lengths[doc];
+        removedCount++;
+        dirty = true;
+        // Removed resumes still cost a counter slot per query and their posting entries
+        if (removedCount > 64 && removedCount > docOf.size()) compactLocked();
+    }
+
+    /** Renumbers the live resumes densely and drops removed ones from every posting list. */
+    private void compactLocked() {
+        int[] renumbered = new int[docCount];
+        int live = 0;
+        for (int doc = 0; doc < docCount; doc++) {
+            if (removed.get(doc)) {
+                renumbered[doc] = -1;
+                continue;
+            }
+            renumbered[doc] = live;
+            resumeIds[live] = resumeIds[doc];
+            stamps[live] = stamps[doc];
+            candidateNames[live] = candidateNames[doc];
+            docTerms[live] = docTerms[doc];
+            lengths[live] = lengths[doc];
+            docOf.put(resumeIds[live], live);
+            live++;
+        }
+        Arrays.fill(candidateNames, live, docCount, null);
+        Arrays.fill(docTerms, live, docCount, null);
+
+        var terms = postings.values().iterator();
+        while (terms.hasNext()) {
+            Postings p = terms.next();
+            int n = 0;
+            for (int i = 0; i < p.size; i++) {
+                int doc = renumbered[p.docs[i]];
+                if (doc >= 0) p.docs[n++] = doc;
+            }
+            p.size = n;
+            if (n == 0) terms.remove();
+        }
+
+        log.debug("[ResumeIndex] Compacted {} removed resumes", docCount - live);
+        docCount = live;
+        removed.clear();
+        removedCount = 0;
+    }
+
+    /**
+     * Brings the snapshot in line with the database: indexes resumes it lacks or holds an older
+     * version of, and drops resumes that no longer exist. Resumes uploaded or deleted meanwhile were
+     * already handled by {@link #index}/{@link #remove} and are left alone.
+     */
+    private void reconcile() {
+        Map<Long, Long> current = new HashMap<>();
+        for (Object[] row : resumeRepository.findIndexStamps()) {
+            current.put((Long) row[0], stamp((LocalDateTime) row[1]));
+        }
+
+        List<Long> stale = new ArrayList<>();
+        List<Long> missing = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (Long id : docOf.keySet()) {
+                if (!current.containsKey(id)) stale.add(id);
+            }
+            current.forEach((id, stamp) -> {
+                Integer doc = docOf.get(id);
+                if (doc == null || !sameStamp(stamps[doc], stamp)) missing.add(id);
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        lock.writeLock().lock();
+        try {
+            for (Long id : stale) {
+                if (!touched.contains(id)) removeLocked(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        for (int from = 0; from < missing.size(); from += LOAD_BATCH_SIZE) {
+            List<Long> batch = missing.subList(from, Math.min(missing.size(), from + LOAD_BATCH_SIZE));
+            for (Resume resume : resumeRepository.findAllById(batch)) {
+                Scan scan = scan(resume.getContent());
+                lock.writeLock().lock();
+                try {
+                    if (touched.contains(resume.getId())) continue;
+                    removeLocked(resume.getId());
+                    addLocked(resume.getId(), stamp(resume.getUpdatedAt()), resume.getCandidateName(), scan);
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+        }
+
+        lock.writeLock().lock();
+        try {
+            touched.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("[ResumeIndex] Reconciled with the database: {} indexed, {} removed", missing.size(), stale.size());
+    }
+
+    private void loadSnapshot() {
+        Path path = Path.of(snapshotPath);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != SNAPSHOT_MAGIC) {
+                log.warn("[ResumeIndex] Ignoring {}: not a snapshot of this version", path);
+                return;
+            }
+            int docs = in.readInt();
+            long[] ids = new long[Math.max(docs, 64)];
+            long[] docStamps = new long[ids.length];
+            String[] names = new String[ids.length];
+            int[] docLengths = new int[ids.length];
+            long totalLength = 0;
+            for (int doc = 0; doc < docs; doc++) {
+                ids[doc] = in.readLong();
+                docStamps[doc] = in.readLong();
+                docLengths[doc] = in.readInt();
+                totalLength += docLengths[doc];
+                names[doc] = in.readBoolean() ? readString(in) : null;
+            }
+            Map<String, Postings> terms = new HashMap<>();
+            int[] termsPerDoc = new int[ids.length];
+            int termCount = in.readInt();
+            for (int t = 0; t < termCount; t++) {
+                String term = readString(in);
+                Postings p = new Postings();
+                p.size = in.readInt();
+                p.live = p.size;
+                p.docs = new int[Math.max(p.size, 1)];
+                for (int i = 0; i < p.size; i++) {
+                    p.docs[i] = in.readInt();
+                    termsPerDoc[p.docs[i]]++;
+                }
+                terms.put(term, p);
+            }
+            Postings[][] onto = new Postings[ids.length][];
+            for (int doc = 0; doc < docs; doc++) {
+                onto[doc] = new Postings[termsPerDoc[doc]];
+            }
+            for (Postings p : terms.values()) {
+                for (int i = 0; i < p.size; i++) {
+                    int doc = p.docs[i];
+                    onto[doc][--termsPerDoc[doc]] = p;
+                }
+            }
+
+            lock.writeLock().lock();
+            try {
+                resumeIds = ids;
+                stamps = docStamps;
+                candidateNames = names;
+                lengths = docLengths;
+                docTerms = onto;
+                liveLength = totalLength;
+                docCount = docs;
+                for (int doc = 0; doc < docs; doc++) {
+                    docOf.put(ids[doc], doc);
+                }
+                postings.putAll(terms);
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("[ResumeIndex] Loaded snapshot {}: {} resumes, {} terms", path, docs, termCount);
+        } catch (NoSuchFileException e) {
+            log.info("[ResumeIndex] No snapshot at {}, indexing all resumes", path);
+        } catch (IOException | RuntimeException e) {
+            log.warn("[ResumeIndex] Ignoring unreadable snapshot {}: {}", path, e.toString());
+        }
+    }
+
+    private void writeSnapshotIfDirty() {
+        Path path = Path.of(snapshotPath).toAbsolutePath();
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        lock.writeLock().lock();
+        if (!dirty) {
+            lock.writeLock().unlock();
+            return;
+        }
+        if (removedCount > 0) compactLocked();
+        dirty = false;
+        // Queries can go on while the file is written; updates wait
+        lock.readLock().lock();
+        lock.writeLock().unlock();
+        try {
+            Files.createDirectories(path.getParent());
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(SNAPSHOT_MAGIC);
+                out.writeInt(docCount);
+                for (int doc = 0; doc < docCount; doc++) {
+                    out.writeLong(resumeIds[doc]);
+                    out.writeLong(stamps[doc]);
+                    out.writeInt(lengths[doc]);
+                    out.writeBoolean(candidateNames[doc] != null);
+                    if (candidateNames[doc] != null) writeString(out, candidateNames[doc]);
+                }
+                out.writeInt(postings.size());
+                for (Map.Entry<String, Postings> entry : postings.entrySet()) {
+                    writeString(out, entry.getKey());
+                    Postings p = entry.getValue();
+                    out.writeInt(p.size);
+                    for (int i = 0; i < p.size; i++) {
+                        out.writeInt(p.docs[i]);
+                    }
+                }
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.debug("[ResumeIndex] Wrote snapshot {}: {} resumes", path, docCount);
+        } catch (IOException e) {
+            dirty = true;
+            log.warn("[ResumeIndex] Failed to write snapshot {}: {}", path, e.toString());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static long stamp(LocalDateTime updatedAt) {
+        return updatedAt == null ? 0 : updatedAt.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    /**
+     * The database may round the fractional seconds of an entity's {@code updatedAt} rather than
+     * truncate them, so a second either way is still the same version.
+     */
+    private static boolean sameStamp(long indexed, long current) {
+        return Math.abs(indexed - current) <= 1;
+    }
+}
@@ -0,0 +1,145 @@
+package com.resumetailor.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Splits plain-text resumes into ordered sections for section-parallel tailoring.
+ * Every input line ends up in exactly one section, so joining the sections back
+ * together never loses content. EXPERIENCE is further split into one section per
+ * role, and any section longer than the chunk limit is cut at line boundaries.
+ */
+public final class ResumeSectionSplitter {
+
+    public enum Kind { PREAMBLE, SUMMARY, EXPERIENCE, SKILLS, EDUCATION, OTHER }
+
+    /**
+     * One unit of work. {@code heading} is only set on the first part of a section,
+     * so reassembly prints each heading once.
+     */
+    public record Section(Kind kind, String heading, String body) {
+
+        public String render() {
+            if (heading == null) return body;
+            return body.isEmpty() ? heading : heading + "\n" + body;
+        }
+    }
+
+    private static final String[][] HEADINGS = {
+            {"PROFESSIONAL SUMMARY", "SUMMARY"}, {"SUMMARY", "SUMMARY"}, {"OBJECTIVE", "SUMMARY"}, {"PROFILE", "SUMMARY"},
+            {"PROFESSIONAL EXPERIENCE", "EXPERIENCE"}, {"WORK EXPERIENCE", "EXPERIENCE"}, {"EXPERIENCE", "EXPERIENCE"},
+            {"EMPLOYMENT HISTORY", "EXPERIENCE"},
+            {"TECHNICAL SKILLS", "SKILLS"}, {"SKILLS", "SKILLS"}, {"CORE COMPETENCIES", "SKILLS"},
+            {"EDUCATION", "EDUCATION"},
+            {"PROJECTS", "OTHER"}, {"CERTIFICATIONS", "OTHER"}, {"ACHIEVEMENTS", "OTHER"}, {"AWARDS", "OTHER"},
+            {"PUBLICATIONS", "OTHER"}, {"LANGUAGES", "OTHER"}
+    };
+
+    private ResumeSectionSplitter() {
+    }
+
+    public static List<Section> split(String text, int maxChunkChars) {
+        List<Section> sections = new ArrayList<>();
+        Kind kind = Kind.PREAMBLE;
+        String heading = null;
+        List<String> body = new ArrayList<>();
+
+        for (String line : text.split("\n", -1)) {
+            Kind headingKind = headingKind(line);
+            if (headingKind != null) {
+                flush(sections, kind, heading, body, maxChunkChars);
+                kind = headingKind;
+                heading = line.trim();
+                body = new ArrayList<>();
+            } else {
+                body.add(line);
+            }
+        }
+        flush(sections, kind, heading, body, maxChunkChars);
+        return sections;
+    }
+
+    public static String join(List<String> renderedSections) {
+        return String.join("\n\n", renderedSections);
+    }
+
+    private static void flush(List<Section> out, Kind kind, String heading, List<String> lines, int maxChunkChars) {
+        String body = String.join("\n", lines).strip();
+        if (heading == null && body.isEmpty()) return;
+
+        List<String> parts = kind == Kind.EXPERIENCE ? experienceEntries(body) : List.of(body);
+        boolean first = true;
+        for (String part : parts) {
+            for (String chunk : chunk(part, maxChunkChars)) {
+                out.add(new Section(kind, first ? heading : null, chunk));
+                first = false;
+            }
+        }
+    }
+
+    /**
+     * Groups an EXPERIENCE body into roles: a new role starts at a non-bullet line that follows
+     * a blank line, or at a non-bullet line directly after a bullet.
+     */
+    private static List<String> experienceEntries(String body) {
+        List<String> entries = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean previousBlank = false;
+        boolean previousBullet = false;
+
+        for (String line : body.split("\n", -1)) {
+            String trimmed = line.trim();
+            boolean blank = trimmed.isEmpty();
+            boolean bullet = isBullet(trimmed);
+            boolean startsEntry = !blank && !bullet && (previousBlank || previousBullet);
+            if (startsEntry && current.toString().strip().length() > 0) {
+                entries.add(current.toString().strip());
+                current.setLength(0);
+            }
+            current.append(line).append('\n');
+            if (!blank) previousBullet = bullet;
+            previousBlank = blank;
+        }
+        if (current.toString().strip().length() > 0) {
+            entries.add(current.toString().strip());
+        }
+        if (entries.isEmpty()) entries.add("");
+        return entries;
+    }
+
+    private static List<String> chunk(String body, int maxChunkChars) {
+        if (maxChunkChars <= 0 || body.length() <= maxChunkChars) return List.of(body);
+
+        List<String> chunks = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        for (String line : body.split("\n", -1)) {
+            if (current.length() > 0 && current.length() + line.length() + 1 > maxChunkChars) {
+                chunks.add(current.toString());
+                current.setLength(0);
+            }
+            if (current.length() > 0) current.append('\n');
+            current.append(line);
+        }
+        if (current.length() > 0) chunks.add(current.toString());
+        return chunks;
+    }
+
+    private static Kind headingKind(String line) {
+        String trimmed = line.trim();
+        if (trimmed.isEmpty() || trimmed.length() > 40 || isBullet(trimmed)) return null;
+
+        String normalized = trimmed.replaceAll("[#*:]", "").trim().toUpperCase(Locale.ROOT);
+        for (String[] heading : HEADINGS) {
+            if (normalized.equals(heading[0])) {
+                return Kind.valueOf(heading[1]);
+            }
+        }
+        return null;
+    }
+
+    static boolean isBullet(String trimmed) {
+        return trimmed.startsWith("•") || trimmed.startsWith("◦") || trimmed.startsWith("-")
+                || trimmed.startsWith("*") || trimmed.startsWith("+");
+    }
+}
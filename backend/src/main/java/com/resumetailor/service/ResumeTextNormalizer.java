@@ -0,0 +1,229 @@
+package com.resumetailor.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Shared clean-up of generated resume text, used by {@link AIService} after every generation
+ * and by the resume controller before a tailored resume is stored.
+ * <p>
+ * The rule sequence is exactly the one the two call sites used to run inline with
+ * {@code String.replaceAll}, including the repeated passes: they are not idempotent
+ * (stripping a {@code #} can expose a new {@code -} bullet, removing one commentary line can
+ * expose another), so output stays byte-identical only if every pass runs in the same order.
+ * What changes is the cost: all patterns are compiled once, each rule is skipped outright
+ * when the literal it needs ({@code *}, {@code `}, {@code #}, {@code +}, a newline, ...) does not
+ * occur in the text, and the trailing-commentary rules only search the final line.
+ */
+@Component
+public class ResumeTextNormalizer {
+
+    private static final Pattern[] AI_COMMENTARY = compileAll(
+            "(?i)\\n\\s*Note:.*$",
+            "(?i)\\n\\s*Note -.*$",
+            "(?i)\\n\\s*\\*\\*Note\\*\\*:.*$",
+            "(?i)\\n\\s*I have rewritten.*$",
+            "(?i)\\n\\s*Here is the rewritten.*$",
+            "(?i)\\n\\s*This resume has been.*$",
+            "(?i)\\n\\s*The above resume.*$",
+            "(?i)\\n\\s*Explanation:.*$",
+            "(?i)\\n\\s*Analysis:.*$",
+            "(?i)\\n\\s*MOCK.*RESUME.*$"
+    );
+
+    private static final Pattern[] NOTES = compileAll(
+            "(?i)\\n\\s*Note:.*$",
+            "(?i)\\n\\s*Note -.*$",
+            "(?i)\\n\\s*\\*\\*Note\\*\\*:.*$",
+            "(?i)\\n\\s*I have rewritten.*$"
+    );
+
+    private static final String[] SECTIONS = {
+            "SUMMARY", "OBJECTIVE", "EXPERIENCE", "PROFESSIONAL EXPERIENCE",
+            "EDUCATION", "SKILLS", "PROJECTS", "CERTIFICATIONS"
+    };
+    private static final Pattern[] SECTION_SPACING = new Pattern[SECTIONS.length];
+
+    static {
+        for (int i = 0; i < SECTIONS.length; i++) {
+            SECTION_SPACING[i] = Pattern.compile("(?<!\\n\\n)" + SECTIONS[i]);
+        }
+    }
+
+    private static final Pattern BOLD = Pattern.compile("\\*\\*(.*?)\\*\\*");
+    private static final Pattern ITALIC_SINGLE_LINE = Pattern.compile("\\*([^*\n]+)\\*");
+    private static final Pattern ITALIC = Pattern.compile("\\*([^*]+)\\*");
+    private static final Pattern CODE = Pattern.compile("`([^`]+)`");
+    private static final Pattern BULLET_START = Pattern.compile("^\\s*[\\*-]\\s+");
+    private static final Pattern BULLET_LINE = Pattern.compile("\\n\\s*[\\*-]\\s+");
+    private static final Pattern STAR_BULLET_START = Pattern.compile("^\\s*\\*\\s+");
+    private static final Pattern STAR_BULLET_LINE = Pattern.compile("\\n\\s*\\*\\s+");
+    private static final Pattern SUB_BULLET_START = Pattern.compile("^\\s*\\+\\s+");
+    private static final Pattern SUB_BULLET_LINE = Pattern.compile("\\n\\s*\\+\\s+");
+    private static final Pattern NUMBERED_LINE = Pattern.compile("\\n\\s*\\d+\\.\\s+");
+    private static final Pattern HEADER = Pattern.compile("#+\\s*");
+    private static final Pattern BLANK_RUN = Pattern.compile("\\n{3,}");
+    private static final Pattern TRAILING_SPACE = Pattern.compile("\\s+$");
+    private static final Pattern LEADING_NEWLINES = Pattern.compile("^\\n+");
+
+    /**
+     * Post-processing applied to every raw generation: strips trailing AI commentary and markdown,
+     * normalises bullets and puts blank lines in front of section headings.
+     */
+    public String postProcess(String aiResponse) {
+        if (aiResponse == null || aiResponse.trim().isEmpty()) {
+            return aiResponse;
+        }
+
+        String processed = aiResponse;
+        processed = removeAICommentary(processed);
+        processed = cleanFormatting(processed);
+        processed = removeAICommentary(processed);
+        processed = cleanFormatting(processed);
+        processed = ensureProperStructure(processed);
+        return processed.trim();
+    }
+
+    /**
+     * Final clean-up before a tailored resume is stored: drops trailing notes and converts any
+     * remaining markdown (including numbered lists) to plain text.
+     */
+    public String formatForStorage(String rawText) {
+        if (rawText == null || rawText.trim().isEmpty()) {
+            return rawText;
+        }
+
+        String text = removeTrailing(rawText, NOTES);
+
+        if (text.contains("**")) text = BOLD.matcher(text).replaceAll("$1");
+        if (text.indexOf('*') >= 0) {
+            text = STAR_BULLET_START.matcher(text).replaceAll("• ");
+            text = STAR_BULLET_LINE.matcher(text).replaceAll("\n• ");
+        }
+        if (text.indexOf('+') >= 0) {
+            text = SUB_BULLET_START.matcher(text).replaceAll("  ◦ ");
+            text = SUB_BULLET_LINE.matcher(text).replaceAll("\n  ◦ ");
+        }
+        if (text.indexOf('.') >= 0) text = NUMBERED_LINE.matcher(text).replaceAll("\n• ");
+        if (text.indexOf('*') >= 0) text = ITALIC.matcher(text).replaceAll("$1");
+        if (text.indexOf('`') >= 0) text = CODE.matcher(text).replaceAll("$1");
+        if (text.indexOf('#') >= 0) text = HEADER.matcher(text).replaceAll("");
+
+        text = collapseBlankRuns(text);
+        return text.trim();
+    }
+
+    /**
+     * Strips trailing AI commentary ("Note:", "Explanation:", ...) from the last line.
+     */
+    public String removeAICommentary(String text) {
+        return removeTrailing(text, AI_COMMENTARY);
+    }
+
+    /**
+     * Applies {@code \n\s*KEYWORD.*$} patterns in order. Such a pattern can only match where the
+     * keyword opens the final line ({@code .} stops at line terminators and {@code $} is anchored to
+     * the end), so each search is confined to that tail instead of trying every newline.
+     * A match runs to the end, hence there is at most one and it is cut out directly.
+     */
+    private static String removeTrailing(String text, Pattern[] patterns) {
+        for (Pattern pattern : patterns) {
+            int from = trailingSearchStart(text);
+            if (from < 0) return text;
+            Matcher matcher = pattern.matcher(text).region(from, text.length());
+            if (matcher.find()) {
+                text = text.substring(0, matcher.start()) + text.substring(matcher.end());
+            }
+        }
+        return text;
+    }
+
+    /**
+     * Earliest index at which a {@code \n\s*KEYWORD.*$} match can start, or -1 if none can:
+     * the start of the whitespace run that contains the line break before the final line.
+     */
+    private static int trailingSearchStart(String text) {
+        int end = text.length();
+        // `$` also matches just before a final line terminator (before both chars of \r\n)
+        if (end > 0 && isLineTerminator(text.charAt(end - 1))) {
+            end--;
+            if (end > 0 && text.charAt(end) == '\n' && text.charAt(end - 1) == '\r') end--;
+        }
+        int lastBreak = end - 1;
+        while (lastBreak >= 0 && !isLineTerminator(text.charAt(lastBreak))) lastBreak--;
+        if (lastBreak < 0 || !isRegexSpace(text.charAt(lastBreak))) return -1;
+
+        int start = lastBreak;
+        while (start > 0 && isRegexSpace(text.charAt(start - 1))) start--;
+        return start;
+    }
+
+    /** Characters {@code .} does not match. */
+    private static boolean isLineTerminator(char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+
+    /** Characters matched by {@code \s} (ASCII whitespace). */
+    private static boolean isRegexSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    private String cleanFormatting(String text) {
+        if (text.contains("**")) text = BOLD.matcher(text).replaceAll("$1");
+        if (text.indexOf('*') >= 0) text = ITALIC_SINGLE_LINE.matcher(text).replaceAll("$1");
+        if (text.indexOf('`') >= 0) text = CODE.matcher(text).replaceAll("$1");
+
+        // The bullet / sub-bullet / header block has always run twice; see the class comment.
+        for (int pass = 0; pass < 2; pass++) {
+            if (text.indexOf('*') >= 0 || text.indexOf('-') >= 0) {
+                text = BULLET_START.matcher(text).replaceAll("• ");
+                text = BULLET_LINE.matcher(text).replaceAll("\n• ");
+            }
+            if (text.indexOf('+') >= 0) {
+                text = SUB_BULLET_START.matcher(text).replaceAll("  ◦ ");
+                text = SUB_BULLET_LINE.matcher(text).replaceAll("\n  ◦ ");
+            }
+            if (text.indexOf('#') >= 0) text = HEADER.matcher(text).replaceAll("");
+        }
+
+        text = collapseBlankRuns(text);
+        if (endsWithWhitespaceOrTerminator(text)) text = TRAILING_SPACE.matcher(text).replaceAll("");
+        return text;
+    }
+
+    private String ensureProperStructure(String text) {
+        for (int i = 0; i < SECTIONS.length; i++) {
+            if (text.contains(SECTIONS[i])) {
+                text = SECTION_SPACING[i].matcher(text).replaceAll("\n\n" + SECTIONS[i]);
+            }
+        }
+
+        text = collapseBlankRuns(text);
+        if (text.startsWith("\n")) text = LEADING_NEWLINES.matcher(text).replaceAll("");
+        return text;
+    }
+
+    private static String collapseBlankRuns(String text) {
+        return text.contains("\n\n\n") ? BLANK_RUN.matcher(text).replaceAll("\n\n") : text;
+    }
+
+    /**
+     * {@code \s+$} can only match if the text ends in whitespace or in a line terminator
+     * ({@code $} also matches just before a final terminator).
+     */
+    private static boolean endsWithWhitespaceOrTerminator(String text) {
+        if (text.isEmpty()) return false;
+        char last = text.charAt(text.length() - 1);
+        return Character.isWhitespace(last) || last == '\u0085' || last == '\u2028' || last == '\u2029';
+    }
+
+    private static Pattern[] compileAll(String... regexes) {
+        Pattern[] patterns = new Pattern[regexes.length];
+        for (int i = 0; i < regexes.length; i++) {
+            patterns[i] = Pattern.compile(regexes[i]);
+        }
+        return patterns;
+    }
+}
@@ -0,0 +1,108 @@
+package com.resumetailor.service;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Coalesces concurrent identical calls: while a call for a key is in flight, further
+ * callers with the same key attach to it instead of starting their own.
+ * The key is released as soon as the shared call completes, so results are not cached here.
+ * <p>
+ * The shared call runs under a deadline of its own rather than under the deadline of the caller
+ * that started it. Each caller gives up on its own deadline, and the shared call is cancelled only
+ * once every attached caller has given up; a caller arriving after that starts a fresh call.
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, Flight> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong deduplicated = new AtomicLong();
+    private final AtomicLong abandoned = new AtomicLong();
+
+    /**
+     * Returns a future for {@code call}, sharing an in-flight one for the same key when present.
+     * {@code call} receives the shared call's deadline. Each caller gets its own copy, which fails
+     * with {@link DeadlineExceededException} when {@code deadline} ends; cancelling or timing out one
+     * caller's future never affects the others.
+     */
+    public CompletableFuture<V> execute(K key, Deadline deadline, Function<Deadline, CompletableFuture<V>> call) {
+        calls.incrementAndGet();
+        while (true) {
+            Flight flight = new Flight();
+            Flight existing = inFlight.putIfAbsent(key, flight);
+            if (existing == null) {
+                CompletableFuture<V> mine = flight.attach(deadline);
+                start(key, flight, call);
+                return mine;
+            }
+            CompletableFuture<V> attached = existing.attach(deadline);
+            if (attached != null) {
+                deduplicated.incrementAndGet();
+                return attached;
+            }
+            // Every caller of that one gave up and it is being cancelled
+            inFlight.remove(key, existing);
+        }
+    }
+
+    private void start(K key, Flight flight, Function<Deadline, CompletableFuture<V>> call) {
+        CompletableFuture<V> upstream;
+        try {
+            upstream = call.apply(flight.deadline);
+        } catch (RuntimeException ex) {
+            upstream = CompletableFuture.failedFuture(ex);
+        }
+        upstream.whenComplete((value, ex) -> {
+            inFlight.remove(key, flight);
+            if (ex != null) flight.result.completeExceptionally(ex);
+            else flight.result.complete(value);
+        });
+    }
+
+    public Map<String, Object> stats() {
+        return Map.of(
+                "calls", calls.get(),
+                "deduplicated", deduplicated.get(),
+                "abandoned", abandoned.get(),
+                "inFlight", inFlight.size()
+        );
+    }
+
+    private final class Flight {
+        final CompletableFuture<V> result = new CompletableFuture<>();
+        final Deadline deadline = Deadline.unbounded();
+        private int waiting;
+        private boolean cancelled;
+
+        /** The caller's copy of the result, or null if the flight has already been given up. */
+        synchronized CompletableFuture<V> attach(Deadline callerDeadline) {
+            if (cancelled) return null;
+            waiting++;
+            CompletableFuture<V> mine = result.copy();
+            // Completing before the shared result means the caller gave up
+            mine.whenComplete((value, ex) -> {
+                if (!result.isDone()) leave();
+            });
+            callerDeadline.onEnd(() -> {
+                try {
+                    callerDeadline.check("waiting for the shared call");
+                } catch (DeadlineExceededException e) {
+                    mine.completeExceptionally(e);
+                }
+            });
+            return mine;
+        }
+
+        private void leave() {
+            synchronized (this) {
+                if (--waiting > 0 || result.isDone()) return;
+                cancelled = true;
+            }
+            abandoned.incrementAndGet();
+            deadline.cancel("every coalesced caller gave up");
+        }
+    }
+}
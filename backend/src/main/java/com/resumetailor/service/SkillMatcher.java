@@ -0,0 +1,307 @@
+package com.resumetailor.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Finds skill phrases such as "Spring Boot", "CI/CD" or "k8s" in a text and reports them by
+ * canonical name, in one pass over the text whatever the number of phrases: an Aho-Corasick
+ * automaton. The root and the states one symbol deep, which nearly every character passes through,
+ * have full transition rows with failures folded in; deeper states keep only their own edges, sorted
+ * by symbol, and fall back along failure links. That keeps a large taxonomy to a few tens of bytes
+ * per state instead of a 40-entry row each.
+ * <p>
+ * Text and phrases are normalised alike: characters become their {@link TermScanner} token
+ * character, anything else collapses into a single space, and a '.' not followed by another token
+ * character (sentence punctuation, as in "Kubernetes.") counts as a space too. Phrases are matched
+ * with a space on either side and the text is scanned with one at each end, so matches always
+ * start and end at word boundaries ("Java" does not match inside "JavaScript"). "CI/CD", "ci-cd"
+ * and "CI CD" are therefore the same phrase. Phrases with fewer than two token characters ("C", "R")
+ * are left out: as standalone letters they turn up in initials, list markers and "R&amp;D", and
+ * would match nearly every text.
+ * <p>
+ * Instances are immutable and safe to share; {@link SkillTaxonomy} compiles a new one when the
+ * taxonomy changes.
+ */
+public final class SkillMatcher {
+
+    // Symbols: a-z, 0-9, '+', '.', '#', then the separator
+    private static final int SEPARATOR = 39;
+    private static final int ALPHABET = 40;
+
+    private final String[] canonical;
+    /** States below this (numbered breadth-first: the root, then depth one) have a row in {@link #dense}. */
+    private final int denseStates;
+    /** Next state for (state * ALPHABET + symbol) of the dense states, with failure transitions folded in. */
+    private final int[] dense;
+    /** Edges of state s are [edgeStart[s], edgeStart[s + 1]) of edgeSymbol / edgeTarget, by symbol. */
+    private final int[] edgeStart;
+    private final byte[] edgeSymbol;
+    private final int[] edgeTarget;
+    /** Longest proper suffix state of each state. */
+    private final int[] failure;
+    /** Canonical skill whose phrase ends at each state, or -1. */
+    private final int[] output;
+    /** Nearest proper suffix state with an output, or -1; walks every phrase ending at a position. */
+    private final int[] outputLink;
+    private final int phrases;
+
+    private SkillMatcher(String[] canonical, int denseStates, int[] dense, int[] edgeStart, byte[] edgeSymbol,
+                         int[] edgeTarget, int[] failure, int[] output, int[] outputLink, int phrases) {
+        this.canonical = canonical;
+        this.denseStates = denseStates;
+        this.dense = dense;
+        this.edgeStart = edgeStart;
+        this.edgeSymbol = edgeSymbol;
+        this.edgeTarget = edgeTarget;
+        this.failure = failure;
+        this.output = output;
+        this.outputLink = outputLink;
+        this.phrases = phrases;
+    }
+
+    public static SkillMatcher empty() {
+        return compile(Map.of());
+    }
+
+    /**
+     * Compiles a matcher for {@code synonyms}: canonical skill name to the phrases meaning it (the
+     * name itself is always one of them). A phrase listed under two skills reports the first.
+     */
+    public static SkillMatcher compile(Map<String, List<String>> synonyms) {
+        String[] canonical = synonyms.keySet().toArray(new String[0]);
+        Map<String, Integer> phraseSkill = new LinkedHashMap<>();
+        for (int skill = 0; skill < canonical.length; skill++) {
+            List<String> phrases = new ArrayList<>(synonyms.get(canonical[skill]));
+            phrases.add(0, canonical[skill]);
+            for (String phrase : phrases) {
+                String normalised = normalise(phrase);
+                if (tokenCharacters(normalised) >= 2) phraseSkill.putIfAbsent(normalised, skill);
+            }
+        }
+
+        // Trie, children as linked lists; only the finished automaton is laid out compactly
+        int capacity = 1 + phraseSkill.keySet().stream().mapToInt(String::length).sum();
+        int[] firstChild = new int[capacity];
+        int[] nextSibling = new int[capacity];
+        byte[] symbolOf = new byte[capacity];
+        int[] trieOutput = new int[capacity];
+        Arrays.fill(firstChild, -1);
+        Arrays.fill(trieOutput, -1);
+        int states = 1;
+        for (Map.Entry<String, Integer> entry : phraseSkill.entrySet()) {
+            String phrase = entry.getKey();
+            int state = 0;
+            for (int i = 0; i < phrase.length(); i++) {
+                int symbol = symbol(phrase.charAt(i));
+                int child = childOf(firstChild, nextSibling, symbolOf, state, symbol);
+                if (child < 0) {
+                    child = states++;
+                    symbolOf[child] = (byte) symbol;
+                    nextSibling[child] = firstChild[state];
+                    firstChild[state] = child;
+                }
+                state = child;
+            }
+            trieOutput[state] = entry.getValue();
+        }
+
+        // Breadth-first renumbering: depth ascends, so the root and its children come first
+        int[] order = new int[states];
+        int tail = 1;
+        for (int head = 0; head < tail; head++) {
+            for (int c = firstChild[order[head]]; c >= 0; c = nextSibling[c]) {
+                order[tail++] = c;
+            }
+        }
+        int[] numberOf = new int[states];
+        for (int i = 0; i < states; i++) {
+            numberOf[order[i]] = i;
+        }
+        int denseStates = 1;
+        for (int c = firstChild[0]; c >= 0; c = nextSibling[c]) {
+            denseStates++;
+        }
+
+        int[] edgeStart = new int[states + 1];
+        byte[] edgeSymbol = new byte[states - 1];
+        int[] edgeTarget = new int[states - 1];
+        int[] output = new int[states];
+        int edges = 0;
+        for (int i = 0; i < states; i++) {
+            int node = order[i];
+            edgeStart[i] = edges;
+            output[i] = trieOutput[node];
+            for (int c = firstChild[node]; c >= 0; c = nextSibling[c]) {
+                int at = edges++;
+                // Insertion sort by symbol; fan-out is small
+                while (at > edgeStart[i] && edgeSymbol[at - 1] > symbolOf[c]) {
+                    edgeSymbol[at] = edgeSymbol[at - 1];
+                    edgeTarget[at] = edgeTarget[at - 1];
+                    at--;
+                }
+                edgeSymbol[at] = symbolOf[c];
+                edgeTarget[at] = numberOf[c];
+            }
+        }
+        edgeStart[states] = edges;
+
+        // Breadth-first: failure and output links, and the dense rows resolved along them
+        int[] failure = new int[states];
+        int[] outputLink = new int[states];
+        int[] dense = new int[denseStates * ALPHABET];
+        outputLink[0] = -1;
+        for (int state = 0; state < states; state++) {
+            if (state < denseStates) {
+                for (int symbol = 0; symbol < ALPHABET; symbol++) {
+                    int child = edge(edgeStart, edgeSymbol, edgeTarget, state, symbol);
+                    dense[state * ALPHABET + symbol] = child >= 0 ? child
+                            : state == 0 ? 0 : dense[failure[state] * ALPHABET + symbol];
+                }
+            }
+            for (int e = edgeStart[state]; e < edgeStart[state + 1]; e++) {
+                int child = edgeTarget[e];
+                int fallback = 0;
+                if (state != 0) {
+                    int f = failure[state];
+                    int next = -1;
+                    while (f >= denseStates && (next = edge(edgeStart, edgeSymbol, edgeTarget, f, edgeSymbol[e])) < 0) {
+                        f = failure[f];
+                    }
+                    fallback = f >= denseStates ? next : dense[f * ALPHABET + edgeSymbol[e]];
+                }
+                failure[child] = fallback;
+                outputLink[child] = output[fallback] >= 0 ? fallback : outputLink[fallback];
+            }
+        }
+
+        return new SkillMatcher(canonical, denseStates, dense, edgeStart, edgeSymbol, edgeTarget,
+                failure, output, outputLink, phraseSkill.size());
+    }
+
+    /** Canonical names of the skills mentioned in {@code text}, in order of first mention. */
+    public List<String> find(String text) {
+        List<String> found = new ArrayList<>();
+        if (text == null || phrases == 0) return found;
+        BitSet seen = new BitSet(canonical.length);
+
+        int state = step(0, SEPARATOR);
+        boolean separated = true;
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            int symbol = symbolAt(text, i, c);
+            if (symbol == SEPARATOR) {
+                if (separated) continue;
+                separated = true;
+            } else {
+                separated = false;
+            }
+            state = step(state, symbol);
+            collect(state, seen, found);
+            // U+0130 lower-cases to 'i' plus a combining dot, which ends the token
+            if (c == TermScanner.DOTTED_CAPITAL_I) {
+                state = step(state, SEPARATOR);
+                separated = true;
+                collect(state, seen, found);
+            }
+        }
+        if (!separated) {
+            collect(step(state, SEPARATOR), seen, found);
+        }
+        return found;
+    }
+
+    public int phraseCount() {
+        return phrases;
+    }
+
+    public int skillCount() {
+        return canonical.length;
+    }
+
+    public int stateCount() {
+        return output.length;
+    }
+
+    private int step(int state, int symbol) {
+        while (state >= denseStates) {
+            int next = edge(edgeStart, edgeSymbol, edgeTarget, state, symbol);
+            if (next >= 0) return next;
+            state = failure[state];
+        }
+        return dense[state * ALPHABET + symbol];
+    }
+
+    /** Target of {@code state}'s own edge on {@code symbol}, or -1. */
+    private static int edge(int[] edgeStart, byte[] edgeSymbol, int[] edgeTarget, int state, int symbol) {
+        for (int e = edgeStart[state], end = edgeStart[state + 1]; e < end; e++) {
+            if (edgeSymbol[e] >= symbol) return edgeSymbol[e] == symbol ? edgeTarget[e] : -1;
+        }
+        return -1;
+    }
+
+    private static int childOf(int[] firstChild, int[] nextSibling, byte[] symbolOf, int state, int symbol) {
+        for (int c = firstChild[state]; c >= 0; c = nextSibling[c]) {
+            if (symbolOf[c] == symbol) return c;
+        }
+        return -1;
+    }
+
+    private static int tokenCharacters(String normalised) {
+        int count = 0;
+        for (int i = 0; i < normalised.length(); i++) {
+            if (normalised.charAt(i) != ' ') count++;
+        }
+        return count;
+    }
+
+    private void collect(int state, BitSet seen, List<String> found) {
+        for (int s = output[state] >= 0 ? state : outputLink[state]; s >= 0; s = outputLink[s]) {
+            int skill = output[s];
+            if (!seen.get(skill)) {
+                seen.set(skill);
+                found.add(canonical[skill]);
+            }
+        }
+    }
+
+    /** A phrase as the automaton spells it: normalised as described above, with a space either side. */
+    static String normalise(String phrase) {
+        StringBuilder out = new StringBuilder(phrase.length() + 2).append(' ');
+        for (int i = 0; i < phrase.length(); i++) {
+            char c = phrase.charAt(i);
+            int symbol = symbolAt(phrase, i, c);
+            if (symbol == SEPARATOR) {
+                if (out.charAt(out.length() - 1) != ' ') out.append(' ');
+            } else {
+                out.append((char) TermScanner.lower(c));
+                if (c == TermScanner.DOTTED_CAPITAL_I) out.append(' ');
+            }
+        }
+        if (out.charAt(out.length() - 1) != ' ') out.append(' ');
+        return out.toString();
+    }
+
+    private static int symbolAt(String text, int i, char c) {
+        int lower = TermScanner.lower(c);
+        if (lower < 0) return SEPARATOR;
+        if (lower == '.' && (i + 1 == text.length() || TermScanner.lower(text.charAt(i + 1)) < 0)) return SEPARATOR;
+        return symbol((char) lower);
+    }
+
+    private static int symbol(char lower) {
+        if (lower >= 'a' && lower <= 'z') return lower - 'a';
+        if (lower >= '0' && lower <= '9') return 26 + lower - '0';
+        return switch (lower) {
+            case '+' -> 36;
+            case '.' -> 37;
+            case '#' -> 38;
+            default -> SEPARATOR;
+        };
+    }
+}
@@ -0,0 +1,153 @@
+package com.resumetailor.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The skills taxonomy and the {@link SkillMatcher} compiled from it. The taxonomy is a text file,
+ * one skill per line: the canonical name, then optionally a colon and comma-separated synonyms
+ * ({@code Kubernetes: k8s, kube}); blank lines and lines starting with '#' are ignored.
+ * <p>
+ * The file is checked for changes in the background and recompiled there; the new matcher then
+ * replaces the old one in a single write, so scans never wait for a build or see a partial one.
+ * A file that fails to load leaves the current matcher in place.
+ */
+@Service
+public class SkillTaxonomy {
+    private static final Logger log = LoggerFactory.getLogger(SkillTaxonomy.class);
+
+    @Value("${ats.skills.enabled:true}")
+    private boolean enabled;
+
+    @Value("${ats.skills.taxonomy:classpath:skills-taxonomy.txt}")
+    private String location;
+
+    @Value("${ats.skills.reload-interval-ms:30000}")
+    private long reloadIntervalMs;
+
+    @Autowired
+    private ResourceLoader resourceLoader;
+
+    private volatile SkillMatcher matcher = SkillMatcher.empty();
+    private volatile long loadedModified = -1;
+    private volatile long loadedAt;
+    private ScheduledExecutorService reloader;
+
+    @PostConstruct
+    void init() {
+        if (!enabled) return;
+        reloader = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "skill-taxonomy");
+            t.setDaemon(true);
+            return t;
+        });
+        reloader.execute(this::reloadIfChanged);
+        if (reloadIntervalMs > 0) {
+            reloader.scheduleWithFixedDelay(this::reloadIfChanged, reloadIntervalMs, reloadIntervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (reloader != null) reloader.shutdownNow();
+    }
+
+    /** The matcher for the current taxonomy; empty until the first load completes. */
+    public SkillMatcher matcher() {
+        return matcher;
+    }
+
+    /** Canonical names of the skills mentioned in {@code text}, in order of first mention. */
+    public List<String> skillsIn(String text) {
+        return matcher.find(text);
+    }
+
+    /** Rebuilds from the taxonomy file now, off the calling thread. */
+    public void reload() {
+        if (reloader == null) return;
+        reloader.execute(() -> {
+            loadedModified = -1;
+            reloadIfChanged();
+        });
+    }
+
+    private void reloadIfChanged() {
+        try {
+            Resource resource = resourceLoader.getResource(location);
+            long modified = lastModified(resource);
+            if (loadedModified != -1 && (modified == 0 || modified == loadedModified)) return;
+
+            long started = System.nanoTime();
+            Map<String, List<String>> skills = parse(resource);
+            SkillMatcher compiled = SkillMatcher.compile(skills);
+            matcher = compiled;
+            loadedModified = modified;
+            loadedAt = System.currentTimeMillis();
+            log.info("[SkillTaxonomy] Loaded {}: {} skills, {} phrases, {} states in {}ms", location,
+                    compiled.skillCount(), compiled.phraseCount(), compiled.stateCount(),
+                    (System.nanoTime() - started) / 1_000_000);
+        } catch (IOException | RuntimeException e) {
+            log.warn("[SkillTaxonomy] Keeping the current taxonomy, failed to load {}: {}", location, e.toString());
+        }
+    }
+
+    /** Last modification time, or 0 when the resource cannot tell (then it is loaded once). */
+    private static long lastModified(Resource resource) {
+        try {
+            return resource.lastModified();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static Map<String, List<String>> parse(Resource resource) throws IOException {
+        Map<String, List<String>> skills = new LinkedHashMap<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                int colon = line.indexOf(':');
+                String name = (colon < 0 ? line : line.substring(0, colon)).trim();
+                if (name.isEmpty()) continue;
+                List<String> synonyms = skills.computeIfAbsent(name, n -> new ArrayList<>());
+                if (colon < 0) continue;
+                for (String synonym : line.substring(colon + 1).split(",")) {
+                    if (!synonym.isBlank()) synonyms.add(synonym.trim());
+                }
+            }
+        }
+        return skills;
+    }
+
+    public Map<String, Object> stats() {
+        SkillMatcher current = matcher;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("location", location);
+        stats.put("skills", current.skillCount());
+        stats.put("phrases", current.phraseCount());
+        stats.put("states", current.stateCount());
+        stats.put("loadedAt", loadedAt);
+        return stats;
+    }
+}
@@ -0,0 +1,69 @@
+package com.resumetailor.service;
+
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Incremental counterpart of {@code AIService.postProcessAIResponse} for streamed generations.
+ * Tokens are buffered until a line is complete; each finished line gets the line-local
+ * formatting rules and is handed to the sink. Once a commentary line ("Note:", "Explanation:", ...)
+ * appears, everything after it is suppressed, as the batch pipeline would strip it.
+ * Not thread-safe: feed it from one stream.
+ */
+public class StreamingResumeCleaner {
+
+    private static final Pattern COMMENTARY = Pattern.compile(
+            "(?i)^\\s*(Note:|Note -|\\*\\*Note\\*\\*:|I have rewritten|Here is the rewritten|This resume has been"
+                    + "|The above resume|Explanation:|Analysis:|MOCK.*RESUME)");
+    private static final Pattern BOLD = Pattern.compile("\\*\\*(.*?)\\*\\*");
+    private static final Pattern ITALIC = Pattern.compile("\\*([^*\n]+)\\*");
+    private static final Pattern CODE = Pattern.compile("`([^`]+)`");
+    private static final Pattern BULLET = Pattern.compile("^\\s*[\\*-]\\s+");
+    private static final Pattern SUB_BULLET = Pattern.compile("^\\s*\\+\\s+");
+    private static final Pattern HEADER = Pattern.compile("#+\\s*");
+
+    private final Consumer<String> sink;
+    private final StringBuilder pending = new StringBuilder();
+    private boolean suppressed;
+
+    public StreamingResumeCleaner(Consumer<String> sink) {
+        this.sink = sink;
+    }
+
+    public void accept(String token) {
+        if (suppressed) return;
+        pending.append(token);
+        int newline;
+        while (!suppressed && (newline = pending.indexOf("\n")) >= 0) {
+            String line = pending.substring(0, newline);
+            pending.delete(0, newline + 1);
+            emit(line);
+        }
+    }
+
+    /** Flushes the trailing partial line once the stream has ended. */
+    public void finish() {
+        if (!suppressed && pending.length() > 0) {
+            emit(pending.toString());
+        }
+        pending.setLength(0);
+    }
+
+    private void emit(String line) {
+        if (COMMENTARY.matcher(line).find()) {
+            suppressed = true;
+            return;
+        }
+        sink.accept(cleanLine(line));
+    }
+
+    static String cleanLine(String line) {
+        line = BOLD.matcher(line).replaceAll("$1");
+        line = ITALIC.matcher(line).replaceAll("$1");
+        line = CODE.matcher(line).replaceAll("$1");
+        line = BULLET.matcher(line).replaceAll("• ");
+        line = SUB_BULLET.matcher(line).replaceAll("  ◦ ");
+        line = HEADER.matcher(line).replaceAll("");
+        return line.stripTrailing();
+    }
+}
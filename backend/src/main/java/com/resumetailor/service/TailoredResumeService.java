@@ -0,0 +1,173 @@
+package com.resumetailor.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.resumetailor.dto.TailoredResumeResponse;
+import com.resumetailor.model.Job;
+import com.resumetailor.model.Resume;
+import com.resumetailor.model.TailoredResume;
+import com.resumetailor.repository.TailoredResumeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Final stage of every tailoring path (synchronous, streaming and queued): cleans the generated
+ * text, scores it and stores the {@link TailoredResume} row, together with the ATS analysis when
+ * the generation produced one.
+ */
+@Service
+public class TailoredResumeService {
+    private static final Logger log = LoggerFactory.getLogger(TailoredResumeService.class);
+
+    private static final String INSERT_SQL = "INSERT INTO tailored_resumes "
+            + "(resume_id, job_id, tailored_content, ats_score, degraded, ats_analysis, created_at) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final TypeReference<Map<String, Object>> ANALYSIS_TYPE = new TypeReference<>() {};
+
+    @Autowired
+    private TailoredResumeRepository tailoredResumeRepository;
+
+    @Autowired
+    private ATSService atsService;
+
+    @Autowired
+    private ResumeTextNormalizer normalizer;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    public TailoredResumeResponse save(Resume resume, Job job, TailoringResult result) {
+        return save(resume, job, result, Deadline.none());
+    }
+
+    /**
+     * Scores and stores the result unless {@code deadline} has ended, in which case nobody is
+     * waiting for the row and {@link DeadlineExceededException} is thrown instead.
+     */
+    public TailoredResumeResponse save(Resume resume, Job job, TailoringResult result, Deadline deadline) {
+        TailoredResume prepared = prepare(resume, job, result, deadline);
+        deadline.check("saving tailored resume");
+        TailoredResume tailoredResume = tailoredResumeRepository.save(prepared);
+        return toResponse(tailoredResume, resume, job);
+    }
+
+    /**
+     * Cleans and scores the generated text into an unsaved row; {@link #saveAll} persists many at once.
+     */
+    public TailoredResume prepare(Resume resume, Job job, TailoringResult result) {
+        return prepare(resume, job, result, Deadline.none());
+    }
+
+    private TailoredResume prepare(Resume resume, Job job, TailoringResult result, Deadline deadline) {
+        String tailoredText = normalizer.formatForStorage(result.text());
+
+        int atsScore = atsService.calculateATSScore(tailoredText, job, deadline);
+
+        log.info("[TailoredResumeService] Tailoring complete - Original: {} chars, Tailored: {} chars, ATS Score: {}",
+                resume.getContent().length(), tailoredText.length(), atsScore);
+
+        return TailoredResume.builder()
+                .resume(resume)
+                .job(job)
+                .tailoredContent(tailoredText)
+                .atsScore(atsScore)
+                .degraded(result.degraded())
+                .atsAnalysis(writeAnalysis(result.analysis()))
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    /**
+     * Inserts prepared rows with a single JDBC batch and sets their generated ids.
+     * JPA cannot batch these inserts because the table uses IDENTITY keys.
+     */
+    public void saveAll(List<TailoredResume> rows) {
+        if (rows.isEmpty()) return;
+
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                for (TailoredResume row : rows) {
+                    ps.setLong(1, row.getResume().getId());
+                    ps.setLong(2, row.getJob().getId());
+                    ps.setString(3, row.getTailoredContent());
+                    ps.setInt(4, row.getAtsScore());
+                    ps.setBoolean(5, Boolean.TRUE.equals(row.getDegraded()));
+                    ps.setString(6, row.getAtsAnalysis());
+                    ps.setTimestamp(7, Timestamp.valueOf(row.getCreatedAt()));
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                try (ResultSet keys = ps.getGeneratedKeys()) {
+                    for (TailoredResume row : rows) {
+                        if (!keys.next()) break;
+                        row.setId(keys.getLong(1));
+                    }
+                }
+            }
+            return null;
+        });
+        log.info("[TailoredResumeService] Batch-inserted {} tailored resumes", rows.size());
+    }
+
+    /** The stored ATS analysis of a tailored resume, or null when none has been stored yet. */
+    public Map<String, Object> analysisOf(TailoredResume tailored) {
+        if (tailored.getAtsAnalysis() == null) return null;
+        try {
+            return mapper.readValue(tailored.getAtsAnalysis(), ANALYSIS_TYPE);
+        } catch (JsonProcessingException e) {
+            log.warn("[TailoredResumeService] Ignoring unreadable ATS analysis of tailored resume {}: {}",
+                    tailored.getId(), e.getMessage());
+            return null;
+        }
+    }
+
+    public void saveAnalysis(TailoredResume tailored, Map<String, Object> analysis) {
+        String json = writeAnalysis(analysis);
+        tailored.setAtsAnalysis(json);
+        tailoredResumeRepository.updateAtsAnalysis(tailored.getId(), json);
+    }
+
+    public TailoredResumeResponse toResponse(TailoredResume tailored) {
+        return toResponse(tailored, tailored.getResume(), tailored.getJob());
+    }
+
+    private String writeAnalysis(Map<String, Object> analysis) {
+        if (analysis == null) return null;
+        try {
+            return mapper.writeValueAsString(analysis);
+        } catch (JsonProcessingException e) {
+            log.warn("[TailoredResumeService] Could not serialise ATS analysis: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private TailoredResumeResponse toResponse(TailoredResume tailored, Resume resume, Job job) {
+        return TailoredResumeResponse.builder()
+                .id(tailored.getId())
+                .resumeId(resume.getId())
+                .jobId(job.getId())
+                .atsScore(tailored.getAtsScore() != null ? tailored.getAtsScore() : 0)
+                .tailoredText(tailored.getTailoredContent())
+                .candidateName(resume.getCandidateName())
+                .jobTitle(job.getTitle())
+                .createdAt(tailored.getCreatedAt())
+                .degraded(Boolean.TRUE.equals(tailored.getDegraded()))
+                .atsAnalysis(analysisOf(tailored))
+                .build();
+    }
+}
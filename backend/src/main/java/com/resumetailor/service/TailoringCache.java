@@ -0,0 +1,181 @@
+package com.resumetailor.service;
+
+import com.resumetailor.model.TailoringCacheEntry;
+import com.resumetailor.repository.TailoringCacheRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Content-addressed cache of tailored resumes.
+ * A bounded LRU map with TTL sits in front of the {@code tailoring_cache} table,
+ * so repeated tailoring of the same inputs is served without an upstream call
+ * and survives restarts.
+ */
+@Service
+public class TailoringCache {
+    private static final Logger log = LoggerFactory.getLogger(TailoringCache.class);
+
+    @Value("${ai.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${ai.cache.max-entries:500}")
+    private int maxEntries;
+
+    @Value("${ai.cache.ttl-minutes:60}")
+    private long ttlMinutes;
+
+    @Value("${ai.cache.persistent:true}")
+    private boolean persistent;
+
+    @Value("${ai.cache.persistent-ttl-hours:720}")
+    private long persistentTtlHours;
+
+    @Autowired
+    private TailoringCacheRepository repository;
+
+    private Map<String, MemoryEntry> memory;
+    private ExecutorService writer;
+
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong persistentHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    private record MemoryEntry(String content, long expiresAtMillis) {}
+
+    @PostConstruct
+    void init() {
+        memory = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, MemoryEntry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        writer = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "tailoring-cache-writer");
+            t.setDaemon(true);
+            return t;
+        });
+        log.info("[TailoringCache] enabled={}, maxEntries={}, ttl={}m, persistent={}",
+                enabled, maxEntries, ttlMinutes, persistent);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        writer.shutdown();
+    }
+
+    /**
+     * Builds the cache key: SHA-256 over every input that can change the generated text.
+     * Each part is length-prefixed so field boundaries can never collide.
+     */
+    public static String key(String resumeText, String jdText, String mode, String model,
+                             int maxTokens, double temperature, String promptVersion) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String part : new String[]{resumeText, jdText, mode, model,
+                    String.valueOf(maxTokens), String.valueOf(temperature), promptVersion}) {
+                byte[] bytes = (part == null ? "" : part).getBytes(StandardCharsets.UTF_8);
+                digest.update((bytes.length + ":").getBytes(StandardCharsets.US_ASCII));
+                digest.update(bytes);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public Optional<String> get(String key) {
+        if (!enabled) return Optional.empty();
+
+        long now = System.currentTimeMillis();
+        synchronized (memory) {
+            MemoryEntry entry = memory.get(key);
+            if (entry != null) {
+                if (entry.expiresAtMillis() > now) {
+                    memoryHits.incrementAndGet();
+                    return Optional.of(entry.content());
+                }
+                memory.remove(key);
+            }
+        }
+
+        if (persistent) {
+            try {
+                Optional<TailoringCacheEntry> stored = repository.findById(key);
+                if (stored.isPresent()) {
+                    TailoringCacheEntry row = stored.get();
+                    if (row.getExpiresAt() == null || row.getExpiresAt().isAfter(LocalDateTime.now())) {
+                        persistentHits.incrementAndGet();
+                        putMemory(key, row.getContent());
+                        return Optional.of(row.getContent());
+                    }
+                    writer.execute(() -> repository.deleteById(key));
+                }
+            } catch (Exception e) {
+                log.warn("[TailoringCache] Persistent lookup failed: {}", e.toString());
+            }
+        }
+
+        misses.incrementAndGet();
+        return Optional.empty();
+    }
+
+    public void put(String key, String content) {
+        if (!enabled || content == null || content.isBlank()) return;
+
+        putMemory(key, content);
+        if (persistent) {
+            LocalDateTime now = LocalDateTime.now();
+            TailoringCacheEntry row = TailoringCacheEntry.builder()
+                    .cacheKey(key)
+                    .content(content)
+                    .createdAt(now)
+                    .expiresAt(now.plusHours(persistentTtlHours))
+                    .build();
+            writer.execute(() -> {
+                try {
+                    repository.save(row);
+                } catch (Exception e) {
+                    log.warn("[TailoringCache] Persisting entry failed: {}", e.toString());
+                }
+            });
+        }
+    }
+
+    public Map<String, Object> stats() {
+        int size;
+        synchronized (memory) {
+            size = memory.size();
+        }
+        return Map.of(
+                "memoryEntries", size,
+                "memoryHits", memoryHits.get(),
+                "persistentHits", persistentHits.get(),
+                "misses", misses.get()
+        );
+    }
+
+    private void putMemory(String key, String content) {
+        long expiresAt = System.currentTimeMillis() + ttlMinutes * 60_000;
+        synchronized (memory) {
+            memory.put(key, new MemoryEntry(content, expiresAt));
+        }
+    }
+}
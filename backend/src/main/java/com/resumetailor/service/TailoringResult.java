@@ -0,0 +1,23 @@
+package com.resumetailor.service;
+
+import java.util.Map;
+
+/**
+ * Generated resume text; {@code degraded} marks output from the local fallback engine rather than the model.
+ * {@code analysis} is the ATS analysis of {@code text} when it came with the generation (fused prompt or
+ * local fallback), in the same shape as {@link AIService#calculateATSScoreWithAI}; otherwise null.
+ */
+public record TailoringResult(String text, boolean degraded, Map<String, Object> analysis) {
+
+    public static TailoringResult generated(String text) {
+        return new TailoringResult(text, false, null);
+    }
+
+    public static TailoringResult generated(String text, Map<String, Object> analysis) {
+        return new TailoringResult(text, false, analysis);
+    }
+
+    public static TailoringResult fallback(String text, Map<String, Object> analysis) {
+        return new TailoringResult(text, true, analysis);
+    }
+}
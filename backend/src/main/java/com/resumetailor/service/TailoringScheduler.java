@@ -0,0 +1,262 @@
+package com.resumetailor.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Admits AI work ({@link AIService} calls) by priority class and client.
+ * <p>
+ * At most {@code ai.scheduler.max-concurrent} jobs run at once, and {@code interactive-reserved} of
+ * those slots are only ever given to INTERACTIVE work, so a user at the UI does not wait for a long
+ * batch generation to finish. Waiting jobs are queued per (class, client) flow and dispatched by
+ * weighted fair queuing: each job gets a virtual finish tag
+ * {@code max(virtual time, flow's last tag) + 1/weight},
+ * the weight being the class weight, and the smallest tag runs next. A backlogged interactive flow
+ * therefore gets {@code weight.interactive / weight.batch} times the slots of a batch flow, clients
+ * of one class share their class's slots evenly, and capacity nobody else wants goes to whoever
+ * is waiting. Idle flows do not bank credit.
+ * <p>
+ * A full class queue rejects with {@link UpstreamRejectedException}; a job whose deadline ends while
+ * it waits is dropped with {@link DeadlineExceededException}.
+ */
+@Service
+public class TailoringScheduler {
+    private static final Logger log = LoggerFactory.getLogger(TailoringScheduler.class);
+
+    public enum Priority { INTERACTIVE, BATCH, BACKGROUND }
+
+    @Value("${ai.scheduler.max-concurrent:8}")
+    private int maxConcurrent;
+
+    @Value("${ai.scheduler.interactive-reserved:2}")
+    private int interactiveReserved;
+
+    @Value("${ai.scheduler.max-queued:200}")
+    private int maxQueued;
+
+    @Value("${ai.scheduler.weight.interactive:16}")
+    private double interactiveWeight;
+
+    @Value("${ai.scheduler.weight.batch:2}")
+    private double batchWeight;
+
+    @Value("${ai.scheduler.weight.background:1}")
+    private double backgroundWeight;
+
+    @Value("${ai.scheduler.retry-after-ms:2000}")
+    private long retryAfterMs;
+
+    private final Map<String, Flow> flows = new HashMap<>();
+    private final Map<Priority, ClassStats> classes = new EnumMap<>(Priority.class);
+    private double virtualTime;
+    private long sequence;
+    private int running;
+
+    public TailoringScheduler() {
+        for (Priority priority : Priority.values()) {
+            classes.put(priority, new ClassStats());
+        }
+    }
+
+    /**
+     * Runs {@code job} once a slot is granted and holds the slot until its future completes.
+     */
+    public <T> CompletableFuture<T> submit(Priority priority, String client, Deadline deadline,
+                                           Supplier<CompletableFuture<T>> job) {
+        Job<T> queued = new Job<>(priority, client == null || client.isBlank() ? "anonymous" : client, job);
+        boolean startNow;
+        synchronized (this) {
+            ClassStats stats = classes.get(priority);
+            startNow = canStart(priority) && stats.queued == 0;
+            if (startNow) {
+                start(queued, 0);
+            } else if (stats.queued >= maxQueued) {
+                stats.rejected++;
+                return CompletableFuture.failedFuture(new UpstreamRejectedException(
+                        "Too many " + priority.name().toLowerCase() + " requests queued, please retry shortly",
+                        retryAfterMs));
+            } else {
+                enqueue(queued);
+            }
+        }
+        if (startNow) {
+            run(queued);
+        } else {
+            deadline.onEnd(() -> expire(queued));
+        }
+        return queued.result;
+    }
+
+    public synchronized Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("running", running);
+        stats.put("maxConcurrent", maxConcurrent);
+        stats.put("flows", flows.size());
+        Map<String, Object> perClass = new LinkedHashMap<>();
+        classes.forEach((priority, c) -> perClass.put(priority.name().toLowerCase(), c.toMap()));
+        stats.put("classes", perClass);
+        return stats;
+    }
+
+    private boolean canStart(Priority priority) {
+        int limit = priority == Priority.INTERACTIVE
+                ? maxConcurrent
+                : Math.max(1, maxConcurrent - interactiveReserved);
+        return running < limit;
+    }
+
+    private double weight(Priority priority) {
+        return switch (priority) {
+            case INTERACTIVE -> interactiveWeight;
+            case BATCH -> batchWeight;
+            case BACKGROUND -> backgroundWeight;
+        };
+    }
+
+    private void enqueue(Job<?> job) {
+        Flow flow = flows.computeIfAbsent(job.priority + "/" + job.client, k -> new Flow(job.priority));
+        job.finishTag = Math.max(virtualTime, flow.lastFinishTag) + 1 / Math.max(0.001, weight(job.priority));
+        job.sequence = sequence++;
+        job.enqueuedAt = System.currentTimeMillis();
+        flow.lastFinishTag = job.finishTag;
+        flow.jobs.addLast(job);
+        classes.get(job.priority).queued++;
+    }
+
+    private void start(Job<?> job, long waitedMs) {
+        running++;
+        job.startedAt = System.currentTimeMillis();
+        ClassStats stats = classes.get(job.priority);
+        stats.running++;
+        stats.admitted++;
+        stats.totalWaitMs += waitedMs;
+        stats.maxWaitMs = Math.max(stats.maxWaitMs, waitedMs);
+    }
+
+    private <T> void run(Job<T> job) {
+        CompletableFuture<T> call;
+        try {
+            call = job.call.get();
+        } catch (RuntimeException ex) {
+            call = CompletableFuture.failedFuture(ex);
+        }
+        call.whenComplete((value, ex) -> {
+            synchronized (this) {
+                running--;
+                classes.get(job.priority).running--;
+            }
+            if (ex != null) job.result.completeExceptionally(ex);
+            else job.result.complete(value);
+            dispatch();
+        });
+    }
+
+    private void dispatch() {
+        while (true) {
+            Job<?> next;
+            synchronized (this) {
+                next = pollNext();
+                if (next == null) return;
+                start(next, System.currentTimeMillis() - next.enqueuedAt);
+            }
+            run(next);
+        }
+    }
+
+    /** Removes and returns the startable head with the smallest finish tag, or null. */
+    private Job<?> pollNext() {
+        Flow best = null;
+        for (Flow flow : flows.values()) {
+            Job<?> head = flow.jobs.peekFirst();
+            if (head == null || !canStart(flow.priority)) continue;
+            Job<?> bestHead = best == null ? null : best.jobs.peekFirst();
+            if (bestHead == null || head.finishTag < bestHead.finishTag
+                    || (head.finishTag == bestHead.finishTag && head.sequence < bestHead.sequence)) {
+                best = flow;
+            }
+        }
+        if (best == null) return null;
+        Job<?> next = best.jobs.pollFirst();
+        classes.get(next.priority).queued--;
+        virtualTime = Math.max(virtualTime, next.finishTag);
+        if (best.jobs.isEmpty()) {
+            flows.values().remove(best);
+        }
+        return next;
+    }
+
+    private void expire(Job<?> job) {
+        synchronized (this) {
+            if (job.startedAt != 0) return;
+            Flow flow = flows.get(job.priority + "/" + job.client);
+            if (flow == null || !flow.jobs.remove(job)) return;
+            if (flow.jobs.isEmpty()) flows.remove(job.priority + "/" + job.client);
+            ClassStats stats = classes.get(job.priority);
+            stats.queued--;
+            stats.expired++;
+        }
+        log.info("[TailoringScheduler] Dropped queued {} job for {}: deadline ended",
+                job.priority.name().toLowerCase(), job.client);
+        job.result.completeExceptionally(
+                new DeadlineExceededException("Skipped queued tailoring: request deadline ended"));
+    }
+
+    private static final class Flow {
+        private final Priority priority;
+        private final ArrayDeque<Job<?>> jobs = new ArrayDeque<>();
+        private double lastFinishTag;
+
+        Flow(Priority priority) {
+            this.priority = priority;
+        }
+    }
+
+    private static final class Job<T> {
+        private final Priority priority;
+        private final String client;
+        private final Supplier<CompletableFuture<T>> call;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        private double finishTag;
+        private long sequence;
+        private long enqueuedAt;
+        private long startedAt;
+
+        Job(Priority priority, String client, Supplier<CompletableFuture<T>> call) {
+            this.priority = priority;
+            this.client = client;
+            this.call = call;
+        }
+    }
+
+    private static final class ClassStats {
+        private int queued;
+        private int running;
+        private long admitted;
+        private long rejected;
+        private long expired;
+        private long totalWaitMs;
+        private long maxWaitMs;
+
+        Map<String, Object> toMap() {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("queued", queued);
+            stats.put("running", running);
+            stats.put("admitted", admitted);
+            stats.put("rejected", rejected);
+            stats.put("expired", expired);
+            stats.put("avgWaitMs", admitted == 0 ? 0 : totalWaitMs / admitted);
+            stats.put("maxWaitMs", maxWaitMs);
+            return stats;
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package com.resumetailor.service;
+
+import com.resumetailor.dto.TailoredResumeResponse;
+import com.resumetailor.model.Job;
+import com.resumetailor.model.Resume;
+import com.resumetailor.model.TailoringTask;
+import com.resumetailor.repository.JobRepository;
+import com.resumetailor.repository.ResumeRepository;
+import com.resumetailor.repository.TailoringTaskRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Queue-backed tailoring. Submissions are written to {@code tailoring_tasks} and return at once;
+ * a single dispatcher thread claims runnable rows and keeps at most {@code ai.tasks.workers}
+ * of them in flight. Rows left RUNNING by a crash or restart are re-queued at startup, and
+ * tasks rejected for upstream overload are re-queued after the advertised delay. Generations run as
+ * BACKGROUND work in the {@link TailoringScheduler}, behind interactive and batch requests.
+ */
+@Service
+public class TailoringTaskService {
+    private static final Logger log = LoggerFactory.getLogger(TailoringTaskService.class);
+
+    /** Tasks carry no caller identity, so they share one BACKGROUND flow in the scheduler. */
+    private static final String TASK_CLIENT = "tasks";
+
+    @Value("${ai.tasks.workers:4}")
+    private int workers;
+
+    @Value("${ai.tasks.max-queued:1000}")
+    private long maxQueued;
+
+    @Value("${ai.tasks.poll-interval-ms:2000}")
+    private long pollIntervalMs;
+
+    @Value("${ai.tasks.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${ai.tasks.retry-delay-ms:5000}")
+    private long retryDelayMs;
+
+    @Autowired
+    private TailoringTaskRepository taskRepository;
+
+    @Autowired
+    private ResumeRepository resumeRepository;
+
+    @Autowired
+    private JobRepository jobRepository;
+
+    @Autowired
+    private AIService aiService;
+
+    @Autowired
+    private JobDigestService jobDigestService;
+
+    @Autowired
+    private TailoredResumeService tailoredResumeService;
+
+    @Autowired
+    private TailoringScheduler scheduler;
+
+    private ScheduledExecutorService dispatcher;
+    /** Current stage of each in-flight task, reported by status calls before it is persisted. */
+    private final Map<String, String> running = new ConcurrentHashMap<>();
+    private volatile boolean ready;
+
+    @PostConstruct
+    void init() {
+        dispatcher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "tailoring-task-dispatcher");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        dispatcher.shutdownNow();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void start() {
+        int requeued = taskRepository.requeueInterrupted();
+        if (requeued > 0) {
+            log.info("[TailoringTaskService] Re-queued {} tasks interrupted by the last shutdown", requeued);
+        }
+        ready = true;
+        dispatcher.scheduleWithFixedDelay(this::dispatch, 0, pollIntervalMs, TimeUnit.MILLISECONDS);
+        log.info("[TailoringTaskService] workers={}, maxQueued={}, pollInterval={}ms", workers, maxQueued, pollIntervalMs);
+    }
+
+    /**
+     * Persists a new task. Fails with {@link UpstreamRejectedException} when the queue is full.
+     */
+    public TailoringTask submit(Long resumeId, Long jobId) {
+        if (taskRepository.countByStatus(TailoringTask.Status.QUEUED) >= maxQueued) {
+            throw new UpstreamRejectedException("Tailoring queue is full, please retry shortly", retryDelayMs);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        TailoringTask task = taskRepository.save(TailoringTask.builder()
+                .id(UUID.randomUUID().toString())
+                .resumeId(resumeId)
+                .jobId(jobId)
+                .status(TailoringTask.Status.QUEUED)
+                .stage("queued")
+                .createdAt(now)
+                .runAfter(now)
+                .build());
+
+        if (ready) dispatcher.execute(this::dispatch);
+        return task;
+    }
+
+    public Optional<TailoringTask> find(String taskId) {
+        return taskRepository.findById(taskId);
+    }
+
+    public String stage(TailoringTask task) {
+        return task.getStatus() == TailoringTask.Status.RUNNING
+                ? running.getOrDefault(task.getId(), task.getStage())
+                : task.getStage();
+    }
+
+    /** Coarse progress by stage: queued 0, generating 10, saving 90, finished 100. */
+    public int progress(TailoringTask task) {
+        return switch (task.getStatus()) {
+            case QUEUED -> 0;
+            case SUCCEEDED, FAILED -> 100;
+            case RUNNING -> "saving".equals(stage(task)) ? 90 : 10;
+        };
+    }
+
+    /** Number of queued tasks ahead of this one, or null once it has left the queue. */
+    public Long queuePosition(TailoringTask task) {
+        if (task.getStatus() != TailoringTask.Status.QUEUED) return null;
+        return taskRepository.countByStatusAndCreatedAtBefore(TailoringTask.Status.QUEUED, task.getCreatedAt());
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("workers", workers);
+        stats.put("running", running.size());
+        stats.put("queued", taskRepository.countByStatus(TailoringTask.Status.QUEUED));
+        return stats;
+    }
+
+    private void dispatch() {
+        if (!ready) return;
+        try {
+            while (running.size() < workers) {
+                LocalDateTime now = LocalDateTime.now();
+                List<TailoringTask> next = taskRepository.findRunnable(now, PageRequest.of(0, workers - running.size()));
+                if (next.isEmpty()) return;
+                for (TailoringTask task : next) {
+                    if (taskRepository.claim(task.getId(), now) == 1) {
+                        task.setStatus(TailoringTask.Status.RUNNING);
+                        task.setStartedAt(now);
+                        task.setAttempts(task.getAttempts() + 1);
+                        run(task);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            log.warn("[TailoringTaskService] Dispatch failed: {}", e.toString());
+        }
+    }
+
+    private void run(TailoringTask task) {
+        running.put(task.getId(), "generating");
+        log.info("[TailoringTaskService] Task {} started (resume {}, job {}, attempt {})",
+                task.getId(), task.getResumeId(), task.getJobId(), task.getAttempts());
+
+        Optional<Resume> resumeOpt = resumeRepository.findById(task.getResumeId());
+        Optional<Job> jobOpt = jobRepository.findById(task.getJobId());
+        if (resumeOpt.isEmpty() || jobOpt.isEmpty()) {
+            complete(task, null, new IllegalStateException(resumeOpt.isEmpty() ? "Resume not found" : "Job not found"));
+            return;
+        }
+        Resume resume = resumeOpt.get();
+        Job job = jobOpt.get();
+
+        CompletableFuture<TailoringResult> generation;
+        try {
+            generation = scheduler.submit(TailoringScheduler.Priority.BACKGROUND, TASK_CLIENT, Deadline.none(),
+                    () -> aiService.generateTailoredResumeAsync(resume.getContent(), jobDigestService.promptText(job)));
+        } catch (RuntimeException e) {
+            generation = CompletableFuture.failedFuture(e);
+        }
+        generation
+                .thenApply(result -> {
+                    running.put(task.getId(), "saving");
+                    return tailoredResumeService.save(resume, job, result);
+                })
+                .whenComplete((response, ex) -> dispatcher.execute(() -> {
+                    complete(task, response, ex);
+                    dispatch();
+                }));
+    }
+
+    private void complete(TailoringTask task, TailoredResumeResponse response, Throwable ex) {
+        running.remove(task.getId());
+        Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+        LocalDateTime now = LocalDateTime.now();
+
+        if (cause == null) {
+            task.setStatus(TailoringTask.Status.SUCCEEDED);
+            task.setStage("done");
+            task.setTailoredResumeId(response.getId());
+            task.setError(null);
+            task.setFinishedAt(now);
+        } else if (AIService.isOverload(cause) && task.getAttempts() < maxAttempts) {
+            long delay = retryAfterMs(cause);
+            task.setStatus(TailoringTask.Status.QUEUED);
+            task.setStage("queued");
+            task.setRunAfter(now.plusNanos(delay * 1_000_000));
+            task.setError(truncate(cause.getMessage()));
+            log.info("[TailoringTaskService] Task {} re-queued in {}ms after upstream overload", task.getId(), delay);
+        } else {
+            task.setStatus(TailoringTask.Status.FAILED);
+            task.setStage("failed");
+            task.setError(truncate(cause.getMessage()));
+            task.setFinishedAt(now);
+            log.error("[TailoringTaskService] Task {} failed: {}", task.getId(), cause.getMessage());
+        }
+
+        try {
+            taskRepository.save(task);
+        } catch (Exception e) {
+            log.error("[TailoringTaskService] Could not record outcome of task {}: {}", task.getId(), e.toString());
+        }
+    }
+
+    private long retryAfterMs(Throwable cause) {
+        long hinted = -1;
+        if (cause instanceof UpstreamRejectedException rejected) {
+            hinted = rejected.getRetryAfterMs();
+        } else if (cause instanceof LlmException upstream) {
+            hinted = upstream.getRetryAfterMs();
+        }
+        return Math.max(hinted, retryDelayMs);
+    }
+
+    private static String truncate(String message) {
+        if (message == null) return "Unknown error";
+        return message.length() > 1000 ? message.substring(0, 1000) : message;
+    }
+}
@@ -0,0 +1,203 @@
+package com.resumetailor.service;
+
+import com.resumetailor.model.Term;
+import com.resumetailor.repository.TermRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Stable integer ids for tokens, persisted in {@code terms} and held in memory. Job descriptions
+ * {@link #internAll intern} their terms when they are indexed; resumes only {@link #idOf look them up},
+ * since a resume token no job has ever used cannot match anything.
+ * <p>
+ * Ids are assigned by the database, so several instances share one dictionary; an index carrying ids
+ * this instance has not seen yet makes it load the newer entries first ({@link #ensureKnown}).
+ * A job's new terms are stored in one batch, without holding the dictionary lock, so lookups and
+ * other jobs' interning never wait on the database. Outside Spring (benchmarks) there is no
+ * repository and ids are assigned in memory.
+ * <p>
+ * Tokens longer than {@value #MAX_TERM_LENGTH} characters (the column width) are keyed by their
+ * first {@value #MAX_TERM_LENGTH}: two such tokens sharing that prefix are one term here, where the
+ * String-based scoring told them apart, so for them scores are not identical to the old ones.
+ * <p>
+ * The in-memory table is open-addressed and insert-only. Lookups take no lock and can be made
+ * straight from a {@link TermScanner} position, so scoring a resume creates no token Strings;
+ * inserts and resizes are serialised, and a resize publishes a complete new table.
+ */
+@Service
+public class TermDictionary {
+    private static final Logger log = LoggerFactory.getLogger(TermDictionary.class);
+
+    /** Column width of {@code terms.term}; longer tokens are keyed by their prefix on both sides. */
+    static final int MAX_TERM_LENGTH = 255;
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    @Autowired(required = false)
+    private TermRepository termRepository;
+
+    private volatile AtomicReferenceArray<Entry> table = new AtomicReferenceArray<>(INITIAL_CAPACITY);
+    private volatile AtomicReferenceArray<String> byId = new AtomicReferenceArray<>(INITIAL_CAPACITY);
+    private int size;
+    private volatile int maxId;
+
+    private record Entry(String term, int hash, int id) {}
+
+    @PostConstruct
+    void load() {
+        if (termRepository == null) return;
+        List<Term> terms = termRepository.findAll();
+        add(terms);
+        log.info("[TermDictionary] Loaded {} terms", terms.size());
+    }
+
+    /** Id of {@code term}, or -1 if no indexed job uses it. */
+    public int idOf(String term) {
+        String key = key(term);
+        AtomicReferenceArray<Entry> t = table;
+        int mask = t.length() - 1;
+        for (int i = spread(key.hashCode()) & mask; ; i = (i + 1) & mask) {
+            Entry e = t.get(i);
+            if (e == null) return -1;
+            if (e.hash == key.hashCode() && e.term.equals(key)) return e.id;
+        }
+    }
+
+    /** Id of the token {@code scanner} is on, or -1; allocates nothing. */
+    public int idOf(TermScanner scanner) {
+        int hash = scanner.hash();
+        AtomicReferenceArray<Entry> t = table;
+        int mask = t.length() - 1;
+        for (int i = spread(hash) & mask; ; i = (i + 1) & mask) {
+            Entry e = t.get(i);
+            if (e == null) return -1;
+            if (e.hash == hash && scanner.matches(e.term)) return e.id;
+        }
+    }
+
+    /** The term with id {@code id}, or null if it is not known here. */
+    public String termOf(int id) {
+        AtomicReferenceArray<String> terms = byId;
+        return id >= 0 && id < terms.length() ? terms.get(id) : null;
+    }
+
+    /** Id of {@code term}, assigning (and storing) a new one if needed. */
+    public int intern(String term) {
+        return internAll(List.of(term))[0];
+    }
+
+    /** Ids of {@code terms}, in order; terms not seen before are stored together first. */
+    public int[] internAll(List<String> terms) {
+        int[] ids = new int[terms.size()];
+        Set<String> missing = new LinkedHashSet<>();
+        for (int i = 0; i < ids.length; i++) {
+            String key = key(terms.get(i));
+            ids[i] = idOf(key);
+            if (ids[i] < 0) missing.add(key);
+        }
+        if (missing.isEmpty()) return ids;
+
+        if (termRepository == null) {
+            synchronized (this) {
+                for (String key : missing) {
+                    if (idOf(key) < 0) put(key, maxId + 1);
+                }
+            }
+        } else {
+            add(store(missing));
+        }
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] < 0) ids[i] = idOf(key(terms.get(i)));
+        }
+        return ids;
+    }
+
+    /** Stores {@code keys}, or finds the rows another thread or instance stored first. */
+    private List<Term> store(Set<String> keys) {
+        try {
+            return termRepository.saveAll(keys.stream().map(key -> Term.builder().term(key).build()).toList());
+        } catch (DataIntegrityViolationException e) {
+            // The batch rolled back; take the rows one at a time
+            List<Term> stored = new ArrayList<>(keys.size());
+            for (String key : keys) {
+                try {
+                    stored.add(termRepository.save(Term.builder().term(key).build()));
+                } catch (DataIntegrityViolationException duplicate) {
+                    stored.add(termRepository.findByTerm(key).orElseThrow(() -> duplicate));
+                }
+            }
+            return stored;
+        }
+    }
+
+    /** Loads entries added by other instances when {@code id} is newer than anything known here. */
+    public void ensureKnown(int id) {
+        if (id <= maxId || termRepository == null) return;
+        synchronized (this) {
+            if (id <= maxId) return;
+            List<Term> newer = termRepository.findByIdGreaterThan(maxId);
+            add(newer);
+            log.info("[TermDictionary] Loaded {} terms added elsewhere", newer.size());
+        }
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    private synchronized void add(List<Term> terms) {
+        for (Term term : terms) {
+            if (idOf(term.getTerm()) < 0) put(term.getTerm(), term.getId());
+        }
+    }
+
+    /** Caller holds the lock and has checked that {@code key} is absent. */
+    private void put(String key, int id) {
+        if (2 * (size + 1) > table.length()) {
+            AtomicReferenceArray<Entry> bigger = new AtomicReferenceArray<>(table.length() * 2);
+            for (int i = 0; i < table.length(); i++) {
+                Entry e = table.get(i);
+                if (e != null) insert(bigger, e);
+            }
+            table = bigger;
+        }
+        insert(table, new Entry(key, key.hashCode(), id));
+        if (id >= byId.length()) {
+            AtomicReferenceArray<String> bigger = new AtomicReferenceArray<>(Math.max(id + 1, byId.length() * 2));
+            for (int i = 0; i < byId.length(); i++) {
+                bigger.set(i, byId.get(i));
+            }
+            byId = bigger;
+        }
+        byId.set(id, key);
+        size++;
+        maxId = Math.max(maxId, id);
+    }
+
+    private static void insert(AtomicReferenceArray<Entry> t, Entry entry) {
+        int mask = t.length() - 1;
+        int i = spread(entry.hash) & mask;
+        while (t.get(i) != null) {
+            i = (i + 1) & mask;
+        }
+        t.set(i, entry);
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static String key(String term) {
+        return term.length() > MAX_TERM_LENGTH ? term.substring(0, MAX_TERM_LENGTH) : term;
+    }
+}
@@ -0,0 +1,109 @@
+package com.resumetailor.service;
+
+/**
+ * Walks the ATS tokens of a text in place: maximal runs of {@code [a-z0-9+.#]} after lower-casing,
+ * at least two characters long, exactly as {@code TOKENIZER.split(text.toLowerCase())} followed by the
+ * length filter would produce them, but without the lower-cased copy, the split array or any token
+ * String. Each {@link #next} positions the scanner on one token; {@link #hash} and {@link #matches}
+ * let {@link TermDictionary} look it up directly, and {@link #term} materialises it when needed.
+ * <p>
+ * The only non-ASCII characters {@link String#toLowerCase()} turns into token characters are
+ * U+212A KELVIN SIGN (to {@code k}) and U+0130 (to {@code i} followed by a combining dot, which
+ * ends the token); both are handled here so token boundaries match. Like the regex path this
+ * assumes a default locale without Turkic casing rules.
+ */
+public final class TermScanner {
+
+    static final char DOTTED_CAPITAL_I = '\u0130';
+    private static final char KELVIN_SIGN = '\u212A';
+
+    private final String text;
+    private int position;
+    private int start;
+    private int end;
+    private int hash;
+
+    public TermScanner(String text) {
+        this.text = text;
+    }
+
+    /** Advances to the next token; false at the end of the text. */
+    public boolean next() {
+        int length = text.length();
+        while (position < length) {
+            while (position < length && lower(text.charAt(position)) < 0) {
+                position++;
+            }
+            start = position;
+            int h = 0;
+            int hashed = 0;
+            while (position < length) {
+                char c = text.charAt(position);
+                int l = lower(c);
+                if (l < 0) break;
+                if (hashed < TermDictionary.MAX_TERM_LENGTH) {
+                    h = 31 * h + l;
+                    hashed++;
+                }
+                position++;
+                if (c == DOTTED_CAPITAL_I) break;
+            }
+            end = position;
+            if (end - start > 1) {
+                hash = h;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Token length in characters. */
+    public int length() {
+        return end - start;
+    }
+
+    /**
+     * Same value as {@code term().hashCode()} for the dictionary key of this token (its first
+     * {@link TermDictionary#MAX_TERM_LENGTH} characters).
+     */
+    int hash() {
+        return hash;
+    }
+
+    /** True if the dictionary key of this token equals {@code key}. */
+    boolean matches(String key) {
+        int n = Math.min(end - start, TermDictionary.MAX_TERM_LENGTH);
+        if (key.length() != n) return false;
+        for (int i = 0; i < n; i++) {
+            if (key.charAt(i) != lower(text.charAt(start + i))) return false;
+        }
+        return true;
+    }
+
+    /** True if the token equals {@code word}, which must be lower-case. */
+    public boolean is(String word) {
+        if (word.length() != end - start) return false;
+        for (int i = 0; i < word.length(); i++) {
+            if (word.charAt(i) != lower(text.charAt(start + i))) return false;
+        }
+        return true;
+    }
+
+    /** The token as a new lower-case String. */
+    public String term() {
+        char[] chars = new char[end - start];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = (char) lower(text.charAt(start + i));
+        }
+        return new String(chars);
+    }
+
+    /** The token character {@code c} lower-cases to, or -1 if it separates tokens. */
+    static int lower(char c) {
+        if (c >= 'a' && c <= 'z' || c >= '0' && c <= '9' || c == '+' || c == '.' || c == '#') return c;
+        if (c >= 'A' && c <= 'Z') return c + ('a' - 'A');
+        if (c == KELVIN_SIGN) return 'k';
+        if (c == DOTTED_CAPITAL_I) return 'i';
+        return -1;
+    }
+}
@@ -0,0 +1,50 @@
+package com.resumetailor.service;
+
+/**
+ * Offline token-count estimate shaped after Llama-3's BPE pre-tokenizer:
+ * a letter run costs one token per ~6 characters (common words are a single token),
+ * digits are grouped in threes, every other symbol or non-ASCII character costs one,
+ * spaces fold into the following word and a run of newlines costs one.
+ * It errs slightly high so prompts built against it stay inside the real window.
+ */
+public final class TokenEstimator {
+
+    private static final int LETTERS_PER_TOKEN = 6;
+    private static final int DIGITS_PER_TOKEN = 3;
+
+    private TokenEstimator() {
+    }
+
+    public static int estimate(CharSequence text) {
+        if (text == null) return 0;
+
+        int tokens = 0;
+        int i = 0;
+        int n = text.length();
+        while (i < n) {
+            char c = text.charAt(i);
+            if (isLetter(c)) {
+                int start = i;
+                while (i < n && isLetter(text.charAt(i))) i++;
+                tokens += (i - start + LETTERS_PER_TOKEN - 1) / LETTERS_PER_TOKEN;
+            } else if (c >= '0' && c <= '9') {
+                int start = i;
+                while (i < n && text.charAt(i) >= '0' && text.charAt(i) <= '9') i++;
+                tokens += (i - start + DIGITS_PER_TOKEN - 1) / DIGITS_PER_TOKEN;
+            } else if (c == '\n' || c == '\r') {
+                while (i < n && (text.charAt(i) == '\n' || text.charAt(i) == '\r')) i++;
+                tokens++;
+            } else if (c == ' ' || c == '\t') {
+                i++;
+            } else {
+                tokens++;
+                i++;
+            }
+        }
+        return tokens;
+    }
+
+    private static boolean isLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+}
@@ -0,0 +1,250 @@
+package com.resumetailor.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.net.http.HttpTimeoutException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Admission control for the inference endpoint.
+ * <ul>
+ *   <li>At most {@code limit} calls run at once; the limit adapts AIMD-style, growing by one per
+ *       window of healthy calls and halving on 429/503/5xx/timeouts or latency above the threshold.</li>
+ *   <li>Callers over the limit wait in a bounded FIFO queue; a full queue or a wait longer than
+ *       {@code queue-timeout-ms} fails fast with {@link UpstreamRejectedException}.</li>
+ *   <li>A 429/503 pauses dispatch for the upstream's {@code Retry-After} and the call is retried
+ *       up to {@code max-retries} times after that delay. A retried call may wait out the pause on
+ *       top of its queue timeout; a pause longer than {@code queue-timeout-ms} is not worth waiting
+ *       for, so the 429/503 is returned at once instead.</li>
+ * </ul>
+ */
+@Service
+public class UpstreamBulkhead {
+    private static final Logger log = LoggerFactory.getLogger(UpstreamBulkhead.class);
+
+    @Value("${llm.bulkhead.max-concurrency:16}")
+    private int maxConcurrency;
+
+    @Value("${llm.bulkhead.min-concurrency:1}")
+    private int minConcurrency;
+
+    @Value("${llm.bulkhead.queue-size:50}")
+    private int queueSize;
+
+    @Value("${llm.bulkhead.queue-timeout-ms:10000}")
+    private long queueTimeoutMs;
+
+    @Value("${llm.bulkhead.latency-threshold-ms:45000}")
+    private long latencyThresholdMs;
+
+    @Value("${llm.bulkhead.default-retry-after-ms:2000}")
+    private long defaultRetryAfterMs;
+
+    @Value("${llm.bulkhead.max-retries:1}")
+    private int maxRetries;
+
+    private final Deque<Waiter<?>> queue = new ArrayDeque<>();
+    private ScheduledExecutorService timer;
+    private double limit;
+    private int active;
+    private long pausedUntil;
+    private ScheduledFuture<?> resumeTask;
+
+    private long admitted;
+    private long rejected;
+    private long retried;
+    private long decreases;
+
+    private static final class Waiter<T> {
+        final Supplier<CompletableFuture<T>> call;
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        int attempt;
+        ScheduledFuture<?> timeout;
+
+        Waiter(Supplier<CompletableFuture<T>> call) {
+            this.call = call;
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        limit = maxConcurrency;
+        timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "llm-bulkhead-timer");
+            t.setDaemon(true);
+            return t;
+        });
+        log.info("[UpstreamBulkhead] maxConcurrency={}, queueSize={}, queueTimeout={}ms, latencyThreshold={}ms",
+                maxConcurrency, queueSize, queueTimeoutMs, latencyThresholdMs);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        timer.shutdownNow();
+    }
+
+    public <T> CompletableFuture<T> submit(Supplier<CompletableFuture<T>> call) {
+        Waiter<T> waiter = new Waiter<>(call);
+        enqueue(waiter, false);
+        return waiter.result;
+    }
+
+    public synchronized Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("limit", (int) limit);
+        stats.put("active", active);
+        stats.put("queued", queue.size());
+        stats.put("admitted", admitted);
+        stats.put("rejected", rejected);
+        stats.put("retried", retried);
+        stats.put("limitDecreases", decreases);
+        stats.put("pausedForMs", Math.max(0, pausedUntil - System.currentTimeMillis()));
+        return stats;
+    }
+
+    private <T> void enqueue(Waiter<T> waiter, boolean retry) {
+        synchronized (this) {
+            if (!retry && queue.isEmpty() && canStart()) {
+                active++;
+                admitted++;
+            } else if (!retry && queue.size() >= queueSize) {
+                rejected++;
+                waiter.result.completeExceptionally(new UpstreamRejectedException(
+                        "Upstream capacity exhausted, please retry shortly", retryAfterHint()));
+                return;
+            } else {
+                // A retry queues behind the Retry-After pause, which must not count against it
+                long timeoutMs = retry ? queueTimeoutMs + Math.max(0, pausedUntil - System.currentTimeMillis()) : queueTimeoutMs;
+                waiter.timeout = timer.schedule(() -> expire(waiter), timeoutMs, TimeUnit.MILLISECONDS);
+                if (retry) queue.addFirst(waiter);
+                else queue.addLast(waiter);
+                scheduleResume();
+                return;
+            }
+        }
+        start(waiter);
+    }
+
+    private <T> void expire(Waiter<T> waiter) {
+        synchronized (this) {
+            if (!queue.remove(waiter)) return;
+            rejected++;
+        }
+        waiter.result.completeExceptionally(new UpstreamRejectedException(
+                "Timed out waiting for upstream capacity", retryAfterHint()));
+    }
+
+    private <T> void start(Waiter<T> waiter) {
+        long started = System.currentTimeMillis();
+        CompletableFuture<T> call;
+        try {
+            call = waiter.call.get();
+        } catch (RuntimeException ex) {
+            call = CompletableFuture.failedFuture(ex);
+        }
+        call.whenComplete((value, ex) -> {
+            Throwable cause = unwrap(ex);
+            long latency = System.currentTimeMillis() - started;
+            boolean retry = onComplete(latency, cause, waiter.attempt);
+            if (retry) {
+                waiter.attempt++;
+                enqueue(waiter, true);
+            } else if (cause != null) {
+                waiter.result.completeExceptionally(cause);
+            } else {
+                waiter.result.complete(value);
+            }
+            dispatch();
+        });
+    }
+
+    /**
+     * Releases the slot and adapts the limit. Returns true when the call should be retried.
+     */
+    private synchronized boolean onComplete(long latencyMs, Throwable cause, int attempt) {
+        active--;
+        LlmException upstream = cause instanceof LlmException le ? le : null;
+        boolean overload = upstream != null && upstream.isOverload();
+        boolean unhealthy = overload
+                || (upstream != null && upstream.getStatusCode() >= 500)
+                || cause instanceof HttpTimeoutException
+                || latencyMs > latencyThresholdMs;
+
+        if (unhealthy) {
+            limit = Math.max(minConcurrency, limit / 2);
+            decreases++;
+            log.warn("[UpstreamBulkhead] Upstream unhealthy (latency={}ms, error={}), limit -> {}",
+                    latencyMs, cause == null ? "none" : cause.toString(), (int) limit);
+        } else if (cause == null) {
+            limit = Math.min(maxConcurrency, limit + 1.0 / Math.max(1.0, limit));
+        }
+
+        if (overload) {
+            long delay = upstream.getRetryAfterMs() > 0 ? upstream.getRetryAfterMs() : defaultRetryAfterMs;
+            pausedUntil = Math.max(pausedUntil, System.currentTimeMillis() + delay);
+            if (attempt < maxRetries && delay <= queueTimeoutMs) {
+                retried++;
+                return true;
+            }
+            if (attempt < maxRetries) {
+                log.info("[UpstreamBulkhead] Not retrying: Retry-After {}ms exceeds the {}ms queue timeout", delay, queueTimeoutMs);
+            }
+        }
+        return false;
+    }
+
+    private void dispatch() {
+        while (true) {
+            Waiter<?> next;
+            synchronized (this) {
+                if (queue.isEmpty() || !canStart()) {
+                    scheduleResume();
+                    return;
+                }
+                next = queue.pollFirst();
+                next.timeout.cancel(false);
+                active++;
+                admitted++;
+            }
+            start(next);
+        }
+    }
+
+    private boolean canStart() {
+        return active < Math.max(minConcurrency, (int) limit) && System.currentTimeMillis() >= pausedUntil;
+    }
+
+    /** While paused by Retry-After, wake the queue up once the pause is over. */
+    private void scheduleResume() {
+        long wait = pausedUntil - System.currentTimeMillis();
+        if (wait > 0 && !queue.isEmpty() && (resumeTask == null || resumeTask.isDone())) {
+            resumeTask = timer.schedule(this::dispatch, wait, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private long retryAfterHint() {
+        return Math.max(defaultRetryAfterMs, pausedUntil - System.currentTimeMillis());
+    }
+
+    private static Throwable unwrap(Throwable ex) {
+        while (ex instanceof CompletionException && ex.getCause() != null) {
+            ex = ex.getCause();
+        }
+        return ex;
+    }
+}
@@ -0,0 +1,215 @@
+package com.resumetailor.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Circuit breaker in front of the inference endpoint.
+ * <ul>
+ *   <li>CLOSED: calls pass; the outcome of the last {@code window-size} calls is kept. Once at least
+ *       {@code min-calls} are recorded and the failure rate or the slow-call rate crosses its
+ *       threshold, the breaker opens.</li>
+ *   <li>OPEN: calls fail at once with {@link CircuitOpenException} for {@code open-ms}.</li>
+ *   <li>HALF_OPEN: up to {@code half-open-probes} calls go through; if all of them succeed the breaker
+ *       closes, and the first failure opens it again. A probe whose outcome does not count (see
+ *       below) gives its slot back, so another call can probe in its place.</li>
+ * </ul>
+ * Failures are 5xx/429 answers, timeouts and connection errors. Bulkhead rejections are local
+ * back-pressure, calls abandoned at a request deadline say nothing about the upstream, and other
+ * 4xx answers mean the upstream is alive, so none of these count.
+ */
+@Service
+public class UpstreamCircuitBreaker {
+    private static final Logger log = LoggerFactory.getLogger(UpstreamCircuitBreaker.class);
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    @Value("${llm.breaker.enabled:true}")
+    private boolean enabled;
+
+    @Value("${llm.breaker.window-size:20}")
+    private int windowSize;
+
+    @Value("${llm.breaker.min-calls:10}")
+    private int minCalls;
+
+    @Value("${llm.breaker.failure-rate-threshold:0.5}")
+    private double failureRateThreshold;
+
+    @Value("${llm.breaker.slow-call-ms:30000}")
+    private long slowCallMs;
+
+    @Value("${llm.breaker.slow-call-rate-threshold:0.8}")
+    private double slowCallRateThreshold;
+
+    @Value("${llm.breaker.open-ms:30000}")
+    private long openMs;
+
+    @Value("${llm.breaker.half-open-probes:3}")
+    private int halfOpenProbes;
+
+    private State state = State.CLOSED;
+    private byte[] window;
+    private int windowNext;
+    private int recorded;
+    private int failures;
+    private int slowCalls;
+    private long openedAt;
+    private int probesStarted;
+    private int probesSucceeded;
+    /** Counts transitions to HALF_OPEN, so a probe's outcome is only applied to its own round. */
+    private long probeRound;
+    private long opens;
+    private long shortCircuited;
+
+    private static final byte OK = 0;
+    private static final byte FAILED = 1;
+    private static final byte SLOW = 2;
+
+    public <T> CompletableFuture<T> call(Supplier<CompletableFuture<T>> call) {
+        if (!enabled) return call.get();
+
+        Permit permit = acquire();
+        if (permit.rejection != null) return CompletableFuture.failedFuture(permit.rejection);
+
+        long started = System.currentTimeMillis();
+        CompletableFuture<T> result;
+        try {
+            result = call.get();
+        } catch (RuntimeException ex) {
+            result = CompletableFuture.failedFuture(ex);
+        }
+        return result.whenComplete((value, ex) -> record(permit, System.currentTimeMillis() - started, unwrap(ex)));
+    }
+
+    /** A refusal, or leave to call; {@code probeRound} is the HALF_OPEN round the call probes, or -1. */
+    private record Permit(CircuitOpenException rejection, long probeRound) {}
+
+    /** True while calls are being short-circuited, so callers can skip straight to a fallback. */
+    public synchronized boolean isOpen() {
+        return enabled && state == State.OPEN && System.currentTimeMillis() - openedAt < openMs;
+    }
+
+    public synchronized Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("state", state.name());
+        stats.put("recordedCalls", recorded);
+        stats.put("failureRate", recorded == 0 ? 0.0 : (double) failures / recorded);
+        stats.put("slowCallRate", recorded == 0 ? 0.0 : (double) slowCalls / recorded);
+        stats.put("opens", opens);
+        stats.put("shortCircuited", shortCircuited);
+        return stats;
+    }
+
+    private synchronized Permit acquire() {
+        if (state == State.OPEN) {
+            long remaining = openMs - (System.currentTimeMillis() - openedAt);
+            if (remaining > 0) {
+                shortCircuited++;
+                return new Permit(new CircuitOpenException("Inference endpoint circuit is open", remaining), -1);
+            }
+            state = State.HALF_OPEN;
+            probesStarted = 0;
+            probesSucceeded = 0;
+            probeRound++;
+            log.info("[UpstreamCircuitBreaker] Half-open, letting {} probe calls through", halfOpenProbes);
+        }
+        if (state == State.HALF_OPEN) {
+            if (probesStarted >= halfOpenProbes) {
+                shortCircuited++;
+                return new Permit(new CircuitOpenException("Inference endpoint circuit is half-open", openMs), -1);
+            }
+            probesStarted++;
+            return new Permit(null, probeRound);
+        }
+        return new Permit(null, -1);
+    }
+
+    private synchronized void record(Permit permit, long latencyMs, Throwable cause) {
+        boolean probe = state == State.HALF_OPEN && permit.probeRound == probeRound;
+        if (cause instanceof UpstreamRejectedException || cause instanceof CircuitOpenException
+                || cause instanceof DeadlineExceededException) {
+            // Says nothing about the upstream; let another call probe instead
+            if (probe) probesStarted--;
+            return;
+        }
+        boolean failed = isFailure(cause);
+        boolean slow = !failed && latencyMs > slowCallMs;
+
+        if (state == State.HALF_OPEN) {
+            // Calls let through before the breaker opened do not decide this round
+            if (!probe) return;
+            if (failed || slow) {
+                open("probe " + (failed ? "failed: " + cause : "took " + latencyMs + "ms"));
+            } else if (++probesSucceeded >= halfOpenProbes) {
+                state = State.CLOSED;
+                resetWindow();
+                log.info("[UpstreamCircuitBreaker] Closed after {} successful probes", probesSucceeded);
+            }
+            return;
+        }
+        if (state != State.CLOSED) return;
+
+        if (window == null) resetWindow();
+        if (recorded == windowSize) {
+            byte evicted = window[windowNext];
+            if (evicted == FAILED) failures--;
+            if (evicted == SLOW) slowCalls--;
+        } else {
+            recorded++;
+        }
+        window[windowNext] = failed ? FAILED : slow ? SLOW : OK;
+        windowNext = (windowNext + 1) % windowSize;
+        if (failed) failures++;
+        if (slow) slowCalls++;
+
+        if (recorded >= minCalls) {
+            double failureRate = (double) failures / recorded;
+            double slowRate = (double) slowCalls / recorded;
+            if (failureRate >= failureRateThreshold || slowRate >= slowCallRateThreshold) {
+                open(String.format("failureRate=%.2f slowCallRate=%.2f over %d calls", failureRate, slowRate, recorded));
+            }
+        }
+    }
+
+    private void open(String reason) {
+        state = State.OPEN;
+        openedAt = System.currentTimeMillis();
+        opens++;
+        resetWindow();
+        log.warn("[UpstreamCircuitBreaker] Opened for {}ms: {}", openMs, reason);
+    }
+
+    private void resetWindow() {
+        window = new byte[windowSize];
+        windowNext = 0;
+        recorded = 0;
+        failures = 0;
+        slowCalls = 0;
+    }
+
+    private static boolean isFailure(Throwable cause) {
+        if (cause == null) return false;
+        if (cause instanceof LlmException upstream) {
+            return upstream.isOverload() || upstream.getStatusCode() >= 500;
+        }
+        // HttpTimeoutException and ConnectException are both IOExceptions
+        return cause instanceof IOException;
+    }
+
+    private static Throwable unwrap(Throwable ex) {
+        while (ex instanceof CompletionException && ex.getCause() != null) {
+            ex = ex.getCause();
+        }
+        return ex;
+    }
+}
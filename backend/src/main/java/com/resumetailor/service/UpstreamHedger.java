@@ -0,0 +1,316 @@
+package com.resumetailor.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Request hedging for upstream calls.
+ * <p>
+ * Each call starts one attempt. If that attempt has shown no progress (its first streamed token, or
+ * the whole response when not streaming) within the {@code percentile} of recent latencies for the
+ * same kind of call, a second attempt is started, which the caller may send to another backend.
+ * The first attempt to make progress wins: the other one's deadline is cancelled, which aborts its
+ * exchange, and only the winner's output reaches the caller. If one attempt fails while the other is
+ * still running, the call waits for the survivor.
+ * <p>
+ * Hedges draw from a budget that grows by {@code budget-ratio} per call, up to {@code budget-burst},
+ * so extra upstream load stays near that share even when the upstream slows down for everyone.
+ * No hedge is sent for a kind of call until {@code min-samples} latencies have been seen.
+ */
+@Service
+public class UpstreamHedger {
+    private static final Logger log = LoggerFactory.getLogger(UpstreamHedger.class);
+
+    @Value("${llm.hedge.enabled:false}")
+    private boolean enabled;
+
+    @Value("${llm.hedge.percentile:0.95}")
+    private double percentile;
+
+    @Value("${llm.hedge.min-delay-ms:250}")
+    private long minDelayMs;
+
+    @Value("${llm.hedge.min-samples:20}")
+    private int minSamples;
+
+    @Value("${llm.hedge.window-size:200}")
+    private int windowSize;
+
+    @Value("${llm.hedge.budget-ratio:0.05}")
+    private double budgetRatio;
+
+    @Value("${llm.hedge.budget-burst:5}")
+    private double budgetBurst;
+
+    private final Map<String, LatencyWindow> windows = new ConcurrentHashMap<>();
+    private ScheduledExecutorService timer;
+
+    private double budget;
+    private long calls;
+    private long hedges;
+    private long hedgeWins;
+    private long overBudget;
+
+    @PostConstruct
+    void init() {
+        timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "llm-hedge");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        timer.shutdownNow();
+    }
+
+    /**
+     * Runs {@code body} once per attempt. Latencies are tracked per {@code kind}, so calls that are
+     * expected to take very different times should use different kinds.
+     */
+    public <T> CompletableFuture<T> call(String kind, Deadline deadline, Function<Attempt, CompletableFuture<T>> body) {
+        Race<T> race = new Race<>(kind, deadline, body);
+        if (enabled) {
+            synchronized (this) {
+                calls++;
+                budget = Math.min(budgetBurst, budget + budgetRatio);
+            }
+        }
+        // Without hedging there is nothing to abandon separately, so the attempt shares the deadline
+        race.launch(new Attempt(race, false, enabled ? deadline.child() : deadline));
+        return race.result;
+    }
+
+    public synchronized Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("calls", calls);
+        stats.put("hedges", hedges);
+        stats.put("hedgeWins", hedgeWins);
+        stats.put("overBudget", overBudget);
+        stats.put("budget", Math.round(budget * 100) / 100.0);
+        Map<String, Object> delays = new LinkedHashMap<>();
+        windows.forEach((kind, window) -> delays.put(kind, window.percentileMs(percentile)));
+        stats.put("hedgeDelayMs", delays);
+        return stats;
+    }
+
+    /** Delay before hedging a call of this kind, or -1 while too few latencies are known. */
+    private long delayMs(String kind) {
+        LatencyWindow window = windows.get(kind);
+        long p = window == null ? -1 : window.percentileMs(percentile);
+        return p < 0 ? -1 : Math.max(minDelayMs, p);
+    }
+
+    private synchronized boolean tryAcquire() {
+        if (budget < 1) {
+            overBudget++;
+            return false;
+        }
+        budget -= 1;
+        hedges++;
+        return true;
+    }
+
+    private void recorded(String kind, Attempt winner, long latencyMs) {
+        windows.computeIfAbsent(kind, k -> new LatencyWindow()).add(latencyMs);
+        if (winner.hedge) {
+            synchronized (this) {
+                hedgeWins++;
+            }
+        }
+    }
+
+    /**
+     * One attempt of a hedged call. The body passes {@link #deadline} down to the upstream request,
+     * calls {@link #sent} once the request is on the wire and, when streaming, {@link #claim}s the
+     * race before forwarding its first token.
+     */
+    public final class Attempt {
+        private final Race<?> race;
+        private final boolean hedge;
+        private final Deadline deadline;
+        private long sentAt;
+
+        private Attempt(Race<?> race, boolean hedge, Deadline deadline) {
+            this.race = race;
+            this.hedge = hedge;
+            this.deadline = deadline;
+        }
+
+        public boolean isHedge() {
+            return hedge;
+        }
+
+        public Deadline deadline() {
+            return deadline;
+        }
+
+        public void sent() {
+            race.sent(this);
+        }
+
+        /** True if this attempt won (now or earlier); false once the other attempt has. */
+        public boolean claim() {
+            return race.claim(this);
+        }
+    }
+
+    private final class Race<T> {
+        private final String kind;
+        private final Deadline deadline;
+        private final Function<Attempt, CompletableFuture<T>> body;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        private final List<Attempt> attempts = new ArrayList<>(2);
+        private Attempt winner;
+        private ScheduledFuture<?> trigger;
+        private int pending;
+
+        Race(String kind, Deadline deadline, Function<Attempt, CompletableFuture<T>> body) {
+            this.kind = kind;
+            this.deadline = deadline;
+            this.body = body;
+        }
+
+        void launch(Attempt attempt) {
+            synchronized (this) {
+                attempts.add(attempt);
+                pending++;
+            }
+            CompletableFuture<T> call;
+            try {
+                call = body.apply(attempt);
+            } catch (RuntimeException ex) {
+                call = CompletableFuture.failedFuture(ex);
+            }
+            call.whenComplete((value, ex) -> finished(attempt, value, ex));
+        }
+
+        synchronized void sent(Attempt attempt) {
+            // Bulkhead retries send again; the first send starts the clock and arms the hedge
+            if (attempt.sentAt != 0) return;
+            attempt.sentAt = System.nanoTime();
+            if (!enabled || attempt.hedge || winner != null) return;
+            long delay = delayMs(kind);
+            if (delay >= 0 && delay < deadline.remainingMs()) {
+                trigger = timer.schedule(this::hedge, delay, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        private void hedge() {
+            synchronized (this) {
+                if (winner != null || pending == 0 || result.isDone() || deadline.isOver()) return;
+            }
+            if (!tryAcquire()) return;
+            log.info("[UpstreamHedger] No progress on {} call within {}ms, sending a hedge", kind, delayMs(kind));
+            launch(new Attempt(this, true, deadline.child()));
+        }
+
+        /**
+         * The latency recorded is measured from the first attempt's send, not the winner's: when the
+         * hedge wins, that is how long the first attempt had gone without progress when it was cut
+         * off, a lower bound on its latency. Timing the hedge alone would pull the percentile down.
+         */
+        boolean claim(Attempt attempt) {
+            List<Attempt> losers = new ArrayList<>(1);
+            long startedAt;
+            synchronized (this) {
+                if (winner != null) return winner == attempt;
+                if (result.isDone()) return false;
+                winner = attempt;
+                if (trigger != null) trigger.cancel(false);
+                for (Attempt other : attempts) {
+                    if (other != attempt) losers.add(other);
+                }
+                startedAt = attempts.get(0).sentAt;
+            }
+            if (startedAt != 0) {
+                recorded(kind, attempt, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+            }
+            for (Attempt loser : losers) {
+                loser.deadline.cancel("hedged request lost the race");
+            }
+            return true;
+        }
+
+        private void finished(Attempt attempt, T value, Throwable ex) {
+            Throwable cause = unwrap(ex);
+            boolean fail;
+            synchronized (this) {
+                pending--;
+                if (cause == null) {
+                    fail = false;
+                } else {
+                    // A loser's failure is its cancellation; a failure before anyone won ends the
+                    // call only once no other attempt is left that could still win
+                    fail = winner == attempt || (winner == null && pending == 0);
+                    if (!fail) return;
+                    if (trigger != null) trigger.cancel(false);
+                }
+            }
+            if (fail) {
+                complete(null, cause);
+            } else if (claim(attempt)) {
+                complete(value, null);
+            }
+        }
+
+        private void complete(T value, Throwable cause) {
+            if (cause != null) result.completeExceptionally(cause);
+            else result.complete(value);
+            List<Attempt> all;
+            synchronized (this) {
+                all = List.copyOf(attempts);
+            }
+            for (Attempt attempt : all) {
+                if (attempt.deadline != deadline) attempt.deadline.cancel("hedged call finished");
+            }
+        }
+    }
+
+    /** The last {@code window-size} latencies of one kind of call. */
+    private final class LatencyWindow {
+        private final long[] samples = new long[Math.max(1, windowSize)];
+        private int next;
+        private int count;
+
+        synchronized void add(long latencyMs) {
+            samples[next] = latencyMs;
+            next = (next + 1) % samples.length;
+            if (count < samples.length) count++;
+        }
+
+        synchronized long percentileMs(double p) {
+            if (count < minSamples) return -1;
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            return sorted[Math.min(count - 1, Math.max(0, (int) Math.ceil(p * count) - 1))];
+        }
+    }
+
+    private static Throwable unwrap(Throwable ex) {
+        while (ex instanceof CompletionException && ex.getCause() != null) {
+            ex = ex.getCause();
+        }
+        return ex;
+    }
+}
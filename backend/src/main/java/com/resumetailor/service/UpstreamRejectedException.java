@@ -0,0 +1,19 @@
+package com.resumetailor.service;
+
+/**
+ * Raised without calling the upstream when the bulkhead (or the tailoring scheduler) cannot admit
+ * a request in time.
+ */
+public class UpstreamRejectedException extends RuntimeException {
+
+    private final long retryAfterMs;
+
+    public UpstreamRejectedException(String message, long retryAfterMs) {
+        super(message);
+        this.retryAfterMs = retryAfterMs;
+    }
+
+    public long getRetryAfterMs() {
+        return retryAfterMs;
+    }
+}
@@ -0,0 +1,53 @@
+-- Tables and columns added to the base schema, for MySQL databases not managed by
+-- spring.jpa.hibernate.ddl-auto=update. Run each block once when upgrading past the change.
+
+-- Tailoring cache (content-hash keyed)
+CREATE TABLE IF NOT EXISTS tailoring_cache (
+    cache_key  VARCHAR(64) NOT NULL,
+    content    TEXT        NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    expires_at DATETIME(6),
+    PRIMARY KEY (cache_key)
+);
+
+-- Job description digests
+ALTER TABLE jobs
+    ADD COLUMN jd_digest   TEXT,
+    ADD COLUMN digested_at DATETIME(6);
+
+-- Persisted tailoring task queue
+CREATE TABLE IF NOT EXISTS tailoring_tasks (
+    id                 VARCHAR(36)   NOT NULL,
+    resume_id          BIGINT        NOT NULL,
+    job_id             BIGINT        NOT NULL,
+    status             VARCHAR(16)   NOT NULL,
+    stage              VARCHAR(32),
+    attempts           INT           NOT NULL,
+    tailored_resume_id BIGINT,
+    error              VARCHAR(1000),
+    created_at         DATETIME(6)   NOT NULL,
+    run_after          DATETIME(6)   NOT NULL,
+    started_at         DATETIME(6),
+    finished_at        DATETIME(6),
+    PRIMARY KEY (id),
+    INDEX idx_tailoring_tasks_status (status, run_after)
+);
+
+-- Tailored resumes produced by the local fallback engine
+ALTER TABLE tailored_resumes
+    ADD COLUMN degraded BIT;
+
+-- ATS analysis returned with a fused tailoring call
+ALTER TABLE tailored_resumes
+    ADD COLUMN ats_analysis TEXT;
+
+-- Term dictionary and per-job term indexes
+CREATE TABLE IF NOT EXISTS terms (
+    id   INT          NOT NULL AUTO_INCREMENT,
+    term VARCHAR(255) NOT NULL,
+    PRIMARY KEY (id),
+    UNIQUE KEY uk_terms_term (term)
+);
+
+ALTER TABLE jobs
+    ADD COLUMN term_index BLOB;
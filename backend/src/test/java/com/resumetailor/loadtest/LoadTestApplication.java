@@ -0,0 +1,23 @@
+package com.resumetailor.loadtest;
+
+import com.resumetailor.ResumeTailorApplication;
+import org.springframework.boot.SpringApplication;
+
+/**
+ * Runs the backend with the {@link StubLlmServer} alongside it, for load tests:
+ * <pre>
+ * mvn spring-boot:test-run -Dspring-boot.run.main-class=com.resumetailor.loadtest.LoadTestApplication \
+ *     -Dspring-boot.run.arguments="--hf.chat.url=http://localhost:8089/v1/chat/completions"
+ * </pre>
+ * {@code llm.stub.*} settings can be passed the same way.
+ */
+public final class LoadTestApplication {
+
+    private LoadTestApplication() {
+    }
+
+    public static void main(String[] args) {
+        System.setProperty("llm.stub.enabled", System.getProperty("llm.stub.enabled", "true"));
+        SpringApplication.from(ResumeTailorApplication::main).with(StubLlmServer.class).run(args);
+    }
+}
@@ -0,0 +1,239 @@
+package com.resumetailor.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * End-to-end load driver for a running backend. Runs one phase per endpoint, in order:
+ * resume upload, job upload, tailoring, ATS scoring and PDF download (later phases use the ids
+ * created by earlier ones), and prints requests/s and p50/p90/p99 latency for each.
+ * <p>
+ * Depends on the JDK only, so it runs straight from source:
+ * <pre>
+ * java backend/src/test/java/com/resumetailor/loadtest/LoadTestDriver.java \
+ *      --base-url=http://localhost:8080 --concurrency=16 --requests=200
+ * </pre>
+ * Start the backend through {@link LoadTestApplication}, with {@code hf.chat.url} pointing at the
+ * {@link StubLlmServer}, to measure the pipeline without a paid model.
+ */
+public final class LoadTestDriver {
+
+    private static final Pattern RESUME_ID = Pattern.compile("\"resumeId\"\\s*:\\s*(\\d+)");
+    private static final Pattern JOB_ID = Pattern.compile("\"jobId\"\\s*:\\s*(\\d+)");
+    private static final Pattern ID = Pattern.compile("\"id\"\\s*:\\s*(\\d+)");
+
+    private static final String[] SKILLS = {
+            "Java", "Spring Boot", "Kubernetes", "PostgreSQL", "Kafka", "React", "TypeScript", "AWS",
+            "Terraform", "Python", "Redis", "GraphQL", "Docker", "CI/CD", "Microservices", "gRPC"
+    };
+
+    private final HttpClient http = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+    private final String baseUrl;
+    private final int concurrency;
+    private final int requests;
+    private final Duration timeout;
+
+    private final List<Long> resumeIds = Collections.synchronizedList(new ArrayList<>());
+    private final List<Long> jobIds = Collections.synchronizedList(new ArrayList<>());
+    private final List<Long> tailoredIds = Collections.synchronizedList(new ArrayList<>());
+
+    private LoadTestDriver(String baseUrl, int concurrency, int requests, Duration timeout) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.concurrency = concurrency;
+        this.requests = requests;
+        this.timeout = timeout;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                System.err.println("Usage: LoadTestDriver [--base-url=URL] [--concurrency=N] [--requests=N] "
+                        + "[--timeout-s=N] [--phases=resume-upload,job-upload,tailor,ats-score,pdf]");
+                System.exit(2);
+            }
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+
+        LoadTestDriver driver = new LoadTestDriver(
+                options.getOrDefault("base-url", "http://localhost:8080"),
+                Integer.parseInt(options.getOrDefault("concurrency", "16")),
+                Integer.parseInt(options.getOrDefault("requests", "200")),
+                Duration.ofSeconds(Long.parseLong(options.getOrDefault("timeout-s", "180"))));
+        List<String> phases = Arrays.asList(options.getOrDefault("phases",
+                "resume-upload,job-upload,tailor,ats-score,pdf").split(","));
+
+        System.out.printf("%-14s %7s %7s %9s %9s %9s %9s %9s%n",
+                "phase", "ok", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "max ms");
+        for (String phase : phases) {
+            driver.run(phase.trim());
+        }
+    }
+
+    private void run(String phase) throws InterruptedException {
+        IntFunction<HttpRequest> request = switch (phase) {
+            case "resume-upload" -> i -> resumeUpload(i);
+            case "job-upload" -> i -> jobUpload(i);
+            case "tailor" -> i -> json("/api/resume/tailor",
+                    "{\"resumeId\":" + pick(resumeIds) + ",\"jobId\":" + pick(jobIds) + "}");
+            case "ats-score" -> i -> get("/api/resume/ats-score?resumeId=" + pick(resumeIds) + "&jobId=" + pick(jobIds));
+            case "pdf" -> i -> get("/api/resume/tailored/" + pick(tailoredIds) + "/download");
+            default -> throw new IllegalArgumentException("Unknown phase: " + phase);
+        };
+        if ((phase.equals("tailor") || phase.equals("ats-score")) && (resumeIds.isEmpty() || jobIds.isEmpty())
+                || phase.equals("pdf") && tailoredIds.isEmpty()) {
+            System.out.printf("%-14s skipped: no ids from earlier phases%n", phase);
+            return;
+        }
+
+        long[] latencies = new long[requests];
+        AtomicInteger errors = new AtomicInteger();
+        AtomicInteger next = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(concurrency);
+        long started = System.nanoTime();
+
+        for (int w = 0; w < concurrency; w++) {
+            pool.execute(() -> {
+                int i;
+                while ((i = next.getAndIncrement()) < requests) {
+                    long t0 = System.nanoTime();
+                    try {
+                        HttpResponse<String> response = http.send(request.apply(i), HttpResponse.BodyHandlers.ofString());
+                        if (response.statusCode() / 100 != 2) {
+                            errors.incrementAndGet();
+                        } else {
+                            collectIds(phase, response.body());
+                        }
+                    } catch (Exception e) {
+                        errors.incrementAndGet();
+                    } finally {
+                        latencies[i] = System.nanoTime() - t0;
+                    }
+                }
+            });
+        }
+        pool.shutdown();
+        pool.awaitTermination(1, TimeUnit.DAYS);
+
+        double elapsedSeconds = (System.nanoTime() - started) / 1e9;
+        Arrays.sort(latencies);
+        System.out.printf("%-14s %7d %7d %9.1f %9.1f %9.1f %9.1f %9.1f%n",
+                phase, requests - errors.get(), errors.get(), requests / elapsedSeconds,
+                percentileMs(latencies, 50), percentileMs(latencies, 90), percentileMs(latencies, 99),
+                latencies[latencies.length - 1] / 1e6);
+    }
+
+    private void collectIds(String phase, String body) {
+        switch (phase) {
+            case "resume-upload" -> find(RESUME_ID, body, resumeIds);
+            case "job-upload" -> find(JOB_ID, body, jobIds);
+            case "tailor" -> find(ID, body, tailoredIds);
+            default -> { }
+        }
+    }
+
+    private static void find(Pattern pattern, String body, List<Long> into) {
+        Matcher m = pattern.matcher(body);
+        if (m.find()) into.add(Long.parseLong(m.group(1)));
+    }
+
+    private HttpRequest resumeUpload(int i) {
+        String boundary = "----loadtest" + UUID.randomUUID();
+        String body = "--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"candidateName\"\r\n\r\nCandidate " + i + "\r\n"
+                + "--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"file\"; filename=\"resume-" + i + ".txt\"\r\n"
+                + "Content-Type: text/plain\r\n\r\n" + sampleResume(i) + "\r\n"
+                + "--" + boundary + "--\r\n";
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/api/resume/upload"))
+                .timeout(timeout)
+                .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                .POST(HttpRequest.BodyPublishers.ofString(body, StandardCharsets.UTF_8))
+                .build();
+    }
+
+    private HttpRequest jobUpload(int i) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/api/job/upload?title=Backend%20Engineer%20" + i
+                        + "&company=Company%20" + (i % 10)))
+                .timeout(timeout)
+                .header("Content-Type", "text/plain")
+                .POST(HttpRequest.BodyPublishers.ofString(sampleJob(i), StandardCharsets.UTF_8))
+                .build();
+    }
+
+    private HttpRequest json(String path, String body) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(timeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(timeout).GET().build();
+    }
+
+    private static long pick(List<Long> ids) {
+        synchronized (ids) {
+            return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+        }
+    }
+
+    private static double percentileMs(long[] sorted, int percentile) {
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1e6;
+    }
+
+    private static String skills(int seed, int count) {
+        List<String> picked = new ArrayList<>();
+        for (int k = 0; k < count; k++) picked.add(SKILLS[(seed * 7 + k * 3) % SKILLS.length]);
+        return String.join(", ", picked);
+    }
+
+    private static String sampleResume(int i) {
+        StringBuilder text = new StringBuilder()
+                .append("Candidate ").append(i).append("\ncandidate").append(i).append("@example.com\n\n")
+                .append("SUMMARY\nSoftware engineer with ").append(3 + i % 10)
+                .append(" years of experience building backend services with ").append(skills(i, 3)).append(".\n\n")
+                .append("EXPERIENCE\n");
+        for (int role = 0; role < 3 + i % 3; role++) {
+            text.append("Senior Engineer, Company ").append(role).append(" (20").append(10 + role * 3)
+                    .append(" - 20").append(13 + role * 3).append(")\n");
+            for (int b = 0; b < 4; b++) {
+                text.append("• Delivered ").append(skills(i + role + b, 2))
+                        .append(" improvements that cut latency by ").append(10 + b * 7).append("%\n");
+            }
+            text.append('\n');
+        }
+        return text.append("SKILLS\n").append(skills(i, 8)).append("\n\nEDUCATION\nBSc Computer Science\n").toString();
+    }
+
+    private static String sampleJob(int i) {
+        return "We are hiring a backend engineer to build our payments platform.\n\n"
+                + "Responsibilities:\n- Design services with " + skills(i, 2) + "\n- Operate production systems\n\n"
+                + "Requirements:\n- " + (3 + i % 5) + "+ years of experience with " + skills(i + 1, 3) + "\n"
+                + "- Strong knowledge of " + skills(i + 2, 2) + "\n\n"
+                + "Nice to have:\n- " + skills(i + 3, 2) + "\n";
+    }
+}
@@ -0,0 +1,304 @@
+package com.resumetailor.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Stand-in for the chat-completions endpoint, for measuring the full pipeline without a paid model.
+ * It is test code and not part of the application jar; {@link LoadTestApplication} starts the
+ * backend with it enabled ({@code llm.stub.enabled=true}). It listens on its own port and thread
+ * pool so it does not compete with the application's servlet threads. Point {@code hf.chat.url} at
+ * {@code http://localhost:<llm.stub.port>/v1/chat/completions}.
+ * <p>
+ * It speaks the OpenAI/HF protocol for both plain and {@code "stream": true} requests and answers
+ * with text derived from the prompt (resume lines with markdown and a trailing note for tailoring,
+ * the {@code SCORE:}/{@code MATCHING_KEYWORDS:} format for ATS prompts), so HTTP, JSON parsing and
+ * post-processing all do real work. Time to first token follows {@code llm.stub.latency.*}, output
+ * is paced at {@code llm.stub.tokens-per-second}, and a configurable share of requests fail with
+ * 429, 503, 500 or a truncated JSON body.
+ */
+@Component
+@ConditionalOnProperty(name = "llm.stub.enabled", havingValue = "true")
+public class StubLlmServer {
+    private static final Logger log = LoggerFactory.getLogger(StubLlmServer.class);
+
+    public enum Distribution { FIXED, UNIFORM, EXPONENTIAL, LOGNORMAL }
+
+    private static final Pattern TOKEN = Pattern.compile("\\S+\\s*|\\s+");
+    private static final Pattern WORD = Pattern.compile("[A-Za-z][A-Za-z+#.]{2,}");
+    private static final String[] RESUME_MARKERS = {
+            "ORIGINAL RESUME TO REWRITE:", "=== ORIGINAL RESUME ===", "SECTION (", "\nResume:"
+    };
+
+    @Value("${llm.stub.port:8089}")
+    private int port;
+
+    @Value("${llm.stub.threads:64}")
+    private int threads;
+
+    @Value("${llm.stub.latency.distribution:LOGNORMAL}")
+    private Distribution distribution;
+
+    /** Mean (median for LOGNORMAL) time to first token. */
+    @Value("${llm.stub.latency.mean-ms:400}")
+    private double latencyMeanMs;
+
+    /** UNIFORM: half-width in ms. LOGNORMAL: sigma of the underlying normal. */
+    @Value("${llm.stub.latency.spread:0.5}")
+    private double latencySpread;
+
+    /** 0 emits the whole completion at once. */
+    @Value("${llm.stub.tokens-per-second:80}")
+    private double tokensPerSecond;
+
+    @Value("${llm.stub.error-rate.429:0.0}")
+    private double rate429;
+
+    @Value("${llm.stub.error-rate.503:0.0}")
+    private double rate503;
+
+    @Value("${llm.stub.error-rate.500:0.0}")
+    private double rate500;
+
+    @Value("${llm.stub.error-rate.truncated:0.0}")
+    private double rateTruncated;
+
+    @Value("${llm.stub.retry-after-seconds:1}")
+    private int retryAfterSeconds;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong injectedErrors = new AtomicLong();
+    private HttpServer server;
+    private ExecutorService executor;
+
+    @PostConstruct
+    void start() throws IOException {
+        AtomicInteger n = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "llm-stub-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 256);
+        server.setExecutor(executor);
+        server.createContext("/v1/chat/completions", this::handle);
+        server.start();
+        log.info("[StubLlmServer] Listening on http://127.0.0.1:{}/v1/chat/completions ({} latency, mean={}ms, {} tok/s)",
+                port, distribution, latencyMeanMs, tokensPerSecond);
+    }
+
+    @PreDestroy
+    void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+        log.info("[StubLlmServer] Served {} requests, {} injected errors", requests.get(), injectedErrors.get());
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        try (exchange) {
+            if (!"POST".equalsIgnoreCase(exchange.getRequestMethod())) {
+                send(exchange, 405, "{\"error\":\"method not allowed\"}");
+                return;
+            }
+            JsonNode request = mapper.readTree(exchange.getRequestBody());
+            String prompt = request.path("messages").path(0).path("content").asText("");
+            int maxTokens = request.path("max_tokens").asInt(1000);
+            boolean stream = request.path("stream").asBoolean(false);
+            String model = request.path("model").asText("stub");
+
+            double roll = ThreadLocalRandom.current().nextDouble();
+            if ((roll -= rate429) < 0) {
+                injectedErrors.incrementAndGet();
+                exchange.getResponseHeaders().set("Retry-After", String.valueOf(retryAfterSeconds));
+                send(exchange, 429, "{\"error\":\"rate limited (stub)\"}");
+                return;
+            }
+            if ((roll -= rate503) < 0) {
+                injectedErrors.incrementAndGet();
+                exchange.getResponseHeaders().set("Retry-After", String.valueOf(retryAfterSeconds));
+                send(exchange, 503, "{\"error\":\"overloaded (stub)\"}");
+                return;
+            }
+            if ((roll -= rate500) < 0) {
+                injectedErrors.incrementAndGet();
+                sleep(sampleLatencyMs());
+                send(exchange, 500, "{\"error\":\"internal error (stub)\"}");
+                return;
+            }
+            boolean truncate = (roll -= rateTruncated) < 0;
+            if (truncate) injectedErrors.incrementAndGet();
+
+            List<String> tokens = tokenize(completionFor(prompt), maxTokens);
+            sleep(sampleLatencyMs());
+            if (stream) {
+                streamCompletion(exchange, model, tokens, truncate);
+            } else {
+                sleep(generationMs(tokens.size()));
+                String body = completionJson(model, String.join("", tokens), tokens.size());
+                send(exchange, 200, truncate ? body.substring(0, body.length() / 2) : body);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.debug("[StubLlmServer] Request aborted: {}", e.toString());
+        }
+    }
+
+    private void streamCompletion(HttpExchange exchange, String model, List<String> tokens, boolean truncate)
+            throws IOException, InterruptedException {
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+        exchange.sendResponseHeaders(200, 0);
+        OutputStream out = exchange.getResponseBody();
+        long perTokenMs = tokensPerSecond > 0 ? Math.round(1000 / tokensPerSecond) : 0;
+        int cutAt = truncate ? tokens.size() / 2 : -1;
+
+        for (int i = 0; i < tokens.size(); i++) {
+            ObjectNode chunk = mapper.createObjectNode();
+            chunk.put("object", "chat.completion.chunk");
+            chunk.put("model", model);
+            chunk.putArray("choices").addObject().put("index", 0).putObject("delta").put("content", tokens.get(i));
+            String data = mapper.writeValueAsString(chunk);
+            if (i == cutAt) {
+                out.write(("data: " + data.substring(0, data.length() / 2)).getBytes(StandardCharsets.UTF_8));
+                out.flush();
+                return;
+            }
+            out.write(("data: " + data + "\n\n").getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            sleep(perTokenMs);
+        }
+        out.write("data: [DONE]\n\n".getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+
+    private String completionJson(String model, String content, int completionTokens) throws IOException {
+        ObjectNode body = mapper.createObjectNode();
+        body.put("object", "chat.completion");
+        body.put("model", model);
+        ObjectNode choice = body.putArray("choices").addObject();
+        choice.put("index", 0);
+        choice.putObject("message").put("role", "assistant").put("content", content);
+        choice.put("finish_reason", "stop");
+        body.putObject("usage").put("completion_tokens", completionTokens);
+        return mapper.writeValueAsString(body);
+    }
+
+    /**
+     * ATS prompts get the structured analysis format; everything else gets the resume part of the
+     * prompt back with the markdown and trailing note the real model tends to add.
+     */
+    private static String completionFor(String prompt) {
+        String resume = resumePart(prompt);
+        if (prompt.contains("SCORE: [number 0-100]")) {
+            List<String> words = new ArrayList<>(distinctWords(resume));
+            int split = words.size() / 2;
+            return "SCORE: " + (55 + Math.floorMod(prompt.hashCode(), 40)) + "\n"
+                    + "MATCHING_KEYWORDS: " + String.join(", ", words.subList(0, Math.min(split, 8))) + "\n"
+                    + "MISSING_KEYWORDS: " + String.join(", ", words.subList(split, Math.min(words.size(), split + 5))) + "\n"
+                    + "SUGGESTIONS: Quantify achievements | Mirror the job title | Move key skills to the summary\n";
+        }
+
+        StringBuilder out = new StringBuilder();
+        for (String line : resume.split("\n")) {
+            String trimmed = line.strip();
+            if (trimmed.isEmpty()) {
+                out.append('\n');
+            } else if (trimmed.length() < 40 && trimmed.equals(trimmed.toUpperCase(Locale.ROOT))) {
+                out.append("**").append(trimmed).append("**\n");
+            } else if (trimmed.startsWith("•") || trimmed.startsWith("-")) {
+                out.append("* ").append(trimmed.substring(1).strip()).append('\n');
+            } else {
+                out.append(trimmed).append('\n');
+            }
+        }
+        out.append("\nNote: This resume has been tailored to highlight the most relevant experience.");
+        return out.toString();
+    }
+
+    private static String resumePart(String prompt) {
+        int start = -1;
+        for (String marker : RESUME_MARKERS) {
+            int at = prompt.lastIndexOf(marker);
+            if (at > start) start = at;
+        }
+        if (start < 0) return prompt;
+        int lineEnd = prompt.indexOf('\n', start + 1);
+        String rest = lineEnd < 0 ? "" : prompt.substring(lineEnd + 1);
+        // drop the closing label line ("TAILORED RESUME:", "Analysis:" ...) and any format instructions
+        int label = rest.lastIndexOf("\n\n");
+        return (label > 0 ? rest.substring(0, label) : rest).strip();
+    }
+
+    private static Set<String> distinctWords(String text) {
+        Set<String> words = new LinkedHashSet<>();
+        Matcher m = WORD.matcher(text);
+        while (m.find() && words.size() < 30) {
+            words.add(m.group().toLowerCase(Locale.ROOT));
+        }
+        return words;
+    }
+
+    private static List<String> tokenize(String text, int maxTokens) {
+        List<String> tokens = new ArrayList<>();
+        Matcher m = TOKEN.matcher(text);
+        while (m.find() && tokens.size() < maxTokens) {
+            tokens.add(m.group());
+        }
+        return tokens;
+    }
+
+    private long sampleLatencyMs() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        double ms = switch (distribution) {
+            case FIXED -> latencyMeanMs;
+            case UNIFORM -> latencyMeanMs + (random.nextDouble() * 2 - 1) * latencySpread;
+            case EXPONENTIAL -> -latencyMeanMs * Math.log(1 - random.nextDouble());
+            case LOGNORMAL -> latencyMeanMs * Math.exp(latencySpread * random.nextGaussian());
+        };
+        return Math.max(0, Math.round(ms));
+    }
+
+    private long generationMs(int tokens) {
+        return tokensPerSecond > 0 ? Math.round(tokens * 1000 / tokensPerSecond) : 0;
+    }
+
+    private static void send(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+
+    private static void sleep(long ms) throws InterruptedException {
+        if (ms > 0) Thread.sleep(ms);
+    }
+}
@@ -0,0 +1,136 @@
+package com.resumetailor.loadtest;
+
+import com.resumetailor.service.JobTermIndex;
+import com.resumetailor.service.TermDictionary;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Compares the old regex/String ATS scoring with the term-id path: bytes allocated and time per
+ * score on a synthetic ~10 KB resume, and checks that both give the same score.
+ * <pre>
+ * mvn -q test-compile
+ * java -cp target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout) \
+ *      com.resumetailor.loadtest.TokenizerBenchmark [--iterations=N] [--resume-kb=N]
+ * </pre>
+ */
+public final class TokenizerBenchmark {
+
+    // The scoring code as it was before term ids, kept here as the baseline
+    private static final Set<String> STOPWORDS = Set.of(
+            "the","a","an","and","or","but","to","in","on","for","of","with","by","at",
+            "from","as","is","are","was","were","be","been","being","this","that","these","those",
+            "it","its","you","your","we","our","they","their"
+    );
+    private static final Pattern TOKENIZER = Pattern.compile("[^a-z0-9+.#]+");
+
+    private static final String[] WORDS = {
+            "Java", "Spring", "Boot", "Kubernetes", "PostgreSQL", "Kafka", "React", "TypeScript", "AWS",
+            "Terraform", "Python", "Redis", "GraphQL", "Docker", "CI/CD", "microservices", "gRPC", "C++",
+            "C#", ".NET", "designed", "built", "led", "migrated", "reduced", "latency", "by", "the", "and",
+            "of", "team", "platform", "services", "customers", "pipeline", "40%", "2019-2023", "senior",
+            "engineer", "with", "in", "a", "for", "scalable", "distributed", "systems", "REST", "APIs"
+    };
+
+    private TokenizerBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        int iterations = 20_000;
+        int resumeKb = 10;
+        for (String arg : args) {
+            if (arg.startsWith("--iterations=")) iterations = Integer.parseInt(arg.substring(13));
+            else if (arg.startsWith("--resume-kb=")) resumeKb = Integer.parseInt(arg.substring(12));
+        }
+
+        Random random = new Random(42);
+        String resume = text(random, resumeKb * 1024);
+        String jd = text(random, 3 * 1024);
+
+        TermDictionary dictionary = new TermDictionary();
+        JobTermIndex index = JobTermIndex.build(jd, dictionary);
+
+        int oldScore = oldScore(resume, jd);
+        int newScore = newScore(resume, index, dictionary);
+        if (oldScore != newScore) {
+            throw new IllegalStateException("Scores differ: " + oldScore + " vs " + newScore);
+        }
+
+        // Warm both paths up before measuring
+        for (int i = 0; i < iterations; i++) {
+            oldScore(resume, jd);
+            newScore(resume, index, dictionary);
+        }
+
+        System.out.printf("resume=%d chars, jd=%d chars, %d indexed terms, score=%d, %d iterations%n",
+                resume.length(), jd.length(), index.size(), newScore, iterations);
+        report("regex + String sets", measure(iterations, () -> oldScore(resume, jd)));
+        report("regex + String sets, JD pre-tokenized", measure(iterations, () -> oldScore(resume, null)));
+        report("term scanner + ids", measure(iterations, () -> newScore(resume, index, dictionary)));
+    }
+
+    private static int oldScore(String resume, String jd) {
+        var resumeTokens = new HashSet<>(tokenize(resume));
+        resumeTokens.removeAll(STOPWORDS);
+        if (jd == null) return resumeTokens.size();
+
+        var jdTokens = new LinkedHashSet<>(tokenize(jd));
+        jdTokens.removeAll(STOPWORDS);
+        if (jdTokens.isEmpty()) return 0;
+
+        int matches = 0;
+        for (String token : jdTokens) {
+            if (resumeTokens.contains(token)) matches++;
+        }
+        return Math.max(0, Math.min(100, (int) Math.round((matches * 100.0) / jdTokens.size())));
+    }
+
+    private static List<String> tokenize(String text) {
+        return Arrays.stream(TOKENIZER.split(text.toLowerCase()))
+                .filter(t -> t.length() > 1)
+                .collect(Collectors.toList());
+    }
+
+    private static int newScore(String resume, JobTermIndex index, TermDictionary dictionary) {
+        if (index.size() == 0) return 0;
+        int matches = index.countMatches(resume, dictionary);
+        return Math.max(0, Math.min(100, (int) Math.round((matches * 100.0) / index.size())));
+    }
+
+    private record Result(double bytesPerOp, double microsPerOp) {}
+
+    private static Result measure(int iterations, java.util.function.IntSupplier op) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        long sink = 0;
+        long allocatedBefore = threads.getThreadAllocatedBytes(thread);
+        long started = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            sink += op.getAsInt();
+        }
+        long elapsed = System.nanoTime() - started;
+        long allocated = threads.getThreadAllocatedBytes(thread) - allocatedBefore;
+        if (sink == Long.MIN_VALUE) System.out.println(sink);
+        return new Result((double) allocated / iterations, elapsed / 1000.0 / iterations);
+    }
+
+    private static void report(String name, Result result) {
+        System.out.printf("  %-40s %10.0f B/op %10.1f us/op%n", name, result.bytesPerOp(), result.microsPerOp());
+    }
+
+    private static String text(Random random, int chars) {
+        StringBuilder out = new StringBuilder(chars + 32);
+        while (out.length() < chars) {
+            out.append(random.nextInt(12) == 0 ? "\n- " : " ").append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,128 @@
+package com.resumetailor.service;
+
+import com.resumetailor.dto.TailoredResumeResponse;
+import com.resumetailor.model.Job;
+import com.resumetailor.model.Resume;
+import com.resumetailor.model.TailoredResume;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BatchTailoringServiceTest {
+
+    private final List<CompletableFuture<TailoringResult>> generations = new ArrayList<>();
+    private final List<Throwable> itemErrors = new ArrayList<>();
+    private TailoredResumeService tailoredResumeService;
+    private BatchTailoringService service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        AIService aiService = mock(AIService.class);
+        when(aiService.generateTailoredResumeAsync(anyString(), anyString(), any())).thenAnswer(call -> {
+            CompletableFuture<TailoringResult> generation = new CompletableFuture<>();
+            generations.add(generation);
+            return generation;
+        });
+        JobDigestService jobDigestService = mock(JobDigestService.class);
+        when(jobDigestService.promptText(any())).thenReturn("job");
+        TailoringScheduler scheduler = mock(TailoringScheduler.class);
+        when(scheduler.submit(any(), any(), any(), any()))
+                .thenAnswer(call -> call.<Supplier<CompletableFuture<?>>>getArgument(3).get());
+        tailoredResumeService = mock(TailoredResumeService.class);
+        when(tailoredResumeService.prepare(any(), any(), any())).thenAnswer(call -> TailoredResume.builder()
+                .resume(call.getArgument(0)).job(call.getArgument(1)).build());
+        when(tailoredResumeService.toResponse(any())).thenReturn(new TailoredResumeResponse());
+
+        service = new BatchTailoringService();
+        ReflectionTestUtils.setField(service, "aiService", aiService);
+        ReflectionTestUtils.setField(service, "jobDigestService", jobDigestService);
+        ReflectionTestUtils.setField(service, "tailoredResumeService", tailoredResumeService);
+        ReflectionTestUtils.setField(service, "scheduler", scheduler);
+        ReflectionTestUtils.setField(service, "maxParallel", 2);
+        ReflectionTestUtils.setField(service, "insertChunkSize", 2);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void insertsChunksAsRowsFinish() {
+        CompletableFuture<List<TailoredResumeResponse>> result =
+                service.tailorAll(items(3), "client", Deadline.none(), listener());
+
+        generations.get(0).complete(TailoringResult.generated("one"));
+        generations.get(1).complete(TailoringResult.generated("two"));
+        // The first chunk is stored before the batch ends
+        verify(tailoredResumeService, times(1)).saveAll(any());
+        generations.get(2).complete(TailoringResult.generated("three"));
+
+        assertEquals(3, result.join().size());
+        ArgumentCaptor<List<TailoredResume>> chunks = ArgumentCaptor.forClass(List.class);
+        verify(tailoredResumeService, times(2)).saveAll(chunks.capture());
+        assertEquals(List.of(2, 1), chunks.getAllValues().stream().map(List::size).toList());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void keepsGeneratedRowsAfterTheDeadlineEnds() {
+        ReflectionTestUtils.setField(service, "insertChunkSize", 20);
+        Deadline deadline = Deadline.after(Duration.ofMinutes(1));
+        CompletableFuture<List<TailoredResumeResponse>> result =
+                service.tailorAll(items(3), "client", deadline, listener());
+
+        // Both generations were under way when the client went away
+        deadline.cancel("client disconnected");
+        generations.get(0).complete(TailoringResult.generated("one"));
+        generations.get(1).complete(TailoringResult.generated("two"));
+
+        // The third pair is never started, but both finished rows are stored
+        assertEquals(2, result.join().size());
+        assertEquals(2, generations.size());
+        assertEquals(1, itemErrors.size());
+        assertInstanceOf(DeadlineExceededException.class, itemErrors.get(0));
+        ArgumentCaptor<List<TailoredResume>> chunks = ArgumentCaptor.forClass(List.class);
+        verify(tailoredResumeService, times(1)).saveAll(chunks.capture());
+        assertEquals(2, chunks.getValue().size());
+    }
+
+    private BatchTailoringService.Listener listener() {
+        return new BatchTailoringService.Listener() {
+            @Override
+            public void onItem(TailoredResumeResponse result) {
+            }
+
+            @Override
+            public void onItemError(BatchTailoringService.Item item, Throwable cause) {
+                itemErrors.add(cause);
+            }
+        };
+    }
+
+    private static List<BatchTailoringService.Item> items(int count) {
+        List<BatchTailoringService.Item> items = new ArrayList<>();
+        for (long i = 1; i <= count; i++) {
+            Resume resume = new Resume();
+            resume.setId(i);
+            resume.setContent("resume " + i);
+            Job job = new Job();
+            job.setId(i);
+            items.add(new BatchTailoringService.Item(resume, job));
+        }
+        return items;
+    }
+}
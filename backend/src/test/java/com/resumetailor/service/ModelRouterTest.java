@@ -0,0 +1,66 @@
+package com.resumetailor.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+class ModelRouterTest {
+
+    private ModelRouter router;
+
+    @BeforeEach
+    void setUp() {
+        router = new ModelRouter();
+        ReflectionTestUtils.setField(router, "backendsSpec", "small|m1|http://a|8192,large|m2|http://b|8192");
+        ReflectionTestUtils.setField(router, "alpha", 0.2);
+        ReflectionTestUtils.setField(router, "exploreRate", 0.0);
+        router.init();
+    }
+
+    @Test
+    void routesAroundBackendThatHasOnlyFailed() {
+        ModelRouter.Backend small = router.route(100, 100);
+        assertEquals("small", small.getName());
+        for (int i = 0; i < 3; i++) {
+            ModelRouter.Call call = router.start(small, () -> {});
+            call.sent();
+            call.failed(new IOException("connection refused"));
+        }
+
+        ModelRouter.Backend next = router.route(100, 100);
+        assertEquals("large", next.getName());
+
+        // Still preferred once it has worked, even slowly
+        ModelRouter.Call call = router.start(next, () -> {});
+        call.sent();
+        call.succeeded(100);
+        assertEquals("large", router.route(100, 100).getName());
+    }
+
+    @Test
+    void stillRoutesWhenEveryBackendHasOnlyFailed() {
+        for (int i = 0; i < 2; i++) {
+            ModelRouter.Backend backend = router.route(100, 100);
+            ModelRouter.Call call = router.start(backend, () -> {});
+            call.sent();
+            call.failed(new IOException("connection refused"));
+        }
+
+        assertNotNull(router.route(100, 100));
+    }
+
+    @Test
+    void abandonedCallsDoNotCountAgainstBackend() {
+        ModelRouter.Backend small = router.route(100, 100);
+        ModelRouter.Call call = router.start(small, () -> {});
+        call.sent();
+        call.failed(new IllegalStateException("cancelled"));
+
+        assertEquals("small", router.route(100, 100).getName());
+    }
+}
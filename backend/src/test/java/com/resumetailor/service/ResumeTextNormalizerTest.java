@@ -0,0 +1,203 @@
+package com.resumetailor.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Golden fixtures for {@link ResumeTextNormalizer}, and a check of every fixture against the
+ * {@code String.replaceAll} sequences it replaced ({@link Legacy}), which it must match byte for byte.
+ */
+class ResumeTextNormalizerTest {
+
+    private final ResumeTextNormalizer normalizer = new ResumeTextNormalizer();
+
+    static Stream<String> fixtures() {
+        return Stream.of(
+                "",
+                "   ",
+                "\n",
+                "John Doe\nSUMMARY\nBackend engineer.",
+                "**John Doe**\n\nEXPERIENCE\n* Built *fast* services\n- Led `Kafka` migration\n  + Mentored 3 engineers",
+                "## SKILLS\n- Java, Spring Boot\n\n\n\n- Docker\nNote: tailored for the role.",
+                "John Doe\r\nEXPERIENCE\r\n- Built APIs\r\nNote: I emphasised APIs.\r\n",
+                "John Doe\r\n\r\nSKILLS\r\n* Java\r\n",
+                "John Doe\nEXPERIENCE\n- Built APIs\nExplanation: kept it short\nNote: see above",
+                "John Doe\nSKILLS\nJava\n**Note**: this is a note",
+                "John Doe\n  \t Note - added keywords",
+                "John Doe\nI have rewritten the resume to match.",
+                "John Doe\nHere is the rewritten resume\n",
+                "MOCK TAILORED RESUME\nJohn Doe\nThis resume has been tailored",
+                "John Doe\u2028Note: separator line\nSKILLS\nJava",
+                "John Doe\nSKILLS\nJava\u2028Note: after a line separator",
+                "John Doe\nSKILLS\nJava\nNote: trailing\u2028",
+                "John Doe\n\u2029Analysis: paragraph separator",
+                "# - item under a header\n#+ sub item\n1. First\n 2. Second",
+                "PROFESSIONAL EXPERIENCE\nAcme\nEDUCATION\nBSc\nCERTIFICATIONS\nAWS",
+                "Note: first line only",
+                "\n\n\nJohn Doe\n\n\n\nPROJECTS\n`repo` **bold** *it\nalic*\n\n"
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("fixtures")
+    void postProcessMatchesLegacyPipeline(String input) {
+        assertEquals(Legacy.postProcessAIResponse(input), normalizer.postProcess(input));
+    }
+
+    @ParameterizedTest
+    @MethodSource("fixtures")
+    void formatForStorageMatchesLegacyPipeline(String input) {
+        assertEquals(Legacy.cleanAndFormatResumeText(input), normalizer.formatForStorage(input));
+    }
+
+    @Test
+    void emptyAndNullPassThrough() {
+        assertEquals("", normalizer.postProcess(""));
+        assertEquals("", normalizer.formatForStorage(""));
+        assertNull(normalizer.postProcess(null));
+        assertNull(normalizer.formatForStorage(null));
+    }
+
+    @Test
+    void postProcessGolden() {
+        // The italic rule pairs the bullet star with the one after "fast", as it always has
+        assertEquals("John Doe\n\nEXPERIENCE\n Built fast* services\n• Led Kafka migration\n  ◦ Mentored 3 engineers",
+                normalizer.postProcess("**John Doe**\n\nEXPERIENCE\n* Built *fast* services\n- Led `Kafka` migration\n  + Mentored 3 engineers"));
+        // The line rule's \s* also swallows the blank lines before a bullet
+        assertEquals("SKILLS\n• Java, Spring Boot\n• Docker",
+                normalizer.postProcess("## SKILLS\n- Java, Spring Boot\n\n\n\n- Docker\nNote: tailored for the role."));
+        assertEquals("John Doe\n\nEXPERIENCE\n• Built APIs",
+                normalizer.postProcess("John Doe\nEXPERIENCE\n- Built APIs\nExplanation: kept it short\nNote: see above"));
+    }
+
+    @Test
+    void postProcessGoldenCrlf() {
+        assertEquals("John Doe\r\n\nEXPERIENCE\r\n• Built APIs",
+                normalizer.postProcess("John Doe\r\nEXPERIENCE\r\n- Built APIs\r\nNote: I emphasised APIs.\r\n"));
+    }
+
+    @Test
+    void lineSeparatorEndsTheCommentaryLine() {
+        // '.' stops at U+2028, so only the text after the last terminator is the final line
+        assertEquals("John Doe\u2028Note: separator line\n\nSKILLS\nJava",
+                normalizer.postProcess("John Doe\u2028Note: separator line\nSKILLS\nJava"));
+    }
+
+    @Test
+    void formatForStorageGolden() {
+        // Storage only converts '*' and '+' bullets
+        assertEquals("SKILLS\n- Java, Spring Boot\n\n- Docker",
+                normalizer.formatForStorage("## SKILLS\n- Java, Spring Boot\n\n\n\n- Docker\nNote: tailored for the role."));
+        // Headings are stripped after the bullet rules ran, so the exposed "+" stays
+        assertEquals("- item under a header\n+ sub item\n• First\n• Second",
+                normalizer.formatForStorage("# - item under a header\n#+ sub item\n1. First\n 2. Second"));
+        assertEquals("John Doe\nSKILLS\nJava",
+                normalizer.formatForStorage("John Doe\nSKILLS\nJava\n**Note**: this is a note"));
+    }
+
+    /** The inline rule sequences of {@code AIService} and {@code ResumeController} before the normalizer. */
+    private static final class Legacy {
+
+        static String postProcessAIResponse(String aiResponse) {
+            if (aiResponse == null || aiResponse.trim().isEmpty()) {
+                return aiResponse;
+            }
+            String processed = aiResponse;
+            processed = removeAICommentary(processed);
+            processed = cleanFormatting(processed);
+            processed = removeAICommentary(processed);
+            processed = cleanFormatting(processed);
+            processed = ensureProperStructure(processed);
+            return processed.trim();
+        }
+
+        static String cleanAndFormatResumeText(String rawText) {
+            if (rawText == null || rawText.trim().isEmpty()) {
+                return rawText;
+            }
+            String cleanedText = rawText;
+            String[] notePatterns = {
+                    "(?i)\\n\\s*Note:.*$",
+                    "(?i)\\n\\s*Note -.*$",
+                    "(?i)\\n\\s*\\*\\*Note\\*\\*:.*$",
+                    "(?i)\\n\\s*I have rewritten.*$"
+            };
+            for (String pattern : notePatterns) {
+                cleanedText = cleanedText.replaceAll(pattern, "");
+            }
+            cleanedText = convertMarkdownToPlainText(cleanedText);
+            cleanedText = cleanedText.replaceAll("\\n{3,}", "\n\n");
+            return cleanedText.trim();
+        }
+
+        private static String removeAICommentary(String text) {
+            String[] removePatterns = {
+                    "(?i)\\n\\s*Note:.*$",
+                    "(?i)\\n\\s*Note -.*$",
+                    "(?i)\\n\\s*\\*\\*Note\\*\\*:.*$",
+                    "(?i)\\n\\s*I have rewritten.*$",
+                    "(?i)\\n\\s*Here is the rewritten.*$",
+                    "(?i)\\n\\s*This resume has been.*$",
+                    "(?i)\\n\\s*The above resume.*$",
+                    "(?i)\\n\\s*Explanation:.*$",
+                    "(?i)\\n\\s*Analysis:.*$",
+                    "(?i)\\n\\s*MOCK.*RESUME.*$"
+            };
+            for (String pattern : removePatterns) {
+                text = text.replaceAll(pattern, "");
+            }
+            return text;
+        }
+
+        private static String cleanFormatting(String text) {
+            text = text.replaceAll("\\*\\*(.*?)\\*\\*", "$1");
+            text = text.replaceAll("\\*([^*\n]+)\\*", "$1");
+            text = text.replaceAll("`([^`]+)`", "$1");
+            text = text.replaceAll("^\\s*[\\*-]\\s+", "• ");
+            text = text.replaceAll("\\n\\s*[\\*-]\\s+", "\n• ");
+            text = text.replaceAll("^\\s*\\+\\s+", "  ◦ ");
+            text = text.replaceAll("\\n\\s*\\+\\s+", "\n  ◦ ");
+            text = text.replaceAll("#+\\s*", "");
+            text = text.replaceAll("^\\s*[\\*-]\\s+", "• ");
+            text = text.replaceAll("\\n\\s*[\\*-]\\s+", "\n• ");
+            text = text.replaceAll("^\\s*\\+\\s+", "  ◦ ");
+            text = text.replaceAll("\\n\\s*\\+\\s+", "\n  ◦ ");
+            text = text.replaceAll("#+\\s*", "");
+            text = text.replaceAll("\\n{3,}", "\n\n");
+            text = text.replaceAll("\\s+$", "");
+            return text;
+        }
+
+        private static String ensureProperStructure(String text) {
+            String[] commonSections = {
+                    "SUMMARY", "OBJECTIVE", "EXPERIENCE", "PROFESSIONAL EXPERIENCE",
+                    "EDUCATION", "SKILLS", "PROJECTS", "CERTIFICATIONS"
+            };
+            for (String section : commonSections) {
+                text = text.replaceAll("(?<!\\n\\n)" + section, "\n\n" + section);
+            }
+            text = text.replaceAll("\\n{3,}", "\n\n");
+            text = text.replaceAll("^\\n+", "");
+            return text;
+        }
+
+        private static String convertMarkdownToPlainText(String text) {
+            text = text.replaceAll("\\*\\*(.*?)\\*\\*", "$1");
+            text = text.replaceAll("^\\s*\\*\\s+", "• ");
+            text = text.replaceAll("\\n\\s*\\*\\s+", "\n• ");
+            text = text.replaceAll("^\\s*\\+\\s+", "  ◦ ");
+            text = text.replaceAll("\\n\\s*\\+\\s+", "\n  ◦ ");
+            text = text.replaceAll("\\n\\s*\\d+\\.\\s+", "\n• ");
+            text = text.replaceAll("\\*([^*]+)\\*", "$1");
+            text = text.replaceAll("`([^`]+)`", "$1");
+            text = text.replaceAll("#+\\s*", "");
+            return text;
+        }
+    }
+}
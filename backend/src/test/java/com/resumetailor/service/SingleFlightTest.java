@@ -0,0 +1,78 @@
+package com.resumetailor.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SingleFlightTest {
+
+    private final SingleFlight<String, String> flights = new SingleFlight<>();
+    private final List<Deadline> started = new ArrayList<>();
+    private final CompletableFuture<String> upstream = new CompletableFuture<>();
+
+    @Test
+    void firstCallerLeavingDoesNotFailTheOthers() {
+        Deadline first = Deadline.after(Duration.ofMinutes(1));
+        CompletableFuture<String> a = flights.execute("key", first, this::call);
+        CompletableFuture<String> b = flights.execute("key", Deadline.after(Duration.ofMinutes(1)), this::call);
+        assertEquals(1, started.size());
+
+        first.cancel("client disconnected");
+        assertInstanceOf(DeadlineExceededException.class, cause(a));
+        assertFalse(started.get(0).isOver());
+
+        upstream.complete("text");
+        assertEquals("text", b.join());
+    }
+
+    @Test
+    void sharedCallIsCancelledOnceEveryCallerLeft() {
+        Deadline first = Deadline.after(Duration.ofMinutes(1));
+        Deadline second = Deadline.after(Duration.ofMinutes(1));
+        CompletableFuture<String> a = flights.execute("key", first, this::call);
+        CompletableFuture<String> b = flights.execute("key", second, this::call);
+
+        first.cancel("client disconnected");
+        second.cancel("client disconnected");
+        assertTrue(started.get(0).isOver());
+        assertInstanceOf(DeadlineExceededException.class, cause(a));
+        assertInstanceOf(DeadlineExceededException.class, cause(b));
+
+        // A later caller does not attach to the cancelled call
+        flights.execute("key", Deadline.none(), this::call);
+        assertEquals(2, started.size());
+        assertFalse(started.get(1).isOver());
+    }
+
+    @Test
+    void callerWithoutDeadlineKeepsTheCallAlive() {
+        Deadline shorter = Deadline.after(Duration.ofMinutes(1));
+        CompletableFuture<String> a = flights.execute("key", shorter, this::call);
+        CompletableFuture<String> b = flights.execute("key", Deadline.none(), this::call);
+
+        shorter.cancel("timed out");
+        assertInstanceOf(DeadlineExceededException.class, cause(a));
+        upstream.complete("text");
+        assertEquals("text", b.join());
+    }
+
+    private CompletableFuture<String> call(Deadline deadline) {
+        started.add(deadline);
+        return upstream;
+    }
+
+    private static Throwable cause(CompletableFuture<?> future) {
+        CompletionException e = assertThrows(CompletionException.class, future::join);
+        return e.getCause();
+    }
+}
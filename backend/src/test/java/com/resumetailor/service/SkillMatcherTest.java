@@ -0,0 +1,85 @@
+package com.resumetailor.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SkillMatcherTest {
+
+    @Test
+    void matchesPhrasesAtWordBoundaries() {
+        Map<String, List<String>> skills = new LinkedHashMap<>();
+        skills.put("Java", List.of());
+        skills.put("JavaScript", List.of("js"));
+        skills.put("Spring Boot", List.of());
+        skills.put("CI/CD", List.of());
+        skills.put("Kubernetes", List.of("k8s"));
+        SkillMatcher matcher = SkillMatcher.compile(skills);
+
+        assertEquals(List.of("JavaScript", "CI/CD", "Kubernetes", "Spring Boot"),
+                matcher.find("Wrote JavaScript, ran ci-cd on K8s. Spring   Boot too"));
+        assertEquals(List.of("Java"), matcher.find("java."));
+        assertEquals(List.of(), matcher.find("Javas and springboot"));
+    }
+
+    @Test
+    void ignoresSingleLetterPhrases() {
+        Map<String, List<String>> skills = new LinkedHashMap<>();
+        skills.put("C", List.of());
+        skills.put("R", List.of("r lang"));
+        skills.put("C#", List.of("c sharp"));
+        SkillMatcher matcher = SkillMatcher.compile(skills);
+
+        assertEquals(3, matcher.phraseCount());
+        assertEquals(List.of(), matcher.find("J. C. Smith, R&D lead, plan a) b) c)"));
+        assertEquals(List.of("C#", "R"), matcher.find("C# and R lang"));
+    }
+
+    @Test
+    void agreesWithSubstringSearch() {
+        Random random = new Random(7);
+        String[] words = {"go", "java", "script", "spring", "boot", "c++", "c#", "node.js", "k8s", "sql", "no", "de"};
+        Map<String, List<String>> skills = new LinkedHashMap<>();
+        for (int i = 0; i < 200; i++) {
+            skills.putIfAbsent(phrase(random, words), List.of(phrase(random, words)));
+        }
+        SkillMatcher matcher = SkillMatcher.compile(skills);
+
+        for (int t = 0; t < 200; t++) {
+            String text = phrase(random, words) + ", " + phrase(random, words) + ". " + phrase(random, words);
+            String normalisedText = SkillMatcher.normalise(text);
+            Set<String> expected = new HashSet<>();
+            Set<String> seenPhrases = new HashSet<>();
+            for (Map.Entry<String, List<String>> skill : skills.entrySet()) {
+                List<String> phrases = new ArrayList<>(skill.getValue());
+                phrases.add(0, skill.getKey());
+                for (String phrase : phrases) {
+                    String normalised = SkillMatcher.normalise(phrase);
+                    // A phrase listed under two skills reports the first
+                    if (seenPhrases.add(normalised) && normalisedText.contains(normalised)) expected.add(skill.getKey());
+                }
+            }
+            List<String> found = matcher.find(text);
+            assertEquals(expected, new HashSet<>(found), text);
+            assertEquals(found.size(), new HashSet<>(found).size());
+        }
+        assertTrue(matcher.stateCount() > 1);
+    }
+
+    private static String phrase(Random random, String[] words) {
+        StringBuilder phrase = new StringBuilder(words[random.nextInt(words.length)]);
+        for (int n = random.nextInt(3); n > 0; n--) {
+            phrase.append(' ').append(words[random.nextInt(words.length)]);
+        }
+        return phrase.toString();
+    }
+}
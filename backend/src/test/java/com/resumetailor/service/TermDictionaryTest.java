@@ -0,0 +1,80 @@
+package com.resumetailor.service;
+
+import com.resumetailor.model.Term;
+import com.resumetailor.repository.TermRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TermDictionaryTest {
+
+    private final AtomicInteger nextId = new AtomicInteger(1);
+    private TermRepository repository;
+    private TermDictionary dictionary;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(TermRepository.class);
+        when(repository.saveAll(anyIterable())).thenAnswer(call -> {
+            List<Term> saved = new ArrayList<>();
+            for (Term term : call.<Iterable<Term>>getArgument(0)) {
+                saved.add(new Term(nextId.getAndIncrement(), term.getTerm()));
+            }
+            return saved;
+        });
+        dictionary = new TermDictionary();
+        ReflectionTestUtils.setField(dictionary, "termRepository", repository);
+    }
+
+    @Test
+    void storesNewTermsOfAJobInOneBatch() {
+        int[] ids = dictionary.internAll(List.of("java", "kafka", "java", "redis"));
+
+        assertArrayEquals(new int[] {1, 2, 1, 3}, ids);
+        verify(repository, times(1)).saveAll(anyIterable());
+        assertEquals("kafka", dictionary.termOf(2));
+
+        // Known terms need no storage at all
+        assertArrayEquals(new int[] {3, 1}, dictionary.internAll(List.of("redis", "java")));
+        verify(repository, times(1)).saveAll(anyIterable());
+    }
+
+    @Test
+    void takesRowsStoredElsewhereWhenTheBatchConflicts() {
+        when(repository.saveAll(anyIterable())).thenThrow(new DataIntegrityViolationException("duplicate"));
+        when(repository.save(any(Term.class))).thenAnswer(call -> {
+            Term term = call.getArgument(0);
+            if (term.getTerm().equals("java")) throw new DataIntegrityViolationException("duplicate");
+            return new Term(8, term.getTerm());
+        });
+        when(repository.findByTerm("java")).thenReturn(Optional.of(new Term(7, "java")));
+
+        assertArrayEquals(new int[] {7, 8}, dictionary.internAll(List.of("java", "kafka")));
+        assertEquals(7, dictionary.idOf("java"));
+    }
+
+    @Test
+    void longTokensAreKeyedByTheirPrefix() {
+        String prefix = "a".repeat(TermDictionary.MAX_TERM_LENGTH);
+        int[] ids = dictionary.internAll(List.of(prefix + "x", prefix + "y"));
+
+        assertEquals(ids[0], ids[1]);
+        verify(repository, never()).findByTerm(any());
+    }
+}
@@ -0,0 +1,62 @@
+package com.resumetailor.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class UpstreamBulkheadTest {
+
+    private final AtomicInteger attempts = new AtomicInteger();
+    private UpstreamBulkhead bulkhead;
+
+    @BeforeEach
+    void setUp() {
+        bulkhead = new UpstreamBulkhead();
+        ReflectionTestUtils.setField(bulkhead, "maxConcurrency", 4);
+        ReflectionTestUtils.setField(bulkhead, "minConcurrency", 1);
+        ReflectionTestUtils.setField(bulkhead, "queueSize", 10);
+        ReflectionTestUtils.setField(bulkhead, "queueTimeoutMs", 300L);
+        ReflectionTestUtils.setField(bulkhead, "latencyThresholdMs", 60_000L);
+        ReflectionTestUtils.setField(bulkhead, "defaultRetryAfterMs", 100L);
+        ReflectionTestUtils.setField(bulkhead, "maxRetries", 1);
+        bulkhead.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        bulkhead.shutdown();
+    }
+
+    @Test
+    void retriesAfterAShortRetryAfter() throws Exception {
+        CompletableFuture<String> result = bulkhead.submit(() -> attempts.getAndIncrement() == 0
+                ? CompletableFuture.failedFuture(new LlmException(429, "slow down", 250))
+                : CompletableFuture.completedFuture("ok"));
+
+        assertEquals("ok", result.get(5, TimeUnit.SECONDS));
+        assertEquals(2, attempts.get());
+    }
+
+    @Test
+    void returnsTheOverloadWhenRetryAfterExceedsTheQueueTimeout() {
+        CompletableFuture<String> result = bulkhead.submit(() -> {
+            attempts.incrementAndGet();
+            return CompletableFuture.failedFuture(new LlmException(503, "busy", 60_000));
+        });
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+        LlmException upstream = assertInstanceOf(LlmException.class, e.getCause());
+        assertEquals(60_000, upstream.getRetryAfterMs());
+        assertEquals(1, attempts.get());
+    }
+}
@@ -0,0 +1,90 @@
+package com.resumetailor.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class UpstreamCircuitBreakerTest {
+
+    private UpstreamCircuitBreaker breaker;
+
+    @BeforeEach
+    void setUp() {
+        breaker = new UpstreamCircuitBreaker();
+        ReflectionTestUtils.setField(breaker, "enabled", true);
+        ReflectionTestUtils.setField(breaker, "windowSize", 4);
+        ReflectionTestUtils.setField(breaker, "minCalls", 2);
+        ReflectionTestUtils.setField(breaker, "failureRateThreshold", 0.5);
+        ReflectionTestUtils.setField(breaker, "slowCallMs", 60_000L);
+        ReflectionTestUtils.setField(breaker, "slowCallRateThreshold", 0.8);
+        ReflectionTestUtils.setField(breaker, "halfOpenProbes", 1);
+    }
+
+    @Test
+    void uncountedProbeOutcomeFreesItsSlot() {
+        ReflectionTestUtils.setField(breaker, "openMs", 0L);
+        openBreaker();
+
+        // Half-open: the single probe is abandoned at its request deadline
+        CompletableFuture<String> abandoned = breaker.call(
+                () -> CompletableFuture.failedFuture(new DeadlineExceededException("deadline")));
+        assertInstanceOf(DeadlineExceededException.class, cause(abandoned));
+        assertEquals("HALF_OPEN", breaker.stats().get("state"));
+
+        // ... so the next call still probes, and its success closes the breaker
+        assertEquals("ok", breaker.call(() -> CompletableFuture.completedFuture("ok")).join());
+        assertEquals("CLOSED", breaker.stats().get("state"));
+    }
+
+    @Test
+    void probeBulkheadRejectionFreesItsSlot() {
+        ReflectionTestUtils.setField(breaker, "openMs", 0L);
+        openBreaker();
+
+        for (int i = 0; i < 3; i++) {
+            CompletableFuture<String> rejected = breaker.call(
+                    () -> CompletableFuture.failedFuture(new UpstreamRejectedException("queue full", 1000)));
+            assertInstanceOf(UpstreamRejectedException.class, cause(rejected));
+        }
+        assertEquals("ok", breaker.call(() -> CompletableFuture.completedFuture("ok")).join());
+        assertEquals("CLOSED", breaker.stats().get("state"));
+    }
+
+    @Test
+    void failedProbeReopens() {
+        ReflectionTestUtils.setField(breaker, "openMs", 0L);
+        openBreaker();
+
+        breaker.call(() -> CompletableFuture.failedFuture(new LlmException(503, "busy")));
+        assertEquals("OPEN", breaker.stats().get("state"));
+        assertEquals(2L, breaker.stats().get("opens"));
+    }
+
+    @Test
+    void shortCircuitsWhileOpen() {
+        ReflectionTestUtils.setField(breaker, "openMs", 60_000L);
+        openBreaker();
+
+        CompletableFuture<String> refused = breaker.call(() -> CompletableFuture.completedFuture("never"));
+        assertInstanceOf(CircuitOpenException.class, cause(refused));
+    }
+
+    private void openBreaker() {
+        for (int i = 0; i < 2; i++) {
+            breaker.call(() -> CompletableFuture.failedFuture(new LlmException(500, "boom")));
+        }
+        assertEquals("OPEN", breaker.stats().get("state"));
+    }
+
+    private static Throwable cause(CompletableFuture<?> future) {
+        CompletionException e = assertThrows(CompletionException.class, future::join);
+        return e.getCause();
+    }
+}
@@ -0,0 +1,69 @@
+package com.resumetailor.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UpstreamHedgerTest {
+
+    private UpstreamHedger hedger;
+
+    @BeforeEach
+    void setUp() {
+        hedger = new UpstreamHedger();
+        ReflectionTestUtils.setField(hedger, "enabled", true);
+        // The lowest recorded latency, so a single short sample would show
+        ReflectionTestUtils.setField(hedger, "percentile", 0.0);
+        ReflectionTestUtils.setField(hedger, "minDelayMs", 10L);
+        ReflectionTestUtils.setField(hedger, "minSamples", 1);
+        ReflectionTestUtils.setField(hedger, "windowSize", 10);
+        ReflectionTestUtils.setField(hedger, "budgetRatio", 1.0);
+        ReflectionTestUtils.setField(hedger, "budgetBurst", 5.0);
+        hedger.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        hedger.shutdown();
+    }
+
+    @Test
+    void hedgeWinRecordsTheLatencyFromTheFirstSend() throws Exception {
+        Deadline deadline = Deadline.after(Duration.ofMinutes(1));
+        hedger.call("chat", deadline, attempt -> {
+            attempt.sent();
+            return CompletableFuture.supplyAsync(() -> "slow",
+                    CompletableFuture.delayedExecutor(100, TimeUnit.MILLISECONDS));
+        }).get(5, TimeUnit.SECONDS);
+        long firstSample = hedgeDelayMs();
+        assertTrue(firstSample >= 100, "first sample " + firstSample);
+
+        // The first attempt stalls until cut off; the hedge answers as soon as it is sent
+        String answer = hedger.<String>call("chat", deadline, attempt -> {
+            attempt.sent();
+            if (attempt.isHedge()) return CompletableFuture.completedFuture("hedge");
+            CompletableFuture<String> stalled = new CompletableFuture<>();
+            attempt.deadline().onEnd(() -> stalled.completeExceptionally(new DeadlineExceededException("lost")));
+            return stalled;
+        }).get(5, TimeUnit.SECONDS);
+
+        assertEquals("hedge", answer);
+        assertEquals(1L, hedger.stats().get("hedgeWins"));
+        // Not the hedge's own near-zero latency, but at least the delay before it was sent
+        assertTrue(hedgeDelayMs() >= firstSample, "hedge sample " + hedgeDelayMs());
+    }
+
+    @SuppressWarnings("unchecked")
+    private long hedgeDelayMs() {
+        return (Long) ((Map<String, Object>) hedger.stats().get("hedgeDelayMs")).get("chat");
+    }
+}
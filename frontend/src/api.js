@@ -1,8 +1,12 @@
 import axios from 'axios';
 
+const TIMEOUT_MS = 60000;
+
+// The backend stops working on a request once we would have given up on it anyway
 const api = axios.create({
   baseURL: import.meta.env.VITE_API_BASE || 'http://localhost:8080',
-  timeout: 60000,
+  timeout: TIMEOUT_MS,
+  headers: { 'X-Request-Timeout-Ms': String(TIMEOUT_MS) },
 });
 
 // ---- Endpoints ----
@@ -58,18 +62,67 @@ export async function getAtsScore(resumeId, jobId) {
 
 // 4) Tailor resume
 //    POST /api/resume/tailor { resumeId, jobId }
-//    returns { resumeId, jobId, atsScore, tailoredText }
+//    returns { id, resumeId, jobId, atsScore, tailoredText, atsAnalysis }
+//    atsAnalysis is the model's analysis of the tailored text when it came with it, else null
 export async function tailorResume(resumeId, jobId) {
   const { data } = await api.post('/api/resume/tailor', { resumeId, jobId });
   // Normalize fields just in case
   return {
+    id: data.id ?? null,
     resumeId: data.resumeId ?? resumeId,
     jobId: data.jobId ?? jobId,
     atsScore: typeof data.atsScore === 'number' ? data.atsScore : (data.score ?? 0),
-    tailoredText: data.tailoredText ?? String(data ?? '')
+    tailoredText: data.tailoredText ?? String(data ?? ''),
+    atsAnalysis: data.atsAnalysis ?? null
   };
 }
 
+// 4a) ATS analysis of a tailored resume; served from the stored analysis when there is one
+//    GET /api/resume/tailored/{id}/ats-score
+export async function getTailoredAtsScore(tailoredId) {
+  const { data } = await api.get(`/api/resume/tailored/${encodeURIComponent(tailoredId)}/ats-score`);
+  return data;
+}
+
+// 4b) Tailor resume (streaming)
+//    GET /api/resume/tailor/stream?resumeId=&jobId=  (Server-Sent Events)
+//    onLine(text) fires per cleaned line; resolves with the same shape as tailorResume
+export function tailorResumeStream(resumeId, jobId, { onLine } = {}) {
+  const base = api.defaults.baseURL;
+  const url = `${base}/api/resume/tailor/stream?resumeId=${encodeURIComponent(resumeId)}&jobId=${encodeURIComponent(jobId)}`;
+  return new Promise((resolve, reject) => {
+    const source = new EventSource(url);
+    source.addEventListener('line', (e) => onLine?.(e.data));
+    source.addEventListener('done', (e) => {
+      source.close();
+      const data = JSON.parse(e.data);
+      resolve({
+        resumeId: data.resumeId ?? resumeId,
+        jobId: data.jobId ?? jobId,
+        atsScore: typeof data.atsScore === 'number' ? data.atsScore : 0,
+        tailoredText: data.tailoredText ?? ''
+      });
+    });
+    source.addEventListener('error', (e) => {
+      source.close();
+      reject(new Error(e.data || 'Streaming connection failed'));
+    });
+  });
+}
+
+// 4c) Tailor resume (queued)
+//    POST /api/resume/tailor/tasks { resumeId, jobId } -> 202 { taskId, status, ... }
+//    GET  /api/resume/tailor/tasks/{taskId}           -> { status, stage, progress, result }
+export async function submitTailorTask(resumeId, jobId) {
+  const { data } = await api.post('/api/resume/tailor/tasks', { resumeId, jobId });
+  return data;
+}
+
+export async function getTailorTask(taskId) {
+  const { data } = await api.get(`/api/resume/tailor/tasks/${encodeURIComponent(taskId)}`);
+  return data;
+}
+
 // Optional ping
 export async function pingAI() {
   try {